@@ -13,6 +13,11 @@ import java.text.MessageFormat;
 public class CellError implements Serializable {
 	private static final long serialVersionUID = -6160610503938820467L;
 
+	/**
+	 * the name of the sheet where the cell is
+	 */
+	private String sheetName;
+
 	/**
 	 * the cell's rowIndex. 0-based
 	 */
@@ -33,11 +38,24 @@ public class CellError implements Serializable {
 	 */
 	private String headerText;
 
+	/**
+	 * why the cell cannot be set to the record. It could be null
+	 */
+	private CellErrorReason reason;
+
 	/**
 	 * the cause of the error. It could be null
 	 */
 	private Exception cause;
 
+	public String getSheetName() {
+		return sheetName;
+	}
+
+	public void setSheetName(String sheetName) {
+		this.sheetName = sheetName;
+	}
+
 	public int getRowIndex() {
 		return rowIndex;
 	}
@@ -78,6 +96,14 @@ public class CellError implements Serializable {
 		this.headerText = headerText;
 	}
 
+	public CellErrorReason getReason() {
+		return reason;
+	}
+
+	public void setReason(CellErrorReason reason) {
+		this.reason = reason;
+	}
+
 	public Exception getCause() {
 		return cause;
 	}
@@ -88,7 +114,7 @@ public class CellError implements Serializable {
 
 	@Override
 	public String toString() {
-		return MessageFormat.format("rowIndex = {0}, columnIndex = {1}, propName = \"{2}\", headerText = \"{3}\", cause = {4} ", rowIndex,
-				columnIndex, propName, headerText, cause);
+		return MessageFormat.format("sheetName = \"{0}\", rowIndex = {1}, columnIndex = {2}, propName = \"{3}\", headerText = \"{4}\", reason = {5}, cause = {6} ",
+				sheetName, rowIndex, columnIndex, propName, headerText, reason, cause);
 	}
 }
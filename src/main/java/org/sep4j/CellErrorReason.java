@@ -0,0 +1,38 @@
+package org.sep4j;
+
+/**
+ * 
+ * why a cell cannot be set to the record
+ * 
+ * @author chenjianjx
+ */
+public enum CellErrorReason {
+
+	/**
+	 * the property has no setter at all
+	 */
+	NO_SETTER,
+
+	/**
+	 * the cell is empty, but no setter of the property can take null, e.g.
+	 * the property is of a primitive type
+	 */
+	NULL_NOT_ACCEPTED,
+
+	/**
+	 * it is a date cell, but the property has no setter taking a
+	 * java.util.Date
+	 */
+	NO_DATE_SETTER,
+
+	/**
+	 * the cell text cannot be converted to the type of any setter
+	 */
+	NOT_CONVERTIBLE,
+
+	/**
+	 * a setter was found, but it threw an exception
+	 */
+	SETTER_FAILED
+
+}
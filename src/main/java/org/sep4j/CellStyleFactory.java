@@ -0,0 +1,26 @@
+package org.sep4j;
+
+import java.io.Serializable;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Workbook;
+
+/**
+ * creates a named cell style, see
+ * {@link SaveOptions#registerCellStyle(String, CellStyleFactory)}. It is
+ * called at most once for a workbook, and the style it creates is shared by
+ * all the cells using it.
+ *
+ * @author chenjianjx
+ */
+public interface CellStyleFactory extends Serializable {
+
+	/**
+	 * create the style with {@link Workbook#createCellStyle()}
+	 *
+	 * @param workbook
+	 *            the workbook being saved
+	 * @return the style
+	 */
+	CellStyle createCellStyle(Workbook workbook);
+}
@@ -0,0 +1,183 @@
+package org.sep4j;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.poi.hssf.usermodel.HSSFCellStyle;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.IndexedColors;
+import org.apache.poi.ss.usermodel.Workbook;
+
+/**
+ * the named cell styles of a workbook. A style is created the first time it
+ * is asked for and then shared, so the number of styles in a workbook doesn't
+ * grow with the number of records.
+ *
+ * @author chenjianjx
+ */
+class CellStyleRegistry {
+
+	private final Workbook workbook;
+
+	/**
+	 * key = style name
+	 */
+	private final Map<String, CellStyleFactory> factories = new LinkedHashMap<String, CellStyleFactory>();
+
+	/**
+	 * key = style name
+	 */
+	private final Map<String, CellStyle> styles = new HashMap<String, CellStyle>();
+
+	/**
+	 * key = a column style, value = the copy of it with the date format
+	 */
+	private final Map<CellStyle, CellStyle> columnDateStyles = new IdentityHashMap<CellStyle, CellStyle>();
+
+	/**
+	 * the styles registered in the save options can override the built-in
+	 * ones
+	 */
+	CellStyleRegistry(Workbook workbook, SaveOptions saveOptions) {
+		this.workbook = workbook;
+		factories.put(SaveOptions.HEADER_STYLE, new DefaultHeaderStyleFactory());
+		factories.put(SaveOptions.DATUM_ERROR_STYLE,
+				new DefaultDatumErrorStyleFactory());
+		factories.put(SaveOptions.DATE_STYLE, new DefaultDateStyleFactory(
+				saveOptions.getDateFormat()));
+		factories.putAll(saveOptions.getCellStyles());
+	}
+
+	/**
+	 * is there a style of this name, either built-in or registered?
+	 */
+	static boolean isKnown(String styleName,
+			Map<String, CellStyleFactory> registeredFactories) {
+		return SaveOptions.HEADER_STYLE.equals(styleName)
+				|| SaveOptions.DATUM_ERROR_STYLE.equals(styleName)
+				|| SaveOptions.DATE_STYLE.equals(styleName)
+				|| (registeredFactories != null && registeredFactories
+						.containsKey(styleName));
+	}
+
+	/**
+	 * get the style, or create it if it's the first time
+	 *
+	 * @throws IllegalArgumentException
+	 *             if there is no such style
+	 */
+	CellStyle getStyle(String styleName) {
+		CellStyle style = styles.get(styleName);
+		if (style != null) {
+			return style;
+		}
+		CellStyleFactory factory = factories.get(styleName);
+		if (factory == null) {
+			throw new IllegalArgumentException("the cell style \"" + styleName
+					+ "\" is not registered");
+		}
+		style = factory.createCellStyle(workbook);
+		if (style == null) {
+			throw new IllegalStateException("the cell style \"" + styleName
+					+ "\" is created as null");
+		}
+		styles.put(styleName, style);
+		return style;
+	}
+
+	CellStyle getHeaderStyle() {
+		return getStyle(SaveOptions.HEADER_STYLE);
+	}
+
+	CellStyle getDatumErrorStyle() {
+		return getStyle(SaveOptions.DATUM_ERROR_STYLE);
+	}
+
+	CellStyle getDateStyle() {
+		return getStyle(SaveOptions.DATE_STYLE);
+	}
+
+	/**
+	 * the style of the date cells of a column with its own style. It's the
+	 * column style itself if it has a date format already, or a copy of it
+	 * with the date format of the {@link SaveOptions#DATE_STYLE}. The copy is
+	 * created once per column style.
+	 */
+	CellStyle getDateStyle(CellStyle columnStyle) {
+		if (DateUtil.isADateFormat(columnStyle.getDataFormat(),
+				columnStyle.getDataFormatString())) {
+			return columnStyle;
+		}
+		CellStyle style = columnDateStyles.get(columnStyle);
+		if (style == null) {
+			style = workbook.createCellStyle();
+			style.cloneStyleFrom(columnStyle);
+			style.setDataFormat(getDateStyle().getDataFormat());
+			columnDateStyles.put(columnStyle, style);
+		}
+		return style;
+	}
+
+	/**
+	 * how many styles have been created
+	 */
+	int size() {
+		return styles.size() + columnDateStyles.size();
+	}
+
+	/**
+	 * yellow with thin borders
+	 */
+	private static class DefaultHeaderStyleFactory implements CellStyleFactory {
+		private static final long serialVersionUID = 1L;
+
+		public CellStyle createCellStyle(Workbook workbook) {
+			CellStyle style = workbook.createCellStyle();
+			style.setFillForegroundColor(IndexedColors.YELLOW.getIndex());
+			style.setFillPattern(CellStyle.SOLID_FOREGROUND);
+			style.setBorderBottom(HSSFCellStyle.BORDER_THIN);
+			style.setBorderTop(HSSFCellStyle.BORDER_THIN);
+			style.setBorderRight(HSSFCellStyle.BORDER_THIN);
+			style.setBorderLeft(HSSFCellStyle.BORDER_THIN);
+			return style;
+		}
+	}
+
+	/**
+	 * red
+	 */
+	private static class DefaultDatumErrorStyleFactory implements
+			CellStyleFactory {
+		private static final long serialVersionUID = 1L;
+
+		public CellStyle createCellStyle(Workbook workbook) {
+			CellStyle style = workbook.createCellStyle();
+			style.setFillForegroundColor(IndexedColors.RED.getIndex());
+			style.setFillPattern(CellStyle.SOLID_FOREGROUND);
+			return style;
+		}
+	}
+
+	/**
+	 * the date format of the save options
+	 */
+	private static class DefaultDateStyleFactory implements CellStyleFactory {
+		private static final long serialVersionUID = 1L;
+
+		private final String dateFormat;
+
+		public DefaultDateStyleFactory(String dateFormat) {
+			this.dateFormat = dateFormat;
+		}
+
+		public CellStyle createCellStyle(Workbook workbook) {
+			CellStyle style = workbook.createCellStyle();
+			style.setDataFormat(workbook.createDataFormat().getFormat(
+					dateFormat));
+			return style;
+		}
+	}
+}
@@ -0,0 +1,366 @@
+package org.sep4j;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+
+/**
+ * reads the parts of an xlsx package from a seekable channel. Only the
+ * central directory is read up front; a part is read from its own position
+ * when it's opened, so the package is never copied.
+ *
+ * Different parts can be read at the same time.
+ *
+ * @author chenjianjx
+ */
+class ChannelPartSource implements XlsxPartSource {
+
+	private static final int END_OF_CENTRAL_DIR_SIG = 0x06054b50;
+
+	private static final int ZIP64_END_OF_CENTRAL_DIR_LOCATOR_SIG = 0x07064b50;
+
+	private static final int ZIP64_END_OF_CENTRAL_DIR_SIG = 0x06064b50;
+
+	private static final int CENTRAL_DIR_HEADER_SIG = 0x02014b50;
+
+	private static final int LOCAL_HEADER_SIG = 0x04034b50;
+
+	private static final int END_OF_CENTRAL_DIR_SIZE = 22;
+
+	private static final int ZIP64_END_OF_CENTRAL_DIR_LOCATOR_SIZE = 20;
+
+	private static final int ZIP64_END_OF_CENTRAL_DIR_SIZE = 56;
+
+	private static final int CENTRAL_DIR_HEADER_SIZE = 46;
+
+	private static final int LOCAL_HEADER_SIZE = 30;
+
+	private static final int MAX_COMMENT_SIZE = 0xFFFF;
+
+	private static final int ZIP64_EXTRA_ID = 0x0001;
+
+	private static final long UINT32_MAX = 0xFFFFFFFFL;
+
+	private static final int STORED = 0;
+
+	private static final int DEFLATED = 8;
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private final SeekableByteChannel channel;
+
+	private final boolean closeChannel;
+
+	/**
+	 * key = entry name
+	 */
+	private final Map<String, Entry> entries = new HashMap<String, Entry>();
+
+	/**
+	 * @param closeChannel
+	 *            should the channel be closed with this source?
+	 * @throws ZipException
+	 *             if it's not a zip
+	 */
+	ChannelPartSource(SeekableByteChannel channel, boolean closeChannel)
+			throws IOException {
+		this.channel = channel;
+		this.closeChannel = closeChannel;
+		readCentralDirectory();
+	}
+
+	public InputStream openPart(String partName) throws IOException {
+		Entry entry = entries.get(partName);
+		if (entry == null) {
+			return null;
+		}
+		ByteBuffer localHeader = read(entry.localHeaderOffset,
+				LOCAL_HEADER_SIZE);
+		if (localHeader.getInt(0) != LOCAL_HEADER_SIG) {
+			throw new ZipException("Invalid local header of " + partName);
+		}
+		long dataOffset = entry.localHeaderOffset + LOCAL_HEADER_SIZE
+				+ (localHeader.getShort(26) & 0xFFFF)
+				+ (localHeader.getShort(28) & 0xFFFF);
+		if (entry.compressedSize > channel.size() - dataOffset) {
+			throw new ZipException("Invalid size of " + partName);
+		}
+		InputStream data = new RangeInputStream(dataOffset,
+				entry.compressedSize);
+		if (entry.method == STORED) {
+			return data;
+		}
+		if (entry.method == DEFLATED) {
+			return new EntryInflaterInputStream(data);
+		}
+		data.close();
+		throw new ZipException("Unsupported compression method "
+				+ entry.method + " of " + partName);
+	}
+
+	public void close() throws IOException {
+		if (closeChannel) {
+			channel.close();
+		}
+	}
+
+	private void readCentralDirectory() throws IOException {
+		long size = channel.size();
+		if (size < END_OF_CENTRAL_DIR_SIZE) {
+			throw new ZipException("Not a zip file");
+		}
+		int tailSize = (int) Math.min(size, END_OF_CENTRAL_DIR_SIZE
+				+ MAX_COMMENT_SIZE);
+		long tailOffset = size - tailSize;
+		ByteBuffer tail = read(tailOffset, tailSize);
+		int eocd = -1;
+		for (int i = tailSize - END_OF_CENTRAL_DIR_SIZE; i >= 0; i--) {
+			if (tail.getInt(i) == END_OF_CENTRAL_DIR_SIG) {
+				eocd = i;
+				break;
+			}
+		}
+		if (eocd < 0) {
+			throw new ZipException("Not a zip file");
+		}
+
+		long entryCount = tail.getShort(eocd + 10) & 0xFFFF;
+		long centralDirSize = tail.getInt(eocd + 12) & UINT32_MAX;
+		long centralDirOffset = tail.getInt(eocd + 16) & UINT32_MAX;
+		// where the central directory must end
+		long centralDirLimit = tailOffset + eocd;
+		int locator = eocd - ZIP64_END_OF_CENTRAL_DIR_LOCATOR_SIZE;
+		if (locator >= 0
+				&& tail.getInt(locator) == ZIP64_END_OF_CENTRAL_DIR_LOCATOR_SIG) {
+			long zip64EocdOffset = tail.getLong(locator + 8);
+			centralDirLimit = tailOffset + locator;
+			if (zip64EocdOffset < 0
+					|| zip64EocdOffset > centralDirLimit
+							- ZIP64_END_OF_CENTRAL_DIR_SIZE) {
+				throw new ZipException("Invalid zip64 end of central directory");
+			}
+			ByteBuffer zip64Eocd = read(zip64EocdOffset,
+					ZIP64_END_OF_CENTRAL_DIR_SIZE);
+			if (zip64Eocd.getInt(0) != ZIP64_END_OF_CENTRAL_DIR_SIG) {
+				throw new ZipException("Invalid zip64 end of central directory");
+			}
+			entryCount = zip64Eocd.getLong(32);
+			centralDirSize = zip64Eocd.getLong(40);
+			centralDirOffset = zip64Eocd.getLong(48);
+			centralDirLimit = zip64EocdOffset;
+		}
+		// check it before anything is allocated for the directory
+		if (centralDirOffset < 0 || centralDirSize < 0
+				|| centralDirSize > centralDirLimit - centralDirOffset) {
+			throw new ZipException("Invalid central directory");
+		}
+		if (centralDirSize > Integer.MAX_VALUE) {
+			throw new ZipException("The central directory is too large");
+		}
+		if (entryCount < 0
+				|| entryCount > centralDirSize / CENTRAL_DIR_HEADER_SIZE) {
+			throw new ZipException("Invalid entry count of central directory");
+		}
+
+		ByteBuffer dir = read(centralDirOffset, (int) centralDirSize);
+		int pos = 0;
+		for (long i = 0; i < entryCount; i++) {
+			if (dir.limit() - pos < CENTRAL_DIR_HEADER_SIZE
+					|| dir.getInt(pos) != CENTRAL_DIR_HEADER_SIG) {
+				throw new ZipException("Invalid central directory");
+			}
+			Entry entry = new Entry();
+			entry.method = dir.getShort(pos + 10) & 0xFFFF;
+			entry.compressedSize = dir.getInt(pos + 20) & UINT32_MAX;
+			long uncompressedSize = dir.getInt(pos + 24) & UINT32_MAX;
+			int nameLength = dir.getShort(pos + 28) & 0xFFFF;
+			int extraLength = dir.getShort(pos + 30) & 0xFFFF;
+			int commentLength = dir.getShort(pos + 32) & 0xFFFF;
+			entry.localHeaderOffset = dir.getInt(pos + 42) & UINT32_MAX;
+			int recordEnd = pos + CENTRAL_DIR_HEADER_SIZE + nameLength
+					+ extraLength + commentLength;
+			if (recordEnd > dir.limit()) {
+				throw new ZipException("Invalid central directory");
+			}
+
+			byte[] name = new byte[nameLength];
+			dir.position(pos + CENTRAL_DIR_HEADER_SIZE);
+			dir.get(name);
+
+			// the zip64 extra field has the values which don't fit 32 bits,
+			// in this order
+			int extraPos = pos + CENTRAL_DIR_HEADER_SIZE + nameLength;
+			int extraEnd = extraPos + extraLength;
+			while (extraPos + 4 <= extraEnd) {
+				int id = dir.getShort(extraPos) & 0xFFFF;
+				int length = dir.getShort(extraPos + 2) & 0xFFFF;
+				int fieldEnd = extraPos + 4 + length;
+				if (fieldEnd > extraEnd) {
+					throw new ZipException("Invalid extra field");
+				}
+				if (id == ZIP64_EXTRA_ID) {
+					int valuePos = extraPos + 4;
+					if (uncompressedSize == UINT32_MAX) {
+						valuePos += 8;
+					}
+					if (entry.compressedSize == UINT32_MAX) {
+						entry.compressedSize = getZip64Value(dir, valuePos,
+								fieldEnd);
+						valuePos += 8;
+					}
+					if (entry.localHeaderOffset == UINT32_MAX) {
+						entry.localHeaderOffset = getZip64Value(dir, valuePos,
+								fieldEnd);
+					}
+				}
+				extraPos = fieldEnd;
+			}
+			if (entry.compressedSize < 0 || entry.localHeaderOffset < 0
+					|| entry.localHeaderOffset > size - LOCAL_HEADER_SIZE) {
+				throw new ZipException("Invalid central directory");
+			}
+
+			entries.put(new String(name, UTF_8), entry);
+			pos = recordEnd;
+		}
+	}
+
+	private static long getZip64Value(ByteBuffer dir, int valuePos,
+			int fieldEnd) throws ZipException {
+		if (valuePos + 8 > fieldEnd) {
+			throw new ZipException("Invalid zip64 extra field");
+		}
+		return dir.getLong(valuePos);
+	}
+
+	private ByteBuffer read(long position, int length) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(length).order(
+				ByteOrder.LITTLE_ENDIAN);
+		readFully(position, buffer);
+		buffer.flip();
+		return buffer;
+	}
+
+	private void readFully(long position, ByteBuffer buffer)
+			throws IOException {
+		if (channel instanceof FileChannel) {
+			// positional reads don't move the channel, so no lock is needed
+			FileChannel fileChannel = (FileChannel) channel;
+			while (buffer.hasRemaining()) {
+				int n = fileChannel.read(buffer, position);
+				if (n < 0) {
+					throw new EOFException();
+				}
+				position += n;
+			}
+			return;
+		}
+		synchronized (channel) {
+			channel.position(position);
+			while (buffer.hasRemaining()) {
+				if (channel.read(buffer) < 0) {
+					throw new EOFException();
+				}
+			}
+		}
+	}
+
+	private static class Entry {
+		int method;
+		long compressedSize;
+		long localHeaderOffset;
+	}
+
+	/**
+	 * reads a range of the channel
+	 */
+	private class RangeInputStream extends InputStream {
+		private long position;
+		private long remaining;
+
+		RangeInputStream(long position, long length) {
+			this.position = position;
+			this.remaining = length;
+		}
+
+		@Override
+		public int read() throws IOException {
+			byte[] b = new byte[1];
+			return read(b, 0, 1) < 0 ? -1 : b[0] & 0xFF;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (remaining <= 0) {
+				return -1;
+			}
+			if (len == 0) {
+				return 0;
+			}
+			int n = (int) Math.min(len, remaining);
+			readFully(position, ByteBuffer.wrap(b, off, n));
+			position += n;
+			remaining -= n;
+			return n;
+		}
+
+		@Override
+		public long skip(long n) {
+			long skipped = Math.max(0, Math.min(n, remaining));
+			position += skipped;
+			remaining -= skipped;
+			return skipped;
+		}
+
+		@Override
+		public int available() {
+			return (int) Math.min(remaining, Integer.MAX_VALUE);
+		}
+	}
+
+	/**
+	 * the same as what {@link java.util.zip.ZipFile} does: a dummy byte is
+	 * given to the inflater at the end of the data, and the inflater is
+	 * released on close
+	 */
+	private static class EntryInflaterInputStream extends InflaterInputStream {
+		private boolean eof;
+
+		EntryInflaterInputStream(InputStream in) {
+			super(in, new Inflater(true), 8192);
+		}
+
+		@Override
+		protected void fill() throws IOException {
+			if (eof) {
+				throw new EOFException("Unexpected end of zip entry");
+			}
+			len = in.read(buf, 0, buf.length);
+			if (len == -1) {
+				buf[0] = 0;
+				len = 1;
+				eof = true;
+			}
+			inf.setInput(buf, 0, len);
+		}
+
+		@Override
+		public void close() throws IOException {
+			try {
+				super.close();
+			} finally {
+				inf.end();
+			}
+		}
+	}
+}
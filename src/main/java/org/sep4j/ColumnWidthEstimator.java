@@ -0,0 +1,105 @@
+package org.sep4j;
+
+import org.apache.poi.ss.usermodel.Sheet;
+
+/**
+ * estimates the column widths from the character counts of the header and a
+ * sample of the data rows, and sets them to the sheet once at the end. Unlike
+ * {@link Sheet#autoSizeColumn(int)}, no font metrics are needed, so it's cheap
+ * and works on headless machines.
+ *
+ * @author chenjianjx
+ */
+class ColumnWidthEstimator {
+
+	/**
+	 * the max width allowed by excel, in 1/256 of a character
+	 */
+	private static final int MAX_WIDTH = 255 * 256;
+
+	/**
+	 * some room on both sides of the text, in characters
+	 */
+	private static final int PADDING = 2;
+
+	private final int sampleRows;
+
+	/**
+	 * the max character counts of the columns
+	 */
+	private final int[] maxCharCounts;
+
+	/**
+	 * @param sampleRows
+	 *            how many data rows to look at, besides the header
+	 */
+	ColumnWidthEstimator(int columnCount, int sampleRows) {
+		this.sampleRows = sampleRows;
+		this.maxCharCounts = new int[columnCount];
+	}
+
+	/**
+	 * should the cells of this record be sampled?
+	 *
+	 * @param recordIndex
+	 *            0-based
+	 */
+	boolean isSampling(int recordIndex) {
+		return recordIndex < sampleRows;
+	}
+
+	void sample(int columnIndex, String text) {
+		if (text == null) {
+			return;
+		}
+		int charCount = countChars(text);
+		if (charCount > maxCharCounts[columnIndex]) {
+			maxCharCounts[columnIndex] = charCount;
+		}
+	}
+
+	/**
+	 * set the widths to the sheet
+	 */
+	void applyTo(Sheet sheet) {
+		for (int columnIndex = 0; columnIndex < maxCharCounts.length; columnIndex++) {
+			sheet.setColumnWidth(columnIndex, getWidth(columnIndex));
+		}
+	}
+
+	/**
+	 * the estimated width of a column, in 1/256 of a character
+	 */
+	int getWidth(int columnIndex) {
+		int width = (maxCharCounts[columnIndex] + PADDING) * 256;
+		return Math.min(width, MAX_WIDTH);
+	}
+
+	/**
+	 * the count of the widest line. East asian characters are counted as two
+	 * since they are about twice as wide.
+	 */
+	static int countChars(String text) {
+		int max = 0;
+		int count = 0;
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (c == '\n') {
+				count = 0;
+				continue;
+			}
+			count += isWide(c) ? 2 : 1;
+			if (count > max) {
+				max = count;
+			}
+		}
+		return max;
+	}
+
+	private static boolean isWide(char c) {
+		return c >= 0x1100
+				&& (c <= 0x115F || (c >= 0x2E80 && c <= 0xA4CF)
+						|| (c >= 0xAC00 && c <= 0xD7A3)
+						|| (c >= 0xF900 && c <= 0xFAFF) || (c >= 0xFF00 && c <= 0xFF60));
+	}
+}
@@ -0,0 +1,217 @@
+package org.sep4j;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * reads the records of a csv file as rows, so that they can be mapped the
+ * same way as those of a sheet. Quoted fields, escaped quotes and line breaks
+ * inside quotes are supported, as described in RFC 4180. The fields are
+ * scanned in a char buffer, and a field is only copied to a string once.
+ *
+ * Like a string cell, a field is trimmed to null. A blank line is skipped as
+ * a row that doesn't exist.
+ *
+ * @author chenjianjx
+ */
+class CsvSheetRowReader implements SheetRowReader {
+
+	private static final int BUFFER_SIZE = 8192;
+
+	private static final char BOM = '\uFEFF';
+
+	private final Reader reader;
+
+	private final char separator;
+
+	private final char[] buf = new char[BUFFER_SIZE];
+
+	private int pos;
+
+	private int limit;
+
+	private boolean eof;
+
+	private int lastRowIndex = -1;
+
+	/**
+	 * reused for every row
+	 */
+	private final List<Object> cellValues = new ArrayList<Object>();
+
+	/**
+	 * reused for the fields which are quoted or span two buffers
+	 */
+	private final StringBuilder field = new StringBuilder();
+
+	/**
+	 * @param reader
+	 *            it's not closed by this class
+	 */
+	CsvSheetRowReader(Reader reader, char separator) {
+		this.reader = reader;
+		this.separator = separator;
+	}
+
+	public RawRow nextRow() {
+		try {
+			if (lastRowIndex < 0 && fill() && buf[pos] == BOM) {
+				pos++;
+			}
+			while (fill()) {
+				int rowIndex = ++lastRowIndex;
+				cellValues.clear();
+				while (readField()) {
+				}
+				if (cellValues.size() > 1 || cellValues.get(0) != null) {
+					return new RawRow(rowIndex, cellValues.toArray());
+				}
+			}
+			return null;
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * read a field and the separator or the line break after it
+	 *
+	 * @return true if there are more fields in the record
+	 */
+	private boolean readField() throws IOException {
+		field.setLength(0);
+		// the spaces before a quote are ignored. Otherwise they will be
+		// trimmed anyway
+		while (separator != ' ' && fill() && buf[pos] == ' ') {
+			pos++;
+		}
+		if (fill() && buf[pos] == '"') {
+			pos++;
+			readQuoted();
+		}
+		int start = pos;
+		while (true) {
+			if (pos == limit) {
+				field.append(buf, start, pos - start);
+				if (!fill()) {
+					cellValues.add(trimToNull(field));
+					return false;
+				}
+				start = pos;
+			}
+			char c = buf[pos];
+			if (c == separator || c == '\n' || c == '\r') {
+				if (field.length() == 0) {
+					cellValues.add(trimToNull(buf, start, pos));
+				} else {
+					field.append(buf, start, pos - start);
+					cellValues.add(trimToNull(field));
+				}
+				pos++;
+				if (c == separator) {
+					return true;
+				}
+				if (c == '\r' && fill() && buf[pos] == '\n') {
+					pos++;
+				}
+				return false;
+			}
+			pos++;
+		}
+	}
+
+	/**
+	 * read the quoted part of a field into the field builder. The reader will
+	 * be right after the closing quote afterwards. A quote which isn't closed
+	 * takes the rest of the file.
+	 */
+	private void readQuoted() throws IOException {
+		int start = pos;
+		while (true) {
+			if (pos == limit) {
+				field.append(buf, start, pos - start);
+				if (!fill()) {
+					return;
+				}
+				start = pos;
+			}
+			if (buf[pos] == '"') {
+				field.append(buf, start, pos - start);
+				pos++;
+				if (!fill() || buf[pos] != '"') {
+					return;
+				}
+				// an escaped quote. Keep the second one
+				start = pos;
+			}
+			pos++;
+		}
+	}
+
+	/**
+	 * make sure there are chars to read in the buffer
+	 *
+	 * @return false if the end of the file is reached
+	 */
+	private boolean fill() throws IOException {
+		if (pos < limit) {
+			return true;
+		}
+		if (eof) {
+			return false;
+		}
+		int n;
+		do {
+			n = reader.read(buf, 0, buf.length);
+		} while (n == 0);
+		pos = 0;
+		if (n < 0) {
+			eof = true;
+			limit = 0;
+			return false;
+		}
+		limit = n;
+		return true;
+	}
+
+	/**
+	 * the same as {@link String#trim()}, but null for an empty string
+	 */
+	private static String trimToNull(char[] chars, int start, int end) {
+		while (start < end && chars[start] <= ' ') {
+			start++;
+		}
+		while (end > start && chars[end - 1] <= ' ') {
+			end--;
+		}
+		return start == end ? null : new String(chars, start, end - start);
+	}
+
+	private static String trimToNull(StringBuilder sb) {
+		int start = 0;
+		int end = sb.length();
+		while (start < end && sb.charAt(start) <= ' ') {
+			start++;
+		}
+		while (end > start && sb.charAt(end - 1) <= ' ') {
+			end--;
+		}
+		return start == end ? null : sb.substring(start, end);
+	}
+
+	/**
+	 * a csv file has no sheets
+	 *
+	 * @return null
+	 */
+	public String getSheetName() {
+		return null;
+	}
+
+	public void close() {
+		// the reader belongs to the caller
+	}
+
+}
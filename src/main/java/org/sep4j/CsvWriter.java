@@ -0,0 +1,123 @@
+package org.sep4j;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collection;
+
+/**
+ * writes rows to a csv file as described in RFC 4180. A field is quoted only
+ * if it contains a separator, a quote or a line break. The rows are buffered
+ * in a char array, which is written out when it's full.
+ *
+ * @author chenjianjx
+ */
+class CsvWriter {
+
+	private static final int BUFFER_SIZE = 8192;
+
+	private final Writer writer;
+
+	private final char separator;
+
+	private final char[] buf = new char[BUFFER_SIZE];
+
+	private int pos;
+
+	/**
+	 * @param writer
+	 *            it's not closed by this class
+	 */
+	CsvWriter(Writer writer, char separator) {
+		this.writer = writer;
+		this.separator = separator;
+	}
+
+	void writeRow(Collection<String> fields) throws IOException {
+		boolean first = true;
+		for (String field : fields) {
+			if (!first) {
+				write(separator);
+			}
+			writeField(field);
+			first = false;
+		}
+		write('\r');
+		write('\n');
+	}
+
+	void writeRow(Object[] fields) throws IOException {
+		for (int i = 0; i < fields.length; i++) {
+			if (i > 0) {
+				write(separator);
+			}
+			writeField(fields[i] == null ? null : fields[i].toString());
+		}
+		write('\r');
+		write('\n');
+	}
+
+	/**
+	 * write the buffered rows to the writer, and flush it
+	 */
+	void flush() throws IOException {
+		writer.write(buf, 0, pos);
+		pos = 0;
+		writer.flush();
+	}
+
+	private void writeField(String field) throws IOException {
+		if (field == null) {
+			return;
+		}
+		if (!needsQuotes(field)) {
+			write(field, 0, field.length());
+			return;
+		}
+		write('"');
+		int start = 0;
+		for (int i = 0; i < field.length(); i++) {
+			if (field.charAt(i) == '"') {
+				// the quote is written twice
+				write(field, start, i + 1);
+				start = i;
+			}
+		}
+		write(field, start, field.length());
+		write('"');
+	}
+
+	private boolean needsQuotes(String field) {
+		for (int i = 0; i < field.length(); i++) {
+			char c = field.charAt(i);
+			if (c == separator || c == '"' || c == '\n' || c == '\r') {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void write(char c) throws IOException {
+		if (pos == buf.length) {
+			writer.write(buf, 0, pos);
+			pos = 0;
+		}
+		buf[pos++] = c;
+	}
+
+	/**
+	 * write the chars of a string from start to end
+	 */
+	private void write(String s, int start, int end) throws IOException {
+		while (start < end) {
+			if (pos == buf.length) {
+				writer.write(buf, 0, pos);
+				pos = 0;
+			}
+			int n = Math.min(end - start, buf.length - pos);
+			s.getChars(start, start + n, buf, pos);
+			pos += n;
+			start += n;
+		}
+	}
+
+}
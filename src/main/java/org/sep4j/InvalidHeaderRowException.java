@@ -12,4 +12,12 @@ public class InvalidHeaderRowException extends Exception{
 	 */
 	private static final long serialVersionUID = 3419481876284340752L;
 
+	public InvalidHeaderRowException() {
+		super();
+	}
+
+	public InvalidHeaderRowException(String message) {
+		super(message);
+	}
+
 }
@@ -0,0 +1,33 @@
+package org.sep4j;
+
+import java.util.Iterator;
+import java.util.function.Function;
+
+/**
+ * maps the elements of a source one by one on the calling thread
+ *
+ * @author chenjianjx
+ */
+class MappingIterator<F, R> implements Iterator<R> {
+
+	private final Iterator<F> source;
+
+	private final Function<? super F, R> function;
+
+	MappingIterator(Iterator<F> source, Function<? super F, R> function) {
+		this.source = source;
+		this.function = function;
+	}
+
+	public boolean hasNext() {
+		return source.hasNext();
+	}
+
+	public R next() {
+		return function.apply(source.next());
+	}
+
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+}
@@ -0,0 +1,171 @@
+package org.sep4j;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * maps the elements of a source in batches with a pool of threads, and gives
+ * out the results in the original order, so that a single thread can consume
+ * them, e.g. to write the rows of a sheet. The elements themselves are pulled
+ * by the thread calling {@link #hasNext()}, since the source may not be
+ * thread-safe.
+ *
+ * At most a few batches are mapped ahead, so the heap usage doesn't grow with
+ * the size of the source.
+ *
+ * @author chenjianjx
+ */
+class ParallelMappingIterator<F, R> implements Iterator<R>, Closeable {
+
+	private static final AtomicInteger POOL_SEQ = new AtomicInteger();
+
+	private final Iterator<F> source;
+
+	private final Function<? super F, R> function;
+
+	private final int batchSize;
+
+	private final int maxBatchesAhead;
+
+	private final ExecutorService executor;
+
+	/**
+	 * is the executor created by this iterator, so that it's shut down on
+	 * {@link #close()} ?
+	 */
+	private final boolean ownExecutor;
+
+	/**
+	 * the batches being mapped, in the original order
+	 */
+	private final Deque<Future<List<R>>> batches = new ArrayDeque<Future<List<R>>>();
+
+	private Iterator<R> currentBatch = Collections.<R> emptyList().iterator();
+
+	/**
+	 * @param function
+	 *            it must be thread-safe
+	 * @param parallelism
+	 *            how many threads do the mapping
+	 * @param batchSize
+	 *            how many elements a thread maps at a time
+	 * @param executor
+	 *            the threads to map the batches with. It's left running on
+	 *            {@link #close()}. If null, a pool of parallelism threads is
+	 *            created, and shut down on {@link #close()}. Either way at
+	 *            most 2 * parallelism batches are queued or mapped at a time.
+	 */
+	ParallelMappingIterator(Iterator<F> source,
+			Function<? super F, R> function, int parallelism, int batchSize,
+			ExecutorService executor) {
+		this.source = source;
+		this.function = function;
+		this.batchSize = batchSize;
+		this.maxBatchesAhead = parallelism * 2;
+		this.ownExecutor = executor == null;
+		this.executor = ownExecutor ? Executors.newFixedThreadPool(
+				parallelism, new DaemonThreadFactory("sep4j-worker-"
+						+ POOL_SEQ.incrementAndGet() + "-")) : executor;
+	}
+
+	public boolean hasNext() {
+		while (!currentBatch.hasNext()) {
+			submitBatches();
+			Future<List<R>> batch = batches.poll();
+			if (batch == null) {
+				return false;
+			}
+			currentBatch = await(batch).iterator();
+		}
+		return true;
+	}
+
+	public R next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		return currentBatch.next();
+	}
+
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * cancel the batches which are queued or being mapped, and stop the
+	 * threads if the executor is created by this iterator
+	 */
+	public void close() {
+		for (Future<List<R>> batch : batches) {
+			batch.cancel(true);
+		}
+		batches.clear();
+		if (ownExecutor) {
+			executor.shutdownNow();
+		}
+	}
+
+	private void submitBatches() {
+		while (batches.size() < maxBatchesAhead && source.hasNext()) {
+			final List<F> batch = new ArrayList<F>(batchSize);
+			while (batch.size() < batchSize && source.hasNext()) {
+				batch.add(source.next());
+			}
+			batches.add(executor.submit(() -> {
+				List<R> results = new ArrayList<R>(batch.size());
+				for (F element : batch) {
+					results.add(function.apply(element));
+				}
+				return results;
+			}));
+		}
+	}
+
+	private static <V> V await(Future<V> future) {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(
+					"interrupted while waiting for a batch", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IllegalStateException(cause);
+		}
+	}
+
+	private static class DaemonThreadFactory implements ThreadFactory {
+		private final String namePrefix;
+		private final AtomicInteger threadSeq = new AtomicInteger();
+
+		DaemonThreadFactory(String namePrefix) {
+			this.namePrefix = namePrefix;
+		}
+
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, namePrefix
+					+ threadSeq.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
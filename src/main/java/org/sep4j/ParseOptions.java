@@ -0,0 +1,159 @@
+package org.sep4j;
+
+import java.io.Serializable;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+
+import org.apache.commons.lang.StringUtils;
+
+/**
+ *
+ * options to tune how a spreadsheet is parsed. A default instance behaves the
+ * same as the parse methods without options.
+ *
+ * @author chenjianjx
+ */
+public class ParseOptions implements Serializable {
+
+	private static final long serialVersionUID = 4377945069961541120L;
+
+	/**
+	 * the default number of rows a thread maps at a time in parallel mode
+	 */
+	public static final int DEFAULT_PARALLEL_CHUNK_SIZE = 512;
+
+	/**
+	 * the default separator of the fields of a csv file
+	 */
+	public static final char DEFAULT_CSV_SEPARATOR = ',';
+
+	/**
+	 * if true, a spreadsheet will be read row by row instead of being loaded
+	 * as a whole workbook, so that the memory usage depends on the row width
+	 * instead of the file size. An xlsx file is read as xml streams, and an
+	 * xls file as a stream of biff8 records. An encrypted xls file will still
+	 * be loaded as a whole.
+	 */
+	private boolean streaming;
+
+	/**
+	 * if true, the cause of a {@link CellError} will be a lightweight
+	 * exception without stack trace, whose message is only formatted when
+	 * asked for. It makes parsing a dirty file much cheaper. Use
+	 * {@link CellError#getReason()} to tell what's wrong.
+	 */
+	private boolean lightweightCellErrors;
+
+	/**
+	 * how many threads map the rows of a sheet to records. If it's more than
+	 * 1, the rows are still read one by one by a single thread, but the
+	 * records are created and set in chunks by a pool of threads. The records
+	 * and the cell errors come out in the order of the rows, the same as those
+	 * of a sequential run. The setters and the default constructor of the
+	 * record class must then be thread-safe.
+	 */
+	private int parallelism = 1;
+
+	/**
+	 * how many rows a thread maps at a time in parallel mode
+	 */
+	private int parallelChunkSize = DEFAULT_PARALLEL_CHUNK_SIZE;
+
+	/**
+	 * the threads which map the rows in parallel mode, e.g. a pool shared by
+	 * all the parses of an application. It's not shut down by sep4j. At most
+	 * 2 * parallelism chunks are queued to it at a time. If null, each
+	 * parallel parse creates a pool of its own and shuts it down when the
+	 * records are all read or the iterator is closed.
+	 */
+	private transient ExecutorService executor;
+
+	/**
+	 * the names of the sheets to parse when parsing multiple sheets. Empty
+	 * means all the sheets.
+	 */
+	private Set<String> sheetNames = new LinkedHashSet<String>();
+
+	/**
+	 * the separator of the fields when parsing a csv file, e.g. ';' or '\t'
+	 */
+	private char csvSeparator = DEFAULT_CSV_SEPARATOR;
+
+	public boolean isStreaming() {
+		return streaming;
+	}
+
+	public void setStreaming(boolean streaming) {
+		this.streaming = streaming;
+	}
+
+	public boolean isLightweightCellErrors() {
+		return lightweightCellErrors;
+	}
+
+	public void setLightweightCellErrors(boolean lightweightCellErrors) {
+		this.lightweightCellErrors = lightweightCellErrors;
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	public void setParallelism(int parallelism) {
+		this.parallelism = parallelism;
+	}
+
+	public int getParallelChunkSize() {
+		return parallelChunkSize;
+	}
+
+	public void setParallelChunkSize(int parallelChunkSize) {
+		this.parallelChunkSize = parallelChunkSize;
+	}
+
+	public ExecutorService getExecutor() {
+		return executor;
+	}
+
+	public void setExecutor(ExecutorService executor) {
+		this.executor = executor;
+	}
+
+	public Set<String> getSheetNames() {
+		return sheetNames;
+	}
+
+	/**
+	 * see {@link #getSheetNames()}
+	 *
+	 * @param sheetName
+	 *            the name of a sheet to parse
+	 */
+	public void addSheetName(String sheetName) {
+		if (StringUtils.isEmpty(sheetName)) {
+			throw new IllegalArgumentException("the sheetName can not be empty");
+		}
+		sheetNames.add(sheetName);
+	}
+
+	public char getCsvSeparator() {
+		return csvSeparator;
+	}
+
+	public void setCsvSeparator(char csvSeparator) {
+		this.csvSeparator = csvSeparator;
+	}
+
+	/**
+	 * a shortcut to create options for streaming mode
+	 *
+	 * @return the options
+	 */
+	public static ParseOptions streaming() {
+		ParseOptions options = new ParseOptions();
+		options.setStreaming(true);
+		return options;
+	}
+
+}
@@ -0,0 +1,45 @@
+package org.sep4j;
+
+/**
+ * a row read from a sheet, before being mapped to a record. The cell values
+ * are what {@link Ssio#readCellAsTypedValue(org.apache.poi.ss.usermodel.Cell)}
+ * would return, indexed by the 0-based column index.
+ * 
+ * @author chenjianjx
+ */
+class RawRow {
+
+	/**
+	 * 0-based
+	 */
+	private final int rowIndex;
+
+	/**
+	 * null elements mean empty cells
+	 */
+	private final Object[] cellValues;
+
+	RawRow(int rowIndex, Object[] cellValues) {
+		this.rowIndex = rowIndex;
+		this.cellValues = cellValues;
+	}
+
+	public int getRowIndex() {
+		return rowIndex;
+	}
+
+	/**
+	 * the same as the one-based last cell num of a poi row
+	 */
+	public int getCellCount() {
+		return cellValues.length;
+	}
+
+	public Object getCellValue(int columnIndex) {
+		if (columnIndex >= cellValues.length) {
+			return null;
+		}
+		return cellValues[columnIndex];
+	}
+
+}
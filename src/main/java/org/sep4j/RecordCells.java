@@ -0,0 +1,93 @@
+package org.sep4j;
+
+import java.util.Date;
+
+import org.apache.commons.lang.StringUtils;
+import org.sep4j.support.SepReflectionHelper;
+
+/**
+ * the cell values of a record, read from its properties and formatted, but
+ * not yet written to a row. Reading a record doesn't touch the workbook, so
+ * records can be read by several threads while a single thread writes the
+ * rows.
+ *
+ * @author chenjianjx
+ */
+class RecordCells {
+
+	/**
+	 * the values to write, in the order of the columns. An element is a
+	 * Double, Boolean, Date, String or null
+	 */
+	final Object[] values;
+
+	/**
+	 * the texts of the values, as displayed. Used for the column widths
+	 */
+	final String[] texts;
+
+	/**
+	 * if an element is not null, the datum of the column can't be read and
+	 * this is why
+	 */
+	final Exception[] errors;
+
+	private RecordCells(int columnCount) {
+		this.values = new Object[columnCount];
+		this.texts = new String[columnCount];
+		this.errors = new Exception[columnCount];
+	}
+
+	/**
+	 * read the properties of a record
+	 *
+	 * @param propNames
+	 *            the properties in the order of the columns
+	 * @param datumErrPlaceholder
+	 *            the value of a datum which can't be read
+	 */
+	static RecordCells read(Object record, String[] propNames,
+			String datumErrPlaceholder, SaveOptions saveOptions) {
+		return read(record, propNames, datumErrPlaceholder,
+				saveOptions.isTypedCells(), saveOptions.getDateFormat());
+	}
+
+	/**
+	 * read the properties of a record
+	 *
+	 * @param typedCells
+	 *            see {@link SaveOptions#isTypedCells()}. If false, all the
+	 *            values are strings
+	 * @param dateFormat
+	 *            see {@link SaveOptions#getDateFormat()}
+	 */
+	static RecordCells read(Object record, String[] propNames,
+			String datumErrPlaceholder, boolean typedCells, String dateFormat) {
+		RecordCells cells = new RecordCells(propNames.length);
+		for (int columnIndex = 0; columnIndex < propNames.length; columnIndex++) {
+			Object propValue;
+			try {
+				propValue = SepReflectionHelper.getProperty(record,
+						propNames[columnIndex]);
+			} catch (Exception e) {
+				cells.errors[columnIndex] = e;
+				propValue = datumErrPlaceholder;
+			}
+			String propValueText = (propValue == null ? null : propValue
+					.toString());
+			Object cellValue = cells.errors[columnIndex] != null
+					|| !typedCells ? propValueText : Ssio
+					.toTypedCellValue(propValue);
+			if (cellValue instanceof Date) {
+				// it's displayed in the date format
+				propValueText = dateFormat;
+			} else if (!(cellValue instanceof Double || cellValue instanceof Boolean)
+					&& (cellValue != null || !typedCells)) {
+				cellValue = StringUtils.defaultString(propValueText);
+			}
+			cells.values[columnIndex] = cellValue;
+			cells.texts[columnIndex] = propValueText;
+		}
+		return cells;
+	}
+}
@@ -0,0 +1,139 @@
+package org.sep4j;
+
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * iterates the records of a spreadsheet lazily. Every {@link #next()} reads
+ * and maps exactly one data row, so you can stop reading a huge file at any
+ * time. It must be closed if not iterated to the end; it closes itself once
+ * all the rows are read.
+ *
+ * @author chenjianjx
+ *
+ * @param <T>
+ *            the java type of records
+ */
+public class RecordIterator<T> implements Iterator<T>, Closeable {
+
+	/**
+	 * null if there is nothing to read
+	 */
+	private Iterator<T> records;
+
+	/**
+	 * released once all the records are read or this iterator is closed
+	 */
+	private Closeable resources;
+
+	RecordIterator(SheetRowReader reader, Function<RawRow, T> rowMapper) {
+		this(reader == null ? null : new MappingIterator<RawRow, T>(
+				new RawRowIterator(reader), rowMapper), reader);
+	}
+
+	/**
+	 * @param records
+	 *            null if there is nothing to read
+	 * @param resources
+	 *            the reader of the sheet etc. It can be null
+	 */
+	RecordIterator(Iterator<T> records, Closeable resources) {
+		this.records = records;
+		this.resources = resources;
+	}
+
+	public boolean hasNext() {
+		if (records == null) {
+			return false;
+		}
+		if (records.hasNext()) {
+			return true;
+		}
+		close();
+		return false;
+	}
+
+	public T next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		return records.next();
+	}
+
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * release the underlying resources, e.g. temp files. It can be called more
+	 * than once.
+	 */
+	public void close() {
+		if (resources != null) {
+			IOUtils.closeQuietly(resources);
+			resources = null;
+		}
+		records = null;
+	}
+
+	/**
+	 * a sequential stream of the remaining records. Closing the stream closes
+	 * this iterator.
+	 *
+	 * @return the stream
+	 */
+	public Stream<T> stream() {
+		Spliterator<T> spliterator = Spliterators.spliteratorUnknownSize(this,
+				Spliterator.ORDERED | Spliterator.NONNULL);
+		return StreamSupport.stream(spliterator, false).onClose(this::close);
+	}
+
+	/**
+	 * reads a row only when asked for
+	 */
+	static class RawRowIterator implements Iterator<RawRow> {
+		private final SheetRowReader reader;
+
+		private RawRow nextRow;
+
+		private boolean finished;
+
+		RawRowIterator(SheetRowReader reader) {
+			this.reader = reader;
+		}
+
+		public boolean hasNext() {
+			if (nextRow != null) {
+				return true;
+			}
+			if (finished) {
+				return false;
+			}
+			nextRow = reader.nextRow();
+			finished = nextRow == null;
+			return !finished;
+		}
+
+		public RawRow next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			RawRow row = nextRow;
+			nextRow = null;
+			return row;
+		}
+
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+}
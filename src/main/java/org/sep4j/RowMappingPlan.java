@@ -0,0 +1,396 @@
+package org.sep4j;
+
+import java.lang.reflect.Constructor;
+import java.text.MessageFormat;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+
+import org.sep4j.Ssio.ColumnMeta;
+import org.sep4j.support.SepBasicTypeConverts;
+import org.sep4j.support.SepBasicTypeConverts.NumberConverter;
+import org.sep4j.support.SepBasicTypeConverts.StringConverter;
+import org.sep4j.support.SepPropertyBinders.Setter;
+import org.sep4j.support.SepReflectionHelper;
+
+/**
+ * how to map a data row to a record, compiled once for a record class and a
+ * header layout: for each mapped column, the candidate setters are resolved
+ * up front, so that mapping a row is just a loop over an array.
+ *
+ * The plans are cached and shared by the files which have the same header
+ * layout.
+ *
+ * @author chenjianjx
+ *
+ * @param <T>
+ *            the java type of records
+ */
+class RowMappingPlan<T> {
+
+	/**
+	 * how many header layouts to cache for a record class. A layout beyond
+	 * this will still get a plan, just not cached.
+	 */
+	static final int MAX_CACHED_LAYOUTS_PER_CLASS = 64;
+
+	/**
+	 * key = record class, value = {key = columnMetaMap, value = plan}
+	 */
+	private static final ClassValue<ConcurrentMap<Map<Short, ColumnMeta>, RowMappingPlan<?>>> CACHE = new ClassValue<ConcurrentMap<Map<Short, ColumnMeta>, RowMappingPlan<?>>>() {
+		@Override
+		protected ConcurrentMap<Map<Short, ColumnMeta>, RowMappingPlan<?>> computeValue(
+				Class<?> type) {
+			return new ConcurrentHashMap<Map<Short, ColumnMeta>, RowMappingPlan<?>>();
+		}
+	};
+
+	private final Class<T> recordClass;
+
+	/**
+	 * in the order of the column indexes
+	 */
+	private final ColumnBinding[] columnBindings;
+
+	/**
+	 * null if there is no default constructor, which will fail the mapping of
+	 * rows
+	 */
+	private final Constructor<T> constructor;
+
+	private RowMappingPlan(Class<T> recordClass,
+			Map<Short, ColumnMeta> columnMetaMap) {
+		this.recordClass = recordClass;
+		this.columnBindings = new ColumnBinding[columnMetaMap.size()];
+		int i = 0;
+		for (Map.Entry<Short, ColumnMeta> entry : columnMetaMap.entrySet()) {
+			columnBindings[i++] = new ColumnBinding(entry.getKey(),
+					entry.getValue(), recordClass);
+		}
+		Arrays.sort(columnBindings, (a, b) -> a.columnIndex
+				- b.columnIndex);
+		this.constructor = findDefaultConstructor(recordClass);
+	}
+
+	/**
+	 * get the plan from the cache, or compile one
+	 *
+	 * @param columnMetaMap
+	 *            key = columnIndex, value= {propName, headerText}
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> RowMappingPlan<T> of(Class<T> recordClass,
+			Map<Short, ColumnMeta> columnMetaMap) {
+		ConcurrentMap<Map<Short, ColumnMeta>, RowMappingPlan<?>> plans = CACHE
+				.get(recordClass);
+		RowMappingPlan<T> plan = (RowMappingPlan<T>) plans.get(columnMetaMap);
+		if (plan != null) {
+			return plan;
+		}
+		plan = new RowMappingPlan<T>(recordClass, columnMetaMap);
+		if (plans.size() < MAX_CACHED_LAYOUTS_PER_CLASS) {
+			RowMappingPlan<T> existing = (RowMappingPlan<T>) plans
+					.putIfAbsent(columnMetaMap, plan);
+			if (existing != null) {
+				plan = existing;
+			}
+		}
+		return plan;
+	}
+
+	/**
+	 * map a data row to a record. A cell which cannot be set to the record
+	 * leads to a cell error. Nothing is allocated for the errors if there is
+	 * no cellErrorConsumer.
+	 *
+	 * @param cellErrorConsumer
+	 *            can be null
+	 * @param lightweightErrors
+	 *            see {@link ParseOptions#isLightweightCellErrors()}
+	 */
+	T mapRow(RawRow row, Consumer<? super CellError> cellErrorConsumer,
+			boolean lightweightErrors) {
+		T record = newRecord();
+		int cellCount = row.getCellCount();
+		for (ColumnBinding binding : columnBindings) {
+			if (binding.columnIndex >= cellCount) {
+				break;
+			}
+			Object cellStringOrDate = row.getCellValue(binding.columnIndex);
+			CellErrorReason reason;
+			Exception setterException = null;
+			try {
+				reason = binding.bind(record, cellStringOrDate);
+			} catch (Exception e) {
+				reason = CellErrorReason.SETTER_FAILED;
+				setterException = e;
+			}
+			if (reason == null || cellErrorConsumer == null) {
+				continue;
+			}
+
+			CellError ce = new CellError();
+			ce.setColumnIndex(binding.columnIndex);
+			ce.setHeaderText(binding.headerText);
+			ce.setPropName(binding.propName);
+			ce.setRowIndex(row.getRowIndex());
+			ce.setReason(reason);
+			if (setterException != null) {
+				ce.setCause(setterException);
+			} else if (lightweightErrors) {
+				ce.setCause(new LightweightNoSuitableSetterException(
+						binding.propName, cellStringOrDate));
+			} else {
+				ce.setCause(noSuitableSetter(binding.propName,
+						cellStringOrDate));
+			}
+			cellErrorConsumer.accept(ce);
+		}
+		return record;
+	}
+
+	static IllegalArgumentException noSuitableSetter(String propName,
+			Object cellStringOrDate) {
+		return new IllegalArgumentException(formatNoSuitableSetter(propName,
+				cellStringOrDate));
+	}
+
+	private static String formatNoSuitableSetter(String propName,
+			Object cellStringOrDate) {
+		return MessageFormat.format(
+				"No suitable setter for property \"{0}\" with cellValue \"{1}\" ",
+				propName, Ssio.toStringOrDate(cellStringOrDate));
+	}
+
+	/**
+	 * the same as the "no suitable setter" exception, but without stack
+	 * trace, and the message is formatted only when asked for
+	 */
+	static class LightweightNoSuitableSetterException extends
+			IllegalArgumentException {
+		private static final long serialVersionUID = -3917337580981006637L;
+
+		private final String propName;
+		private final Object cellStringOrDate;
+
+		LightweightNoSuitableSetterException(String propName,
+				Object cellStringOrDate) {
+			this.propName = propName;
+			this.cellStringOrDate = cellStringOrDate;
+		}
+
+		@Override
+		public String getMessage() {
+			return formatNoSuitableSetter(propName, cellStringOrDate);
+		}
+
+		@Override
+		public synchronized Throwable fillInStackTrace() {
+			return this;
+		}
+	}
+
+	private T newRecord() {
+		if (constructor == null) {
+			// let it fail the same way as without a plan
+			return Ssio.createRecordInstance(recordClass);
+		}
+		try {
+			return constructor.newInstance();
+		} catch (Exception e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private static <T> Constructor<T> findDefaultConstructor(
+			Class<T> recordClass) {
+		try {
+			Constructor<T> constructor = recordClass.getDeclaredConstructor();
+			constructor.setAccessible(true);
+			return constructor;
+		} catch (NoSuchMethodException e) {
+			return null;
+		} catch (RuntimeException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * how to set a cell value to a property
+	 */
+	static class ColumnBinding {
+		final short columnIndex;
+		final String propName;
+		final String headerText;
+
+		/**
+		 * all the setters of the property, in the order of
+		 * {@link Class#getMethods()}
+		 */
+		private final Setter[] setters;
+
+		/**
+		 * the converter of each setter's prop class, null if not convertible
+		 * from strings
+		 */
+		private final StringConverter[] converters;
+
+		/**
+		 * the converter of each setter's prop class, null if not convertible
+		 * from numbers directly
+		 */
+		private final NumberConverter[] numberConverters;
+
+		/**
+		 * the first setter which can take null. null if not found
+		 */
+		private final Setter nullSetter;
+
+		/**
+		 * null if not found
+		 */
+		private final Setter dateSetter;
+
+		/**
+		 * null if not found
+		 */
+		private final Setter stringSetter;
+
+		ColumnBinding(short columnIndex, ColumnMeta columnMeta,
+				Class<?> recordClass) {
+			this.columnIndex = columnIndex;
+			this.propName = columnMeta.propName;
+			this.headerText = columnMeta.headerText;
+
+			List<Setter> setterList = SepReflectionHelper
+					.findSetterBindersByPropName(recordClass, propName);
+			this.setters = setterList.toArray(new Setter[setterList.size()]);
+			this.converters = new StringConverter[setters.length];
+			this.numberConverters = new NumberConverter[setters.length];
+			for (int i = 0; i < setters.length; i++) {
+				Class<?> propClass = setters[i].getPropClass();
+				converters[i] = SepBasicTypeConverts
+						.getStringConverter(propClass);
+				numberConverters[i] = SepBasicTypeConverts
+						.getNumberConverter(propClass);
+			}
+
+			Setter firstNullSetter = null;
+			for (Setter setter : setters) {
+				if (SepBasicTypeConverts.canFromNull(setter.getPropClass())) {
+					firstNullSetter = setter;
+					break;
+				}
+			}
+			this.nullSetter = firstNullSetter;
+			this.dateSetter = SepReflectionHelper
+					.findSetterBinderByPropNameAndType(recordClass, propName,
+							java.util.Date.class);
+			this.stringSetter = SepReflectionHelper
+					.findSetterBinderByPropNameAndType(recordClass, propName,
+							String.class);
+		}
+
+		/**
+		 * a binding for a single property
+		 */
+		static ColumnBinding forProperty(Class<?> recordClass, String propName) {
+			ColumnMeta columnMeta = new ColumnMeta();
+			columnMeta.propName = propName;
+			return new ColumnBinding((short) 0, columnMeta, recordClass);
+		}
+
+		/**
+		 * set the cell value to the property of the record
+		 *
+		 * @return null if done, or else why it cannot be done
+		 * @throws RuntimeException
+		 *             if the setter throws one
+		 */
+		CellErrorReason bind(Object record, Object cellStringOrDate) {
+			if (setters.length == 0) {
+				return CellErrorReason.NO_SETTER;
+			}
+
+			if (cellStringOrDate == null) {
+				if (nullSetter == null) {
+					return CellErrorReason.NULL_NOT_ACCEPTED;
+				}
+				nullSetter.set(record, null);
+				return null;
+			}
+
+			if (cellStringOrDate instanceof java.util.Date) {
+				if (dateSetter == null) {
+					return CellErrorReason.NO_DATE_SETTER;
+				}
+				dateSetter.set(record, cellStringOrDate);
+				return null;
+			}
+
+			if (cellStringOrDate instanceof Number) {
+				return bindNumber(record, (Number) cellStringOrDate);
+			}
+
+			// ok, we got a string
+			String cellText = (String) cellStringOrDate;
+
+			// try the string-type setter first
+			if (stringSetter != null) {
+				stringSetter.set(record, cellText);
+				return null;
+			}
+
+			// no string-type setter? do a guess!
+			for (int i = 0; i < setters.length; i++) {
+				if (converters[i] == null) {
+					continue;
+				}
+				Object propValue = converters[i].tryFromThisString(cellText);
+				if (propValue != SepBasicTypeConverts.NOT_CONVERTIBLE) {
+					setters[i].set(record, propValue);
+					return null;
+				}
+			}
+
+			return CellErrorReason.NOT_CONVERTIBLE;
+		}
+
+		/**
+		 * set a numeric cell value to a numeric property directly. Other types
+		 * of properties get the number as a string, as if it had been read by
+		 * {@link Ssio#readCellAsStringOrDate(org.apache.poi.ss.usermodel.Cell)}
+		 */
+		private CellErrorReason bindNumber(Object record, Number cellNumber) {
+			if (stringSetter != null) {
+				stringSetter.set(record, Ssio.toStringOrDate(cellNumber));
+				return null;
+			}
+
+			String cellText = null;
+			for (int i = 0; i < setters.length; i++) {
+				Object propValue;
+				if (numberConverters[i] != null) {
+					propValue = numberConverters[i].tryFromThisNumber(cellNumber);
+				} else if (converters[i] != null) {
+					if (cellText == null) {
+						cellText = (String) Ssio.toStringOrDate(cellNumber);
+					}
+					propValue = converters[i].tryFromThisString(cellText);
+				} else {
+					continue;
+				}
+				if (propValue != SepBasicTypeConverts.NOT_CONVERTIBLE) {
+					setters[i].set(record, propValue);
+					return null;
+				}
+			}
+
+			return CellErrorReason.NOT_CONVERTIBLE;
+		}
+	}
+
+}
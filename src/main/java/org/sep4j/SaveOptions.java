@@ -0,0 +1,389 @@
+package org.sep4j;
+
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.zip.Deflater;
+
+import org.apache.commons.lang.StringUtils;
+
+/**
+ *
+ * options to tune how records are saved. A default instance behaves the same
+ * as the save methods without options.
+ *
+ * @author chenjianjx
+ */
+public class SaveOptions implements Serializable {
+
+	private static final long serialVersionUID = -2794616316212736357L;
+
+	/**
+	 * the default number of rows kept in memory in streaming mode
+	 */
+	public static final int DEFAULT_ROW_ACCESS_WINDOW_SIZE = 100;
+
+	/**
+	 * the default number of records a thread reads at a time in parallel mode
+	 */
+	public static final int DEFAULT_PARALLEL_BATCH_SIZE = 256;
+
+	/**
+	 * the default max number of rows in a sheet, including the header row,
+	 * which is the most an xlsx sheet can have
+	 */
+	public static final int DEFAULT_MAX_ROWS_PER_SHEET = 1048576;
+
+	/**
+	 * the default number of data rows to look at for the column widths
+	 */
+	public static final int DEFAULT_AUTO_WIDTH_SAMPLE_ROWS = 100;
+
+	/**
+	 * the default excel format of date cells
+	 */
+	public static final String DEFAULT_DATE_FORMAT = "yyyy-mm-dd hh:mm:ss";
+
+	/**
+	 * the default separator of the fields of a csv file
+	 */
+	public static final char DEFAULT_CSV_SEPARATOR = ',';
+
+	/**
+	 * the name of the header style. Register a style with this name to
+	 * replace the default yellow one.
+	 */
+	public static final String HEADER_STYLE = "header";
+
+	/**
+	 * the name of the style for the cells whose datum can't be read. Register
+	 * a style with this name to replace the default red one.
+	 */
+	public static final String DATUM_ERROR_STYLE = "datumError";
+
+	/**
+	 * the name of the style for date cells when {@link #isTypedCells()}.
+	 * Register a style with this name to replace the default one, which is of
+	 * {@link #getDateFormat()}.
+	 */
+	public static final String DATE_STYLE = "date";
+
+	/**
+	 * if true, rows are flushed to temp files once they leave the row access
+	 * window, so that the heap usage doesn't grow with the number of records
+	 */
+	private boolean streaming;
+
+	/**
+	 * how many rows are kept in memory in streaming mode
+	 */
+	private int rowAccessWindowSize = DEFAULT_ROW_ACCESS_WINDOW_SIZE;
+
+	/**
+	 * should the temp files be gzipped in streaming mode ? It saves disk space
+	 * but costs some CPU
+	 */
+	private boolean compressTempFiles;
+
+	/**
+	 * if true, the xml of the sheets and the zip entries are written directly
+	 * from the values of the records, without any poi workbook, row or cell.
+	 * No objects are created per cell, and it's always streaming, with only
+	 * the rows sampled for the column widths and the shared strings held in
+	 * memory. It only supports the built-in styles, so poi is still used if
+	 * any cell style is registered or set to a column. Poi is also used by
+	 * saveIfNoDatumError, since the file must not be written before all the
+	 * records are read.
+	 */
+	private boolean directWriting;
+
+	/**
+	 * the max number of rows in a sheet, including the header row. When a
+	 * sheet is full, the following records go to a new sheet with the same
+	 * header row. The recordIndex of datum errors keeps counting across the
+	 * sheets.
+	 */
+	private int maxRowsPerSheet = DEFAULT_MAX_ROWS_PER_SHEET;
+
+	/**
+	 * how many threads read the properties of the records. If it's more than
+	 * 1, the records are read in batches by a pool of threads while the rows
+	 * are still written by the calling thread in the original order, so the
+	 * output and the datum errors are the same as those of a sequential run.
+	 * It pays off when the getters are expensive, e.g. lazy-loaded or
+	 * computed. The getters must then be thread-safe.
+	 */
+	private int parallelism = 1;
+
+	/**
+	 * how many records a thread reads at a time in parallel mode
+	 */
+	private int parallelBatchSize = DEFAULT_PARALLEL_BATCH_SIZE;
+
+	/**
+	 * the threads which read the records in parallel mode, e.g. a pool shared
+	 * by all the saves of an application. It's not shut down by sep4j. At
+	 * most 2 * parallelism batches are queued to it at a time. If null, each
+	 * parallel save creates a pool of its own and shuts it down at the end.
+	 */
+	private transient ExecutorService executor;
+
+	/**
+	 * the propNames of the columns whose strings go to the shared strings
+	 * table in streaming mode. In streaming mode the strings are written
+	 * inline by default, so that no shared strings table is held in memory;
+	 * mark the low-cardinality columns here to have their strings shared, which
+	 * makes the file smaller. In-memory mode always shares all the strings.
+	 * Direct writing, see {@link #isDirectWriting()}, behaves like streaming
+	 * mode.
+	 */
+	private Set<String> sharedStringsColumns = new LinkedHashSet<String>();
+
+	/**
+	 * the deflate level of the file, from 0 (no compression, the fastest) to
+	 * 9 (the smallest file). -1 means the default level. Since poi always
+	 * uses the default level, any other level costs an extra full pass over
+	 * a workbook written by poi: the file is written to a temp file, then
+	 * inflated and deflated again. A streaming save without any cell style
+	 * is written directly at the level instead, see
+	 * {@link #isDirectWriting()}; an in-memory save, a styled save or
+	 * saveIfNoDatumError still takes the extra pass.
+	 */
+	private int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+
+	/**
+	 * if true, numbers, booleans and dates are written as numeric, boolean
+	 * and date cells. Numbers which a double can't hold exactly, e.g. a long
+	 * beyond 2^53, are still written as strings. If false, all the values are
+	 * written as strings with their toString() methods.
+	 */
+	private boolean typedCells;
+
+	/**
+	 * the excel format of date cells when {@link #isTypedCells()}
+	 */
+	private String dateFormat = DEFAULT_DATE_FORMAT;
+
+	/**
+	 * if true, the column widths are estimated from the character counts of
+	 * the header and the first data rows
+	 */
+	private boolean autoWidth = true;
+
+	/**
+	 * how many data rows to look at for the column widths. 0 means only the
+	 * header will be looked at
+	 */
+	private int autoWidthSampleRows = DEFAULT_AUTO_WIDTH_SAMPLE_ROWS;
+
+	/**
+	 * key = style name, value = the factory of the style
+	 */
+	private Map<String, CellStyleFactory> cellStyles = new LinkedHashMap<String, CellStyleFactory>();
+
+	/**
+	 * key = propName, value = style name
+	 */
+	private Map<String, String> columnStyles = new LinkedHashMap<String, String>();
+
+	/**
+	 * the separator of the fields when saving to a csv file, e.g. ';' or '\t'
+	 */
+	private char csvSeparator = DEFAULT_CSV_SEPARATOR;
+
+	public boolean isStreaming() {
+		return streaming;
+	}
+
+	public void setStreaming(boolean streaming) {
+		this.streaming = streaming;
+	}
+
+	public int getRowAccessWindowSize() {
+		return rowAccessWindowSize;
+	}
+
+	public void setRowAccessWindowSize(int rowAccessWindowSize) {
+		this.rowAccessWindowSize = rowAccessWindowSize;
+	}
+
+	public boolean isCompressTempFiles() {
+		return compressTempFiles;
+	}
+
+	public void setCompressTempFiles(boolean compressTempFiles) {
+		this.compressTempFiles = compressTempFiles;
+	}
+
+	public boolean isDirectWriting() {
+		return directWriting;
+	}
+
+	public void setDirectWriting(boolean directWriting) {
+		this.directWriting = directWriting;
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	public void setParallelism(int parallelism) {
+		this.parallelism = parallelism;
+	}
+
+	public int getParallelBatchSize() {
+		return parallelBatchSize;
+	}
+
+	public void setParallelBatchSize(int parallelBatchSize) {
+		this.parallelBatchSize = parallelBatchSize;
+	}
+
+	public ExecutorService getExecutor() {
+		return executor;
+	}
+
+	public void setExecutor(ExecutorService executor) {
+		this.executor = executor;
+	}
+
+	public int getMaxRowsPerSheet() {
+		return maxRowsPerSheet;
+	}
+
+	public void setMaxRowsPerSheet(int maxRowsPerSheet) {
+		this.maxRowsPerSheet = maxRowsPerSheet;
+	}
+
+	public Set<String> getSharedStringsColumns() {
+		return sharedStringsColumns;
+	}
+
+	/**
+	 * see {@link #getSharedStringsColumns()}
+	 *
+	 * @param propName
+	 *            the property of a low-cardinality column
+	 */
+	public void addSharedStringsColumn(String propName) {
+		if (StringUtils.isBlank(propName)) {
+			throw new IllegalArgumentException("the propName can not be blank");
+		}
+		sharedStringsColumns.add(propName);
+	}
+
+	public int getCompressionLevel() {
+		return compressionLevel;
+	}
+
+	public void setCompressionLevel(int compressionLevel) {
+		this.compressionLevel = compressionLevel;
+	}
+
+	public boolean isTypedCells() {
+		return typedCells;
+	}
+
+	public void setTypedCells(boolean typedCells) {
+		this.typedCells = typedCells;
+	}
+
+	public String getDateFormat() {
+		return dateFormat;
+	}
+
+	public void setDateFormat(String dateFormat) {
+		this.dateFormat = dateFormat;
+	}
+
+	public boolean isAutoWidth() {
+		return autoWidth;
+	}
+
+	public void setAutoWidth(boolean autoWidth) {
+		this.autoWidth = autoWidth;
+	}
+
+	public int getAutoWidthSampleRows() {
+		return autoWidthSampleRows;
+	}
+
+	public void setAutoWidthSampleRows(int autoWidthSampleRows) {
+		this.autoWidthSampleRows = autoWidthSampleRows;
+	}
+
+	public char getCsvSeparator() {
+		return csvSeparator;
+	}
+
+	public void setCsvSeparator(char csvSeparator) {
+		this.csvSeparator = csvSeparator;
+	}
+
+	public Map<String, CellStyleFactory> getCellStyles() {
+		return cellStyles;
+	}
+
+	public Map<String, String> getColumnStyles() {
+		return columnStyles;
+	}
+
+	/**
+	 * register a named cell style. The style will be created at most once for
+	 * a workbook, no matter how many cells use it.
+	 *
+	 * @param styleName
+	 *            the name, which can be {@link #HEADER_STYLE} or
+	 *            {@link #DATUM_ERROR_STYLE} to replace a default style
+	 * @param factory
+	 *            creates the style
+	 */
+	public void registerCellStyle(String styleName, CellStyleFactory factory) {
+		if (StringUtils.isBlank(styleName)) {
+			throw new IllegalArgumentException("the styleName can not be blank");
+		}
+		if (factory == null) {
+			throw new IllegalArgumentException("the factory can not be null");
+		}
+		cellStyles.put(styleName, factory);
+	}
+
+	/**
+	 * use a registered style for the data cells of a column. A cell whose
+	 * datum can't be read still uses the {@link #DATUM_ERROR_STYLE}. A date
+	 * cell uses a copy of the style with the date format of
+	 * {@link #DATE_STYLE}, unless the style has a date format of its own.
+	 *
+	 * @param propName
+	 *            the property of the column
+	 * @param styleName
+	 *            the name of a registered style
+	 */
+	public void setColumnStyle(String propName, String styleName) {
+		if (StringUtils.isBlank(propName)) {
+			throw new IllegalArgumentException("the propName can not be blank");
+		}
+		if (StringUtils.isBlank(styleName)) {
+			throw new IllegalArgumentException("the styleName can not be blank");
+		}
+		columnStyles.put(propName, styleName);
+	}
+
+	/**
+	 * a shortcut to create options for streaming mode
+	 *
+	 * @param rowAccessWindowSize
+	 *            how many rows are kept in memory
+	 * @return the options
+	 */
+	public static SaveOptions streaming(int rowAccessWindowSize) {
+		SaveOptions options = new SaveOptions();
+		options.setStreaming(true);
+		options.setRowAccessWindowSize(rowAccessWindowSize);
+		return options;
+	}
+
+}
@@ -0,0 +1,258 @@
+package org.sep4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.CloseShieldInputStream;
+import org.apache.commons.io.output.CloseShieldOutputStream;
+
+/**
+ * moves the inline strings of some columns of an xlsx written by a streaming
+ * poi workbook into the shared strings table. The streaming workbook writes
+ * all the strings inline, so that no shared strings table is held in memory;
+ * for low-cardinality columns the shared strings make the file much smaller.
+ *
+ * Only the distinct strings of those columns are kept in memory. The sheets
+ * are rewritten with a streaming xml reader.
+ *
+ * Since the whole package is zipped again anyway, it's also where the
+ * compression level of the package is changed.
+ *
+ * @author chenjianjx
+ */
+class SharedStringsRewriter {
+
+	private static final String SHARED_STRINGS_PART = "xl/sharedStrings.xml";
+
+	private static final String SPREADSHEETML_NS = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+
+	private static final XMLInputFactory INPUT_FACTORY = XlsxStreamingWorkbook
+			.createXmlInputFactory();
+
+	private static final XMLOutputFactory OUTPUT_FACTORY = XMLOutputFactory
+			.newInstance();
+
+	private static final QName TYPE_ATTRIBUTE = new QName("t");
+
+	private static final QName REF_ATTRIBUTE = new QName("r");
+
+	private static final XMLEventFactory EVENT_FACTORY = XMLEventFactory
+			.newInstance();
+
+	/**
+	 * key = string, value = index in the table
+	 */
+	private final Map<String, Integer> sharedStrings = new LinkedHashMap<String, Integer>();
+
+	/**
+	 * how many cells refer to the table
+	 */
+	private int referenceCount;
+
+	private final Set<Integer> columnIndexes;
+
+	private SharedStringsRewriter(Set<Integer> columnIndexes) {
+		this.columnIndexes = columnIndexes;
+	}
+
+	/**
+	 * @param columnIndexes
+	 *            the 0-based indexes of the columns whose strings should be
+	 *            shared, in all the sheets. If it's empty, the parts are only
+	 *            zipped again
+	 * @param compressionLevel
+	 *            the deflate level of the new package, see
+	 *            {@link SaveOptions#getCompressionLevel()}
+	 */
+	static void rewrite(InputStream xlsx, OutputStream out,
+			Set<Integer> columnIndexes, int compressionLevel)
+			throws IOException {
+		new SharedStringsRewriter(columnIndexes).doRewrite(xlsx, out,
+				compressionLevel);
+	}
+
+	private void doRewrite(InputStream xlsx, OutputStream out,
+			int compressionLevel) throws IOException {
+		boolean sharing = !columnIndexes.isEmpty();
+		ZipInputStream zin = new ZipInputStream(xlsx);
+		ZipOutputStream zout = new ZipOutputStream(out);
+		zout.setLevel(compressionLevel);
+		boolean sharedStringsFound = false;
+		for (ZipEntry entry; (entry = zin.getNextEntry()) != null;) {
+			String name = entry.getName();
+			if (sharing && SHARED_STRINGS_PART.equals(name)) {
+				// the streaming workbook leaves it empty. The new one will be
+				// written after all the sheets are done
+				sharedStringsFound = true;
+				continue;
+			}
+			zout.putNextEntry(new ZipEntry(name));
+			if (sharing && name.startsWith("xl/worksheets/")
+					&& name.endsWith(".xml")) {
+				rewriteSheet(zin, zout);
+			} else {
+				IOUtils.copy(zin, zout);
+			}
+			zout.closeEntry();
+		}
+		if (sharing) {
+			if (!sharedStringsFound) {
+				throw new IllegalStateException(
+						"There is no shared strings table in the workbook");
+			}
+			zout.putNextEntry(new ZipEntry(SHARED_STRINGS_PART));
+			writeSharedStrings(zout);
+			zout.closeEntry();
+		}
+		zout.finish();
+	}
+
+	private void rewriteSheet(InputStream in, OutputStream out)
+			throws IOException {
+		try {
+			XMLEventReader reader = INPUT_FACTORY
+					.createXMLEventReader(new CloseShieldInputStream(in));
+			XMLEventWriter writer = OUTPUT_FACTORY.createXMLEventWriter(
+					new CloseShieldOutputStream(out), "UTF-8");
+			while (reader.hasNext()) {
+				XMLEvent event = reader.nextEvent();
+				if (event.isStartElement() && isInlineStringToShare(event)) {
+					shareInlineString(event.asStartElement(), reader, writer);
+				} else {
+					writer.add(event);
+				}
+			}
+			writer.flush();
+			writer.close();
+			reader.close();
+		} catch (XMLStreamException e) {
+			throw new IOException(e);
+		}
+	}
+
+	private boolean isInlineStringToShare(XMLEvent event) {
+		StartElement element = event.asStartElement();
+		if (!"c".equals(element.getName().getLocalPart())) {
+			return false;
+		}
+		Attribute type = element.getAttributeByName(TYPE_ATTRIBUTE);
+		Attribute ref = element.getAttributeByName(REF_ATTRIBUTE);
+		if (type == null || ref == null || !"inlineStr".equals(type.getValue())) {
+			return false;
+		}
+		return columnIndexes.contains(XlsxStreamingSheetRowReader
+				.toColumnIndex(ref.getValue()));
+	}
+
+	/**
+	 * replace {@code <c t="inlineStr"><is><t>abc</t></is></c>} with
+	 * {@code <c t="s"><v>index</v></c>}
+	 */
+	private void shareInlineString(StartElement cell, XMLEventReader reader,
+			XMLEventWriter writer) throws XMLStreamException {
+		StringBuilder text = new StringBuilder();
+		boolean inText = false;
+		boolean inPhonetic = false;
+		while (reader.hasNext()) {
+			XMLEvent event = reader.nextEvent();
+			if (event.isStartElement()) {
+				String localName = event.asStartElement().getName()
+						.getLocalPart();
+				if ("rPh".equals(localName)) {
+					inPhonetic = true;
+				} else if ("t".equals(localName) && !inPhonetic) {
+					inText = true;
+				}
+			} else if (event.isEndElement()) {
+				String localName = event.asEndElement().getName()
+						.getLocalPart();
+				if ("c".equals(localName)) {
+					break;
+				} else if ("rPh".equals(localName)) {
+					inPhonetic = false;
+				} else if ("t".equals(localName)) {
+					inText = false;
+				}
+			} else if (event.isCharacters() && inText) {
+				text.append(event.asCharacters().getData());
+			}
+		}
+
+		String s = text.toString();
+		Integer index = sharedStrings.get(s);
+		if (index == null) {
+			index = sharedStrings.size();
+			sharedStrings.put(s, index);
+		}
+		referenceCount++;
+
+		List<Attribute> attributes = new ArrayList<Attribute>();
+		for (Iterator<?> it = cell.getAttributes(); it.hasNext();) {
+			Attribute attribute = (Attribute) it.next();
+			if (!"t".equals(attribute.getName().getLocalPart())) {
+				attributes.add(attribute);
+			}
+		}
+		attributes.add(EVENT_FACTORY.createAttribute("t", "s"));
+		writer.add(EVENT_FACTORY.createStartElement(cell.getName(),
+				attributes.iterator(), cell.getNamespaces()));
+		writer.add(EVENT_FACTORY.createStartElement(cell.getName().getPrefix(),
+				cell.getName().getNamespaceURI(), "v"));
+		writer.add(EVENT_FACTORY.createCharacters(String.valueOf(index)));
+		writer.add(EVENT_FACTORY.createEndElement(cell.getName().getPrefix(),
+				cell.getName().getNamespaceURI(), "v"));
+		writer.add(EVENT_FACTORY.createEndElement(cell.getName(), null));
+	}
+
+	private void writeSharedStrings(OutputStream out) throws IOException {
+		try {
+			XMLStreamWriter writer = OUTPUT_FACTORY.createXMLStreamWriter(
+					new CloseShieldOutputStream(out), "UTF-8");
+			writer.writeStartDocument("UTF-8", "1.0");
+			writer.writeStartElement("sst");
+			writer.writeDefaultNamespace(SPREADSHEETML_NS);
+			writer.writeAttribute("count", String.valueOf(referenceCount));
+			writer.writeAttribute("uniqueCount",
+					String.valueOf(sharedStrings.size()));
+			for (String s : sharedStrings.keySet()) {
+				writer.writeStartElement("si");
+				writer.writeStartElement("t");
+				if (!s.equals(s.trim())) {
+					writer.writeAttribute("xml", "http://www.w3.org/XML/1998/namespace", "space", "preserve");
+				}
+				writer.writeCharacters(s);
+				writer.writeEndElement();
+				writer.writeEndElement();
+			}
+			writer.writeEndElement();
+			writer.writeEndDocument();
+			writer.flush();
+			writer.close();
+		} catch (XMLStreamException e) {
+			throw new IOException(e);
+		}
+	}
+}
@@ -0,0 +1,29 @@
+package org.sep4j;
+
+import java.io.Closeable;
+
+/**
+ * reads the rows of a sheet one by one, so that different engines (an
+ * in-memory workbook, a streaming xml reader etc.) can feed the same mapping
+ * logic.
+ * 
+ * @author chenjianjx
+ */
+interface SheetRowReader extends Closeable {
+
+	/**
+	 * read the next existing row. Rows that don't exist in the sheet are
+	 * skipped.
+	 * 
+	 * @return null if there are no more rows
+	 * @throws IllegalStateException
+	 *             if the sheet cannot be read
+	 */
+	RawRow nextRow();
+
+	/**
+	 * the name of the sheet being read
+	 */
+	String getSheetName();
+
+}
@@ -1,34 +1,75 @@
 package org.sep4j;
 
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.io.Reader;
+import java.io.Writer;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-import java.text.MessageFormat;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.Calendar;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.ZipException;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.CloseShieldInputStream;
+import org.apache.commons.io.output.CloseShieldOutputStream;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.builder.ToStringBuilder;
 import org.apache.commons.lang.builder.ToStringStyle;
-import org.apache.poi.hssf.usermodel.HSSFCellStyle;
+import org.apache.poi.POIXMLDocument;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.poifs.filesystem.NPOIFSFileSystem;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellStyle;
 import org.apache.poi.ss.usermodel.DateUtil;
-import org.apache.poi.ss.usermodel.IndexedColors;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
-import org.sep4j.support.SepBasicTypeConverts;
-import org.sep4j.support.SepReflectionHelper;
 
 /**
  * The facade to do records saving and retrieving. Ssio = SpreadSheet
@@ -140,6 +181,364 @@ public class Ssio {
 				datumErrors, false);
 	}
 
+	/**
+	 * save records to a new workbook with some options, e.g. in streaming
+	 * mode. Any datum error will lead to datumErrPlaceholder being written to
+	 * the cell. All the datum errors will be saved to datumErrors indicating
+	 * the recordIndex of the datum
+	 * 
+	 * @param headerMap
+	 *            {@code <propName, headerText>, for example <"username" field of User class, "User Name" as the spreadsheet header text>. }
+	 * @param records
+	 *            the records to save.
+	 * @param outputStream
+	 *            the output stream for the spreadsheet
+	 * @param datumErrPlaceholder
+	 *            if some datum is wrong, write this place holder to the cell
+	 * @param datumErrors
+	 *            all data errors in the records
+	 * @param saveOptions
+	 *            the options. null means the default ones
+	 * 
+	 * @param <T>
+	 *            the java type of records
+	 */
+	public static <T> void save(Map<String, String> headerMap,
+			Collection<T> records, OutputStream outputStream,
+			String datumErrPlaceholder, List<DatumError> datumErrors,
+			SaveOptions saveOptions) {
+		save(headerMap, records, outputStream, datumErrPlaceholder,
+				datumErrors, true, saveOptions);
+	}
+
+	/**
+	 * the same as
+	 * {@link #saveIfNoDatumError(Map, Collection, OutputStream, String, List)}
+	 * , but with some options, e.g. in streaming mode.
+	 * 
+	 * @param headerMap
+	 *            {@code <propName, headerText>, for example <"username" field of User class, "User Name" as the spreadsheet header text>. }
+	 * @param records
+	 *            the records to save.
+	 * @param outputStream
+	 *            the output stream for the spreadsheet
+	 * @param datumErrPlaceholder
+	 *            if some datum is wrong, write this place holder to the cell
+	 * @param datumErrors
+	 *            all data errors in the records
+	 * @param saveOptions
+	 *            the options. null means the default ones
+	 * 
+	 * @param <T>
+	 *            the java type of records
+	 */
+	public static <T> void saveIfNoDatumError(
+			Map<String, String> headerMap, Collection<T> records,
+			OutputStream outputStream, String datumErrPlaceholder,
+			List<DatumError> datumErrors, SaveOptions saveOptions) {
+		save(headerMap, records, outputStream, datumErrPlaceholder,
+				datumErrors, false, saveOptions);
+	}
+
+	/**
+	 * the same as
+	 * {@link #save(Map, Collection, OutputStream, String, List, SaveOptions)}
+	 * , but the records are pulled from the iterator one by one while the rows
+	 * are written, so they don't have to be loaded into memory together. With
+	 * a streaming workbook, the records can be exported straight from a
+	 * database cursor.
+	 * 
+	 * @param headerMap
+	 *            {@code <propName, headerText>, for example <"username" field of User class, "User Name" as the spreadsheet header text>. }
+	 * @param records
+	 *            the records to save. It will be iterated to the end
+	 * @param outputStream
+	 *            the output stream for the spreadsheet
+	 * @param datumErrPlaceholder
+	 *            if some datum is wrong, write this place holder to the cell
+	 * @param datumErrors
+	 *            all data errors in the records
+	 * @param saveOptions
+	 *            the options. null means the default ones
+	 * 
+	 * @param <T>
+	 *            the java type of records
+	 */
+	public static <T> void saveIterator(Map<String, String> headerMap,
+			Iterator<T> records, OutputStream outputStream,
+			String datumErrPlaceholder, List<DatumError> datumErrors,
+			SaveOptions saveOptions) {
+		save(headerMap, records, outputStream, datumErrPlaceholder,
+				datumErrors, true, saveOptions);
+	}
+
+	/**
+	 * the same as
+	 * {@link #saveIterator(Map, Iterator, OutputStream, String, List, SaveOptions)}
+	 * , but the records come from an iterable
+	 * 
+	 * @param headerMap
+	 *            {@code <propName, headerText>, for example <"username" field of User class, "User Name" as the spreadsheet header text>. }
+	 * @param records
+	 *            the records to save.
+	 * @param outputStream
+	 *            the output stream for the spreadsheet
+	 * @param datumErrPlaceholder
+	 *            if some datum is wrong, write this place holder to the cell
+	 * @param datumErrors
+	 *            all data errors in the records
+	 * @param saveOptions
+	 *            the options. null means the default ones
+	 * 
+	 * @param <T>
+	 *            the java type of records
+	 */
+	public static <T> void save(Map<String, String> headerMap,
+			Iterable<T> records, OutputStream outputStream,
+			String datumErrPlaceholder, List<DatumError> datumErrors,
+			SaveOptions saveOptions) {
+		save(headerMap, toIterator(records), outputStream,
+				datumErrPlaceholder, datumErrors, true, saveOptions);
+	}
+
+	/**
+	 * the same as
+	 * {@link #saveIterator(Map, Iterator, OutputStream, String, List, SaveOptions)}
+	 * , but the records come from a sequential stream. The stream is consumed
+	 * but not closed.
+	 * 
+	 * @param headerMap
+	 *            {@code <propName, headerText>, for example <"username" field of User class, "User Name" as the spreadsheet header text>. }
+	 * @param records
+	 *            the records to save.
+	 * @param outputStream
+	 *            the output stream for the spreadsheet
+	 * @param datumErrPlaceholder
+	 *            if some datum is wrong, write this place holder to the cell
+	 * @param datumErrors
+	 *            all data errors in the records
+	 * @param saveOptions
+	 *            the options. null means the default ones
+	 * 
+	 * @param <T>
+	 *            the java type of records
+	 */
+	public static <T> void saveStream(Map<String, String> headerMap,
+			Stream<T> records, OutputStream outputStream,
+			String datumErrPlaceholder, List<DatumError> datumErrors,
+			SaveOptions saveOptions) {
+		save(headerMap, toIterator(records), outputStream,
+				datumErrPlaceholder, datumErrors, true, saveOptions);
+	}
+
+	/**
+	 * the same as
+	 * {@link #save(Map, Iterable, OutputStream, String, List, SaveOptions)}
+	 * , but the spreadsheet is written to a file. It's written to a temp file
+	 * in the same directory first, which then replaces the file, atomically if
+	 * the file system supports it. So an existing file is kept if the
+	 * arguments are invalid or the save fails. To save a stream of records,
+	 * pass {@code stream::iterator}.
+	 * 
+	 * @param headerMap
+	 *            {@code <propName, headerText>, for example <"username" field of User class, "User Name" as the spreadsheet header text>. }
+	 * @param records
+	 *            the records to save.
+	 * @param file
+	 *            the file of the spreadsheet
+	 * @param datumErrPlaceholder
+	 *            if some datum is wrong, write this place holder to the cell
+	 * @param datumErrors
+	 *            all data errors in the records
+	 * @param saveOptions
+	 *            the options. null means the default ones
+	 * 
+	 * @param <T>
+	 *            the java type of records
+	 */
+	public static <T> void save(Map<String, String> headerMap,
+			Iterable<T> records, Path file, String datumErrPlaceholder,
+			List<DatumError> datumErrors, SaveOptions saveOptions) {
+		save(headerMap, toIterator(records), file, datumErrPlaceholder,
+				datumErrors, true, saveOptions);
+	}
+
+	/**
+	 * the same as
+	 * {@link #save(Map, Iterable, OutputStream, String, List, SaveOptions)}
+	 * , but the spreadsheet is written to a channel, such as a socket channel.
+	 * The channel is not closed.
+	 * 
+	 * @param headerMap
+	 *            {@code <propName, headerText>, for example <"username" field of User class, "User Name" as the spreadsheet header text>. }
+	 * @param records
+	 *            the records to save.
+	 * @param channel
+	 *            the channel to write the spreadsheet to
+	 * @param datumErrPlaceholder
+	 *            if some datum is wrong, write this place holder to the cell
+	 * @param datumErrors
+	 *            all data errors in the records
+	 * @param saveOptions
+	 *            the options. null means the default ones
+	 * 
+	 * @param <T>
+	 *            the java type of records
+	 */
+	public static <T> void save(Map<String, String> headerMap,
+			Iterable<T> records, WritableByteChannel channel,
+			String datumErrPlaceholder, List<DatumError> datumErrors,
+			SaveOptions saveOptions) {
+		save(headerMap, toIterator(records), channel, datumErrPlaceholder,
+				datumErrors, true, saveOptions);
+	}
+
+	/**
+	 * the same as
+	 * {@link #saveIfNoDatumError(Map, Collection, OutputStream, String, List, SaveOptions)}
+	 * , but the records are pulled from the iterator one by one. Note the
+	 * records are still iterated to the end if there are datum errors.
+	 * 
+	 * @param headerMap
+	 *            {@code <propName, headerText>, for example <"username" field of User class, "User Name" as the spreadsheet header text>. }
+	 * @param records
+	 *            the records to save. It will be iterated to the end
+	 * @param outputStream
+	 *            the output stream for the spreadsheet
+	 * @param datumErrPlaceholder
+	 *            if some datum is wrong, write this place holder to the cell
+	 * @param datumErrors
+	 *            all data errors in the records
+	 * @param saveOptions
+	 *            the options. null means the default ones
+	 * 
+	 * @param <T>
+	 *            the java type of records
+	 */
+	public static <T> void saveIteratorIfNoDatumError(
+			Map<String, String> headerMap, Iterator<T> records,
+			OutputStream outputStream, String datumErrPlaceholder,
+			List<DatumError> datumErrors, SaveOptions saveOptions) {
+		save(headerMap, records, outputStream, datumErrPlaceholder,
+				datumErrors, false, saveOptions);
+	}
+
+	/**
+	 * the same as
+	 * {@link #saveIteratorIfNoDatumError(Map, Iterator, OutputStream, String, List, SaveOptions)}
+	 * , but the records come from an iterable
+	 * 
+	 * @param headerMap
+	 *            {@code <propName, headerText>, for example <"username" field of User class, "User Name" as the spreadsheet header text>. }
+	 * @param records
+	 *            the records to save.
+	 * @param outputStream
+	 *            the output stream for the spreadsheet
+	 * @param datumErrPlaceholder
+	 *            if some datum is wrong, write this place holder to the cell
+	 * @param datumErrors
+	 *            all data errors in the records
+	 * @param saveOptions
+	 *            the options. null means the default ones
+	 * 
+	 * @param <T>
+	 *            the java type of records
+	 */
+	public static <T> void saveIfNoDatumError(
+			Map<String, String> headerMap, Iterable<T> records,
+			OutputStream outputStream, String datumErrPlaceholder,
+			List<DatumError> datumErrors, SaveOptions saveOptions) {
+		save(headerMap, toIterator(records), outputStream,
+				datumErrPlaceholder, datumErrors, false, saveOptions);
+	}
+
+	/**
+	 * the same as
+	 * {@link #saveIteratorIfNoDatumError(Map, Iterator, OutputStream, String, List, SaveOptions)}
+	 * , but the records come from a sequential stream. The stream is consumed
+	 * but not closed.
+	 * 
+	 * @param headerMap
+	 *            {@code <propName, headerText>, for example <"username" field of User class, "User Name" as the spreadsheet header text>. }
+	 * @param records
+	 *            the records to save.
+	 * @param outputStream
+	 *            the output stream for the spreadsheet
+	 * @param datumErrPlaceholder
+	 *            if some datum is wrong, write this place holder to the cell
+	 * @param datumErrors
+	 *            all data errors in the records
+	 * @param saveOptions
+	 *            the options. null means the default ones
+	 * 
+	 * @param <T>
+	 *            the java type of records
+	 */
+	public static <T> void saveStreamIfNoDatumError(
+			Map<String, String> headerMap, Stream<T> records,
+			OutputStream outputStream, String datumErrPlaceholder,
+			List<DatumError> datumErrors, SaveOptions saveOptions) {
+		save(headerMap, toIterator(records), outputStream,
+				datumErrPlaceholder, datumErrors, false, saveOptions);
+	}
+
+	/**
+	 * the same as
+	 * {@link #save(Map, Iterable, Path, String, List, SaveOptions)}, but the
+	 * file is neither created nor changed if there are datum errors
+	 * 
+	 * @param headerMap
+	 *            {@code <propName, headerText>, for example <"username" field of User class, "User Name" as the spreadsheet header text>. }
+	 * @param records
+	 *            the records to save.
+	 * @param file
+	 *            the file of the spreadsheet
+	 * @param datumErrPlaceholder
+	 *            if some datum is wrong, write this place holder to the cell
+	 * @param datumErrors
+	 *            all data errors in the records
+	 * @param saveOptions
+	 *            the options. null means the default ones
+	 * 
+	 * @param <T>
+	 *            the java type of records
+	 */
+	public static <T> void saveIfNoDatumError(Map<String, String> headerMap,
+			Iterable<T> records, Path file, String datumErrPlaceholder,
+			List<DatumError> datumErrors, SaveOptions saveOptions) {
+		save(headerMap, toIterator(records), file, datumErrPlaceholder,
+				datumErrors, false, saveOptions);
+	}
+
+	/**
+	 * the same as
+	 * {@link #save(Map, Iterable, WritableByteChannel, String, List, SaveOptions)}
+	 * , but nothing is written to the channel if there are datum errors
+	 * 
+	 * @param headerMap
+	 *            {@code <propName, headerText>, for example <"username" field of User class, "User Name" as the spreadsheet header text>. }
+	 * @param records
+	 *            the records to save.
+	 * @param channel
+	 *            the channel to write the spreadsheet to
+	 * @param datumErrPlaceholder
+	 *            if some datum is wrong, write this place holder to the cell
+	 * @param datumErrors
+	 *            all data errors in the records
+	 * @param saveOptions
+	 *            the options. null means the default ones
+	 * 
+	 * @param <T>
+	 *            the java type of records
+	 */
+	public static <T> void saveIfNoDatumError(Map<String, String> headerMap,
+			Iterable<T> records, WritableByteChannel channel,
+			String datumErrPlaceholder, List<DatumError> datumErrors,
+			SaveOptions saveOptions) {
+		save(headerMap, toIterator(records), channel, datumErrPlaceholder,
+				datumErrors, false, saveOptions);
+	}
+
 	/**
 	 * please check the doc of {@link #parse(Map, InputStream, List, Class)}.
 	 * The difference is that this class ignore any all the errors and make sure
@@ -200,51 +599,1051 @@ public class Ssio {
 			InputStream inputStream, List<CellError> cellErrors,
 			Class<T> recordClass) throws InvalidFormatException,
 			InvalidHeaderRowException {
-		validateReverseHeaderMap(reverseHeaderMap);
-
-		validateRecordClass(recordClass);
-
-		Workbook workbook = toWorkbook(inputStream);
-		if (workbook.getNumberOfSheets() <= 0) {
-			return new ArrayList<T>();
-		}
-
-		Sheet sheet = workbook.getSheetAt(0);
-
-		// key = columnIndex, value= {propName, headerText}
-		Map<Short, ColumnMeta> columnMetaMap = parseHeader(reverseHeaderMap,
-				sheet.getRow(0));
-		if (columnMetaMap.isEmpty()) {
-			throw new InvalidHeaderRowException();
-		}
-
-		// now do the data rows
-		List<T> records = new ArrayList<T>();
-		for (int rowIndex = 1; rowIndex <= sheet.getLastRowNum(); rowIndex++) {
-			Row row = sheet.getRow(rowIndex);
-			if (row == null) {
-				continue;
-			}
-			T record = parseDataRow(columnMetaMap, row, rowIndex, recordClass,
-					cellErrors);
-			records.add(record);
-		}
-		return records;
+		return parse(reverseHeaderMap, inputStream, cellErrors, recordClass,
+				null);
 	}
 
 	/**
-	 * save records to a new workbook.
+	 * the same as {@link #parse(Map, InputStream, List, Class)}, but with some
+	 * options, e.g. in streaming mode.
 	 * 
-	 * @param headerMap
-	 *            {@code <propName, headerText>, for example <"username" field of User class, "User Name" as the spreadsheet header text>. }
-	 * @param records
-	 *            the records to save.
-	 * @param outputStream
-	 *            the output stream for the spreadsheet
-	 * @param datumErrPlaceholder
-	 *            if some datum is wrong, write this place holder to the cell
-	 *            (stillSaveIfDataError should be set true)
-	 * @param datumErrors
+	 * @param reverseHeaderMap
+	 *            {@code <headerText, propName>, for example <"User Name" as the spreadsheet header, "username" of User class>.}
+	 * @param inputStream
+	 *            the input stream of this spreadsheet
+	 * @param cellErrors
+	 *            the errors of data rows (not including header row) found while
+	 *            being parsed. The error here can tell you which cell is wrong.
+	 * @param recordClass
+	 *            the class the java bean. It must have a default constructor
+	 * @param parseOptions
+	 *            the options. null means the default ones
+	 * @param <T>
+	 *            the java type of records
+	 * @return a list of beans
+	 * @throws InvalidFormatException
+	 *             the input stream doesn't represent a valid spreadsheet
+	 * @throws InvalidHeaderRowException
+	 *             the header row of the spreadsheet is not valid, for example,
+	 *             no headerText accords to that of the reverseHeaerMap
+	 */
+	public static <T> List<T> parse(Map<String, String> reverseHeaderMap,
+			InputStream inputStream, List<CellError> cellErrors,
+			Class<T> recordClass, ParseOptions parseOptions)
+			throws InvalidFormatException, InvalidHeaderRowException {
+		List<T> records = new ArrayList<T>();
+		parse(reverseHeaderMap, inputStream, recordClass, records::add,
+				cellErrors == null ? null : cellErrors::add, parseOptions);
+		return records;
+	}
+
+	/**
+	 * the same as {@link #parse(Map, InputStream, List, Class)}, but instead of
+	 * returning a list, it pushes every record to the recordConsumer as soon as
+	 * the record is built, so that the records can be processed while the
+	 * spreadsheet is still being read.
+	 * 
+	 * @param reverseHeaderMap
+	 *            {@code <headerText, propName>, for example <"User Name" as the spreadsheet header, "username" of User class>.}
+	 * @param inputStream
+	 *            the input stream of this spreadsheet
+	 * @param recordClass
+	 *            the class the java bean. It must have a default constructor
+	 * @param recordConsumer
+	 *            takes the records one by one, in the order of the rows
+	 * @param cellErrorConsumer
+	 *            takes the errors of data rows (not including header row). The
+	 *            errors of a row are pushed before the record of the row. It
+	 *            can be null.
+	 * @param <T>
+	 *            the java type of records
+	 * @throws InvalidFormatException
+	 *             the input stream doesn't represent a valid spreadsheet
+	 * @throws InvalidHeaderRowException
+	 *             the header row of the spreadsheet is not valid, for example,
+	 *             no headerText accords to that of the reverseHeaerMap
+	 */
+	public static <T> void parse(Map<String, String> reverseHeaderMap,
+			InputStream inputStream, Class<T> recordClass,
+			Consumer<? super T> recordConsumer,
+			Consumer<? super CellError> cellErrorConsumer)
+			throws InvalidFormatException, InvalidHeaderRowException {
+		parse(reverseHeaderMap, inputStream, recordClass, recordConsumer,
+				cellErrorConsumer, null);
+	}
+
+	/**
+	 * the same as {@link #parse(Map, InputStream, Class, Consumer, Consumer)},
+	 * but with some options, e.g. in streaming mode.
+	 * 
+	 * @param reverseHeaderMap
+	 *            {@code <headerText, propName>, for example <"User Name" as the spreadsheet header, "username" of User class>.}
+	 * @param inputStream
+	 *            the input stream of this spreadsheet
+	 * @param recordClass
+	 *            the class the java bean. It must have a default constructor
+	 * @param recordConsumer
+	 *            takes the records one by one, in the order of the rows
+	 * @param cellErrorConsumer
+	 *            takes the errors of data rows (not including header row). The
+	 *            errors of a row are pushed before the record of the row. It
+	 *            can be null.
+	 * @param parseOptions
+	 *            the options. null means the default ones
+	 * @param <T>
+	 *            the java type of records
+	 * @throws InvalidFormatException
+	 *             the input stream doesn't represent a valid spreadsheet
+	 * @throws InvalidHeaderRowException
+	 *             the header row of the spreadsheet is not valid, for example,
+	 *             no headerText accords to that of the reverseHeaerMap
+	 */
+	public static <T> void parse(Map<String, String> reverseHeaderMap,
+			InputStream inputStream, Class<T> recordClass,
+			Consumer<? super T> recordConsumer,
+			Consumer<? super CellError> cellErrorConsumer,
+			ParseOptions parseOptions) throws InvalidFormatException,
+			InvalidHeaderRowException {
+		if (recordConsumer == null) {
+			throw new IllegalArgumentException(
+					"the recordConsumer can not be null");
+		}
+
+		RecordIterator<T> iterator = parseAsIterator(reverseHeaderMap,
+				inputStream, recordClass, cellErrorConsumer, parseOptions);
+		try {
+			while (iterator.hasNext()) {
+				recordConsumer.accept(iterator.next());
+			}
+		} finally {
+			iterator.close();
+		}
+	}
+
+	/**
+	 * parse an spreadsheet lazily. The header row is read right away, but
+	 * every data row is read and mapped only when the iterator is asked for
+	 * the next record. Rows are read from rowIndex 1, and the rows that don't
+	 * exist are skipped. The iterator must be closed if you don't iterate it
+	 * to the end. In parallel mode without an executor in the parse options,
+	 * an iterator which is neither read to the end nor closed also keeps the
+	 * threads of its own pool parked; with an executor, only its queued
+	 * chunks are left behind.
+	 * 
+	 * @param reverseHeaderMap
+	 *            {@code <headerText, propName>, for example <"User Name" as the spreadsheet header, "username" of User class>.}
+	 * @param inputStream
+	 *            the input stream of this spreadsheet
+	 * @param recordClass
+	 *            the class the java bean. It must have a default constructor
+	 * @param cellErrorConsumer
+	 *            takes the errors of a data row when the row is read. It can
+	 *            be null.
+	 * @param parseOptions
+	 *            the options. null means the default ones
+	 * @param <T>
+	 *            the java type of records
+	 * @return the iterator of the records
+	 * @throws InvalidFormatException
+	 *             the input stream doesn't represent a valid spreadsheet
+	 * @throws InvalidHeaderRowException
+	 *             the header row of the spreadsheet is not valid, for example,
+	 *             no headerText accords to that of the reverseHeaerMap
+	 */
+	public static <T> RecordIterator<T> parseAsIterator(
+			Map<String, String> reverseHeaderMap,
+			final InputStream inputStream, Class<T> recordClass,
+			Consumer<? super CellError> cellErrorConsumer,
+			ParseOptions parseOptions) throws InvalidFormatException,
+			InvalidHeaderRowException {
+		return parseAsIterator(reverseHeaderMap,
+				options -> openWorkbookSheets(inputStream, options),
+				recordClass, cellErrorConsumer, parseOptions);
+	}
+
+	private static <T> RecordIterator<T> parseAsIterator(
+			Map<String, String> reverseHeaderMap, SheetsOpener sheetsOpener,
+			Class<T> recordClass,
+			Consumer<? super CellError> cellErrorConsumer,
+			ParseOptions parseOptions) throws InvalidFormatException,
+			InvalidHeaderRowException {
+		validateReverseHeaderMap(reverseHeaderMap);
+
+		validateRecordClass(recordClass);
+
+		if (parseOptions == null) {
+			parseOptions = new ParseOptions();
+		}
+		validateParseOptions(parseOptions);
+
+		SheetRowReader reader = openFirstSheet(sheetsOpener
+				.open(parseOptions));
+		if (reader == null) {
+			return new RecordIterator<T>((Iterator<T>) null, null);
+		}
+		return openRecordIterator(reverseHeaderMap, reader, recordClass,
+				cellErrorConsumer, parseOptions);
+	}
+
+	/**
+	 * read the header row of a sheet and get ready to read the data rows. The
+	 * reader will be closed if it fails.
+	 */
+	private static <T> RecordIterator<T> openRecordIterator(
+			Map<String, String> reverseHeaderMap, SheetRowReader reader,
+			Class<T> recordClass,
+			final Consumer<? super CellError> cellErrorConsumer,
+			ParseOptions parseOptions) throws InvalidHeaderRowException {
+		boolean ok = false;
+		try {
+			// key = columnIndex, value= {propName, headerText}
+			Map<Short, ColumnMeta> columnMetaMap = parseHeader(
+					reverseHeaderMap, reader);
+			if (columnMetaMap.isEmpty()) {
+				throw new InvalidHeaderRowException(
+						reader.getSheetName() == null ? "the header row is not valid"
+								: "the header row of sheet \""
+										+ reader.getSheetName()
+										+ "\" is not valid");
+			}
+
+			final RowMappingPlan<T> plan = RowMappingPlan.of(recordClass,
+					columnMetaMap);
+			final boolean lightweightErrors = parseOptions
+					.isLightweightCellErrors();
+			final String sheetName = reader.getSheetName();
+			final Consumer<CellError> sheetCellErrorConsumer = cellErrorConsumer == null ? null
+					: cellError -> {
+						cellError.setSheetName(sheetName);
+						cellErrorConsumer.accept(cellError);
+					};
+			RecordIterator<T> iterator;
+			if (parseOptions.getParallelism() > 1) {
+				iterator = openParallelRecordIterator(reader, plan,
+						sheetCellErrorConsumer, parseOptions);
+			} else {
+				iterator = new RecordIterator<T>(reader,
+						row -> plan.mapRow(row, sheetCellErrorConsumer,
+								lightweightErrors));
+			}
+			ok = true;
+			return iterator;
+		} finally {
+			if (!ok) {
+				IOUtils.closeQuietly(reader);
+			}
+		}
+	}
+
+	/**
+	 * the rows are read by the calling thread, and mapped in chunks by the
+	 * executor of the parse options, or a pool of threads if there is none.
+	 * The errors of a row are collected while it's mapped, and
+	 * pushed to the consumer by the calling thread right before the record,
+	 * the same as what a sequential parse does.
+	 */
+	private static <T> RecordIterator<T> openParallelRecordIterator(
+			final SheetRowReader reader, final RowMappingPlan<T> plan,
+			final Consumer<CellError> cellErrorConsumer,
+			ParseOptions parseOptions) {
+		final boolean lightweightErrors = parseOptions
+				.isLightweightCellErrors();
+		final ParallelMappingIterator<RawRow, MappedRow<T>> mappedRows = new ParallelMappingIterator<RawRow, MappedRow<T>>(
+				new RecordIterator.RawRowIterator(reader), row -> {
+					MappedRow<T> mappedRow = new MappedRow<T>();
+					mappedRow.record = plan.mapRow(row,
+							cellErrorConsumer == null ? null
+									: mappedRow.cellErrors::add,
+							lightweightErrors);
+					return mappedRow;
+				}, parseOptions.getParallelism(), parseOptions
+						.getParallelChunkSize(), parseOptions.getExecutor());
+		Iterator<T> records = new MappingIterator<MappedRow<T>, T>(
+				mappedRows, mappedRow -> {
+					if (cellErrorConsumer != null) {
+						mappedRow.cellErrors.forEach(cellErrorConsumer);
+					}
+					return mappedRow.record;
+				});
+		return new RecordIterator<T>(records, () -> {
+			try {
+				mappedRows.close();
+			} finally {
+				reader.close();
+			}
+		});
+	}
+
+	/**
+	 * a record mapped from a row and the errors of the row
+	 */
+	private static class MappedRow<T> {
+		T record;
+		final List<CellError> cellErrors = new ArrayList<CellError>(0);
+	}
+
+	/**
+	 * parse multiple sheets of the same layout with the same reverseHeaderMap.
+	 * The sheets are read in parallel with the common fork-join pool. Use
+	 * {@link ParseOptions#addSheetName(String)} to parse only some of the
+	 * sheets.
+	 * 
+	 * @param reverseHeaderMap
+	 *            {@code <headerText, propName>, for example <"User Name" as the spreadsheet header, "username" of User class>.}
+	 * @param inputStream
+	 *            the input stream of this spreadsheet
+	 * @param cellErrors
+	 *            key = sheet name, value = the errors of data rows of the
+	 *            sheet. It can be null.
+	 * @param recordClass
+	 *            the class the java bean. It must have a default constructor
+	 * @param parseOptions
+	 *            the options. null means the default ones
+	 * @param <T>
+	 *            the java type of records
+	 * @return key = sheet name, value = the records of the sheet, in the order
+	 *         of the sheets
+	 * @throws InvalidFormatException
+	 *             the input stream doesn't represent a valid spreadsheet
+	 * @throws InvalidHeaderRowException
+	 *             the header row of any sheet is not valid
+	 */
+	public static <T> Map<String, List<T>> parseSheets(
+			Map<String, String> reverseHeaderMap, InputStream inputStream,
+			Map<String, List<CellError>> cellErrors, Class<T> recordClass,
+			ParseOptions parseOptions) throws InvalidFormatException,
+			InvalidHeaderRowException {
+		return parseSheets(reverseHeaderMap, inputStream, cellErrors,
+				recordClass, parseOptions, null);
+	}
+
+	/**
+	 * the same as
+	 * {@link #parseSheets(Map, InputStream, Map, Class, ParseOptions)}, but the
+	 * sheets are read with the given executor
+	 * 
+	 * @param reverseHeaderMap
+	 *            {@code <headerText, propName>, for example <"User Name" as the spreadsheet header, "username" of User class>.}
+	 * @param inputStream
+	 *            the input stream of this spreadsheet
+	 * @param cellErrors
+	 *            key = sheet name, value = the errors of data rows of the
+	 *            sheet. It can be null.
+	 * @param recordClass
+	 *            the class the java bean. It must have a default constructor
+	 * @param parseOptions
+	 *            the options. null means the default ones
+	 * @param executor
+	 *            reads the sheets. null means the common fork-join pool
+	 * @param <T>
+	 *            the java type of records
+	 * @return key = sheet name, value = the records of the sheet, in the order
+	 *         of the sheets
+	 * @throws InvalidFormatException
+	 *             the input stream doesn't represent a valid spreadsheet
+	 * @throws InvalidHeaderRowException
+	 *             the header row of any sheet is not valid
+	 */
+	public static <T> Map<String, List<T>> parseSheets(
+			Map<String, String> reverseHeaderMap,
+			final InputStream inputStream,
+			Map<String, List<CellError>> cellErrors, Class<T> recordClass,
+			ParseOptions parseOptions, ExecutorService executor)
+			throws InvalidFormatException, InvalidHeaderRowException {
+		return parseSheets(reverseHeaderMap,
+				options -> openWorkbookSheets(inputStream, options),
+				cellErrors, recordClass, parseOptions, executor);
+	}
+
+	private static <T> Map<String, List<T>> parseSheets(
+			final Map<String, String> reverseHeaderMap,
+			SheetsOpener sheetsOpener,
+			Map<String, List<CellError>> cellErrors,
+			final Class<T> recordClass, ParseOptions parseOptions,
+			ExecutorService executor) throws InvalidFormatException,
+			InvalidHeaderRowException {
+		validateReverseHeaderMap(reverseHeaderMap);
+		validateRecordClass(recordClass);
+		if (parseOptions == null) {
+			parseOptions = new ParseOptions();
+		}
+		validateParseOptions(parseOptions);
+		if (executor == null) {
+			executor = ForkJoinPool.commonPool();
+		}
+
+		final WorkbookSheets sheets = sheetsOpener.open(parseOptions);
+		try {
+			List<Integer> sheetIndexes = selectSheets(sheets,
+					parseOptions.getSheetNames());
+			final ParseOptions options = parseOptions;
+			final boolean collectingErrors = cellErrors != null;
+			// tells the other sheets to stop if one fails
+			final AtomicBoolean aborted = new AtomicBoolean();
+			List<Future<SheetRecords<T>>> futures = new ArrayList<Future<SheetRecords<T>>>();
+			for (final Integer sheetIndex : sheetIndexes) {
+				futures.add(executor.submit(() -> {
+					boolean ok = false;
+					try {
+						SheetRecords<T> sheetRecords = parseSheet(
+								reverseHeaderMap, sheets, sheetIndex,
+								recordClass, collectingErrors, options,
+								aborted);
+						ok = sheetRecords.invalidHeader == null;
+						return sheetRecords;
+					} finally {
+						if (!ok) {
+							aborted.set(true);
+						}
+					}
+				}));
+			}
+
+			Map<String, List<T>> result = new LinkedHashMap<String, List<T>>();
+			Exception firstException = null;
+			for (Future<SheetRecords<T>> future : futures) {
+				// wait for all of them so that no one is reading the workbook
+				// after it's closed
+				try {
+					SheetRecords<T> sheetRecords = future.get();
+					if (sheetRecords.invalidHeader != null) {
+						if (firstException == null) {
+							firstException = sheetRecords.invalidHeader;
+						}
+						continue;
+					}
+					result.put(sheetRecords.sheetName, sheetRecords.records);
+					if (collectingErrors) {
+						cellErrors.put(sheetRecords.sheetName,
+								sheetRecords.cellErrors);
+					}
+				} catch (ExecutionException e) {
+					if (firstException == null) {
+						firstException = e.getCause() instanceof Exception ? (Exception) e
+								.getCause() : e;
+					}
+				} catch (InterruptedException e) {
+					aborted.set(true);
+					Thread.currentThread().interrupt();
+					if (firstException == null) {
+						firstException = new IllegalStateException(
+								"interrupted while parsing the sheets", e);
+					}
+				}
+			}
+			if (firstException instanceof InvalidHeaderRowException) {
+				throw (InvalidHeaderRowException) firstException;
+			}
+			if (firstException instanceof RuntimeException) {
+				throw (RuntimeException) firstException;
+			}
+			if (firstException != null) {
+				throw new IllegalStateException(firstException);
+			}
+			return result;
+		} finally {
+			IOUtils.closeQuietly(sheets);
+		}
+	}
+
+	private static List<Integer> selectSheets(WorkbookSheets sheets,
+			Set<String> sheetNames) {
+		List<Integer> sheetIndexes = new ArrayList<Integer>();
+		Set<String> notFound = new LinkedHashSet<String>(sheetNames);
+		for (int i = 0; i < sheets.getNumberOfSheets(); i++) {
+			String sheetName = sheets.getSheetName(i);
+			if (sheetNames.isEmpty() || sheetNames.contains(sheetName)) {
+				sheetIndexes.add(i);
+				notFound.remove(sheetName);
+			}
+		}
+		if (!notFound.isEmpty()) {
+			throw new IllegalArgumentException("No such sheets: " + notFound);
+		}
+		return sheetIndexes;
+	}
+
+	private static <T> SheetRecords<T> parseSheet(
+			Map<String, String> reverseHeaderMap, WorkbookSheets sheets,
+			int sheetIndex, Class<T> recordClass, boolean collectingErrors,
+			ParseOptions parseOptions, AtomicBoolean aborted) {
+		SheetRecords<T> sheetRecords = new SheetRecords<T>(
+				sheets.getSheetName(sheetIndex));
+		RecordIterator<T> iterator;
+		try {
+			iterator = openRecordIterator(reverseHeaderMap,
+					sheets.openSheet(sheetIndex), recordClass,
+					collectingErrors ? sheetRecords.cellErrors::add : null,
+					parseOptions);
+		} catch (InvalidHeaderRowException e) {
+			// a checked exception can't go through the executor as it is
+			sheetRecords.invalidHeader = e;
+			return sheetRecords;
+		}
+		try {
+			while (!aborted.get() && iterator.hasNext()) {
+				sheetRecords.records.add(iterator.next());
+			}
+		} finally {
+			iterator.close();
+		}
+		return sheetRecords;
+	}
+
+	/**
+	 * the result of a sheet
+	 */
+	private static class SheetRecords<T> {
+		final String sheetName;
+		final List<T> records = new ArrayList<T>();
+		final List<CellError> cellErrors = new ArrayList<CellError>();
+		InvalidHeaderRowException invalidHeader;
+
+		SheetRecords(String sheetName) {
+			this.sheetName = sheetName;
+		}
+	}
+
+	/**
+	 * the same as
+	 * {@link #parseAsIterator(Map, InputStream, Class, Consumer, ParseOptions)}
+	 * , but returns a sequential stream. Use it in a try-with-resources block
+	 * unless you consume it to the end; an abandoned stream holds the same
+	 * threads or chunks as an abandoned iterator.
+	 * 
+	 * @param reverseHeaderMap
+	 *            {@code <headerText, propName>, for example <"User Name" as the spreadsheet header, "username" of User class>.}
+	 * @param inputStream
+	 *            the input stream of this spreadsheet
+	 * @param recordClass
+	 *            the class the java bean. It must have a default constructor
+	 * @param cellErrorConsumer
+	 *            takes the errors of a data row when the row is read. It can
+	 *            be null.
+	 * @param parseOptions
+	 *            the options. null means the default ones
+	 * @param <T>
+	 *            the java type of records
+	 * @return the stream of the records
+	 * @throws InvalidFormatException
+	 *             the input stream doesn't represent a valid spreadsheet
+	 * @throws InvalidHeaderRowException
+	 *             the header row of the spreadsheet is not valid, for example,
+	 *             no headerText accords to that of the reverseHeaerMap
+	 */
+	public static <T> Stream<T> parseAsStream(
+			Map<String, String> reverseHeaderMap, InputStream inputStream,
+			Class<T> recordClass, Consumer<? super CellError> cellErrorConsumer,
+			ParseOptions parseOptions) throws InvalidFormatException,
+			InvalidHeaderRowException {
+		return parseAsIterator(reverseHeaderMap, inputStream, recordClass,
+				cellErrorConsumer, parseOptions).stream();
+	}
+
+	/**
+	 * the same as {@link #parse(Map, InputStream, List, Class, ParseOptions)}
+	 * , but reads a file. Only the parts of the file that are needed are
+	 * read, with random access, so in streaming mode the file is neither
+	 * copied nor loaded as a whole.
+	 * 
+	 * @param reverseHeaderMap
+	 *            {@code <headerText, propName>, for example <"User Name" as the spreadsheet header, "username" of User class>.}
+	 * @param file
+	 *            the spreadsheet file
+	 * @param cellErrors
+	 *            the errors of data rows (not including header row) found while
+	 *            being parsed. The error here can tell you which cell is wrong.
+	 * @param recordClass
+	 *            the class the java bean. It must have a default constructor
+	 * @param parseOptions
+	 *            the options. null means the default ones
+	 * @param <T>
+	 *            the java type of records
+	 * @return a list of beans
+	 * @throws InvalidFormatException
+	 *             the file doesn't represent a valid spreadsheet
+	 * @throws InvalidHeaderRowException
+	 *             the header row of the spreadsheet is not valid, for example,
+	 *             no headerText accords to that of the reverseHeaerMap
+	 */
+	public static <T> List<T> parse(Map<String, String> reverseHeaderMap,
+			File file, List<CellError> cellErrors, Class<T> recordClass,
+			ParseOptions parseOptions) throws InvalidFormatException,
+			InvalidHeaderRowException {
+		return toList(parseAsIterator(reverseHeaderMap, file, recordClass,
+				cellErrors == null ? null : cellErrors::add, parseOptions));
+	}
+
+	/**
+	 * the same as
+	 * {@link #parseAsIterator(Map, InputStream, Class, Consumer, ParseOptions)}
+	 * , but reads a file the way
+	 * {@link #parse(Map, File, List, Class, ParseOptions)} does
+	 * 
+	 * @param reverseHeaderMap
+	 *            {@code <headerText, propName>, for example <"User Name" as the spreadsheet header, "username" of User class>.}
+	 * @param file
+	 *            the spreadsheet file
+	 * @param recordClass
+	 *            the class the java bean. It must have a default constructor
+	 * @param cellErrorConsumer
+	 *            takes the errors of a data row when the row is read. It can
+	 *            be null.
+	 * @param parseOptions
+	 *            the options. null means the default ones
+	 * @param <T>
+	 *            the java type of records
+	 * @return the iterator of the records
+	 * @throws InvalidFormatException
+	 *             the file doesn't represent a valid spreadsheet
+	 * @throws InvalidHeaderRowException
+	 *             the header row of the spreadsheet is not valid, for example,
+	 *             no headerText accords to that of the reverseHeaerMap
+	 */
+	public static <T> RecordIterator<T> parseAsIterator(
+			Map<String, String> reverseHeaderMap, final File file,
+			Class<T> recordClass,
+			Consumer<? super CellError> cellErrorConsumer,
+			ParseOptions parseOptions) throws InvalidFormatException,
+			InvalidHeaderRowException {
+		return parseAsIterator(reverseHeaderMap,
+				options -> openWorkbookSheets(file, options), recordClass,
+				cellErrorConsumer, parseOptions);
+	}
+
+	/**
+	 * the same as
+	 * {@link #parseSheets(Map, InputStream, Map, Class, ParseOptions, ExecutorService)}
+	 * , but reads a file the way
+	 * {@link #parse(Map, File, List, Class, ParseOptions)} does
+	 * 
+	 * @param reverseHeaderMap
+	 *            {@code <headerText, propName>, for example <"User Name" as the spreadsheet header, "username" of User class>.}
+	 * @param file
+	 *            the spreadsheet file
+	 * @param cellErrors
+	 *            key = sheet name, value = the errors of data rows of the
+	 *            sheet. It can be null.
+	 * @param recordClass
+	 *            the class the java bean. It must have a default constructor
+	 * @param parseOptions
+	 *            the options. null means the default ones
+	 * @param executor
+	 *            reads the sheets. null means the common fork-join pool
+	 * @param <T>
+	 *            the java type of records
+	 * @return key = sheet name, value = the records of the sheet, in the order
+	 *         of the sheets
+	 * @throws InvalidFormatException
+	 *             the file doesn't represent a valid spreadsheet
+	 * @throws InvalidHeaderRowException
+	 *             the header row of any sheet is not valid
+	 */
+	public static <T> Map<String, List<T>> parseSheets(
+			Map<String, String> reverseHeaderMap, final File file,
+			Map<String, List<CellError>> cellErrors, Class<T> recordClass,
+			ParseOptions parseOptions, ExecutorService executor)
+			throws InvalidFormatException, InvalidHeaderRowException {
+		return parseSheets(reverseHeaderMap,
+				options -> openWorkbookSheets(file, options), cellErrors,
+				recordClass, parseOptions, executor);
+	}
+
+	/**
+	 * the same as {@link #parse(Map, InputStream, List, Class, ParseOptions)}
+	 * , but reads a path. A path of the default file system is read as a
+	 * {@link File}, see {@link #parse(Map, File, List, Class, ParseOptions)};
+	 * other paths are read as channels, see
+	 * {@link #parse(Map, SeekableByteChannel, List, Class, ParseOptions)}
+	 * 
+	 * @param reverseHeaderMap
+	 *            {@code <headerText, propName>, for example <"User Name" as the spreadsheet header, "username" of User class>.}
+	 * @param path
+	 *            the path of the spreadsheet file
+	 * @param cellErrors
+	 *            the errors of data rows (not including header row) found while
+	 *            being parsed. The error here can tell you which cell is wrong.
+	 * @param recordClass
+	 *            the class the java bean. It must have a default constructor
+	 * @param parseOptions
+	 *            the options. null means the default ones
+	 * @param <T>
+	 *            the java type of records
+	 * @return a list of beans
+	 * @throws InvalidFormatException
+	 *             the file doesn't represent a valid spreadsheet
+	 * @throws InvalidHeaderRowException
+	 *             the header row of the spreadsheet is not valid, for example,
+	 *             no headerText accords to that of the reverseHeaerMap
+	 */
+	public static <T> List<T> parse(Map<String, String> reverseHeaderMap,
+			Path path, List<CellError> cellErrors, Class<T> recordClass,
+			ParseOptions parseOptions) throws InvalidFormatException,
+			InvalidHeaderRowException {
+		return toList(parseAsIterator(reverseHeaderMap, path, recordClass,
+				cellErrors == null ? null : cellErrors::add, parseOptions));
+	}
+
+	/**
+	 * the same as
+	 * {@link #parseAsIterator(Map, InputStream, Class, Consumer, ParseOptions)}
+	 * , but reads a path the way
+	 * {@link #parse(Map, Path, List, Class, ParseOptions)} does
+	 * 
+	 * @param reverseHeaderMap
+	 *            {@code <headerText, propName>, for example <"User Name" as the spreadsheet header, "username" of User class>.}
+	 * @param path
+	 *            the path of the spreadsheet file
+	 * @param recordClass
+	 *            the class the java bean. It must have a default constructor
+	 * @param cellErrorConsumer
+	 *            takes the errors of a data row when the row is read. It can
+	 *            be null.
+	 * @param parseOptions
+	 *            the options. null means the default ones
+	 * @param <T>
+	 *            the java type of records
+	 * @return the iterator of the records
+	 * @throws InvalidFormatException
+	 *             the file doesn't represent a valid spreadsheet
+	 * @throws InvalidHeaderRowException
+	 *             the header row of the spreadsheet is not valid, for example,
+	 *             no headerText accords to that of the reverseHeaerMap
+	 */
+	public static <T> RecordIterator<T> parseAsIterator(
+			Map<String, String> reverseHeaderMap, final Path path,
+			Class<T> recordClass,
+			Consumer<? super CellError> cellErrorConsumer,
+			ParseOptions parseOptions) throws InvalidFormatException,
+			InvalidHeaderRowException {
+		return parseAsIterator(reverseHeaderMap,
+				options -> openWorkbookSheets(path, options), recordClass,
+				cellErrorConsumer, parseOptions);
+	}
+
+	/**
+	 * the same as
+	 * {@link #parseSheets(Map, InputStream, Map, Class, ParseOptions, ExecutorService)}
+	 * , but reads a path the way
+	 * {@link #parse(Map, Path, List, Class, ParseOptions)} does
+	 * 
+	 * @param reverseHeaderMap
+	 *            {@code <headerText, propName>, for example <"User Name" as the spreadsheet header, "username" of User class>.}
+	 * @param path
+	 *            the path of the spreadsheet file
+	 * @param cellErrors
+	 *            key = sheet name, value = the errors of data rows of the
+	 *            sheet. It can be null.
+	 * @param recordClass
+	 *            the class the java bean. It must have a default constructor
+	 * @param parseOptions
+	 *            the options. null means the default ones
+	 * @param executor
+	 *            reads the sheets. null means the common fork-join pool
+	 * @param <T>
+	 *            the java type of records
+	 * @return key = sheet name, value = the records of the sheet, in the order
+	 *         of the sheets
+	 * @throws InvalidFormatException
+	 *             the file doesn't represent a valid spreadsheet
+	 * @throws InvalidHeaderRowException
+	 *             the header row of any sheet is not valid
+	 */
+	public static <T> Map<String, List<T>> parseSheets(
+			Map<String, String> reverseHeaderMap, final Path path,
+			Map<String, List<CellError>> cellErrors, Class<T> recordClass,
+			ParseOptions parseOptions, ExecutorService executor)
+			throws InvalidFormatException, InvalidHeaderRowException {
+		return parseSheets(reverseHeaderMap,
+				options -> openWorkbookSheets(path, options), cellErrors,
+				recordClass, parseOptions, executor);
+	}
+
+	/**
+	 * the same as {@link #parse(Map, InputStream, List, Class, ParseOptions)}
+	 * , but reads a seekable channel. In streaming mode only the parts of an
+	 * xlsx file that are needed are read, with random access. In other modes
+	 * the channel is read as a stream, except that an xls file in a file
+	 * channel is read with random access.
+	 * 
+	 * @param reverseHeaderMap
+	 *            {@code <headerText, propName>, for example <"User Name" as the spreadsheet header, "username" of User class>.}
+	 * @param channel
+	 *            the channel of the spreadsheet. It will not be closed
+	 * @param cellErrors
+	 *            the errors of data rows (not including header row) found while
+	 *            being parsed. The error here can tell you which cell is wrong.
+	 * @param recordClass
+	 *            the class the java bean. It must have a default constructor
+	 * @param parseOptions
+	 *            the options. null means the default ones
+	 * @param <T>
+	 *            the java type of records
+	 * @return a list of beans
+	 * @throws InvalidFormatException
+	 *             the channel doesn't represent a valid spreadsheet
+	 * @throws InvalidHeaderRowException
+	 *             the header row of the spreadsheet is not valid, for example,
+	 *             no headerText accords to that of the reverseHeaerMap
+	 */
+	public static <T> List<T> parse(Map<String, String> reverseHeaderMap,
+			SeekableByteChannel channel, List<CellError> cellErrors,
+			Class<T> recordClass, ParseOptions parseOptions)
+			throws InvalidFormatException, InvalidHeaderRowException {
+		return toList(parseAsIterator(reverseHeaderMap, channel, recordClass,
+				cellErrors == null ? null : cellErrors::add, parseOptions));
+	}
+
+	/**
+	 * the same as
+	 * {@link #parseAsIterator(Map, InputStream, Class, Consumer, ParseOptions)}
+	 * , but reads a seekable channel the way
+	 * {@link #parse(Map, SeekableByteChannel, List, Class, ParseOptions)}
+	 * does
+	 * 
+	 * @param reverseHeaderMap
+	 *            {@code <headerText, propName>, for example <"User Name" as the spreadsheet header, "username" of User class>.}
+	 * @param channel
+	 *            the channel of the spreadsheet. It will not be closed
+	 * @param recordClass
+	 *            the class the java bean. It must have a default constructor
+	 * @param cellErrorConsumer
+	 *            takes the errors of a data row when the row is read. It can
+	 *            be null.
+	 * @param parseOptions
+	 *            the options. null means the default ones
+	 * @param <T>
+	 *            the java type of records
+	 * @return the iterator of the records
+	 * @throws InvalidFormatException
+	 *             the channel doesn't represent a valid spreadsheet
+	 * @throws InvalidHeaderRowException
+	 *             the header row of the spreadsheet is not valid, for example,
+	 *             no headerText accords to that of the reverseHeaerMap
+	 */
+	public static <T> RecordIterator<T> parseAsIterator(
+			Map<String, String> reverseHeaderMap,
+			final SeekableByteChannel channel,
+			Class<T> recordClass,
+			Consumer<? super CellError> cellErrorConsumer,
+			ParseOptions parseOptions) throws InvalidFormatException,
+			InvalidHeaderRowException {
+		return parseAsIterator(reverseHeaderMap,
+				options -> openWorkbookSheets(channel, false, options),
+				recordClass, cellErrorConsumer, parseOptions);
+	}
+
+	/**
+	 * the same as
+	 * {@link #parseSheets(Map, InputStream, Map, Class, ParseOptions, ExecutorService)}
+	 * , but reads a seekable channel the way
+	 * {@link #parse(Map, SeekableByteChannel, List, Class, ParseOptions)}
+	 * does
+	 * 
+	 * @param reverseHeaderMap
+	 *            {@code <headerText, propName>, for example <"User Name" as the spreadsheet header, "username" of User class>.}
+	 * @param channel
+	 *            the channel of the spreadsheet. It will not be closed
+	 * @param cellErrors
+	 *            key = sheet name, value = the errors of data rows of the
+	 *            sheet. It can be null.
+	 * @param recordClass
+	 *            the class the java bean. It must have a default constructor
+	 * @param parseOptions
+	 *            the options. null means the default ones
+	 * @param executor
+	 *            reads the sheets. null means the common fork-join pool
+	 * @param <T>
+	 *            the java type of records
+	 * @return key = sheet name, value = the records of the sheet, in the order
+	 *         of the sheets
+	 * @throws InvalidFormatException
+	 *             the channel doesn't represent a valid spreadsheet
+	 * @throws InvalidHeaderRowException
+	 *             the header row of any sheet is not valid
+	 */
+	public static <T> Map<String, List<T>> parseSheets(
+			Map<String, String> reverseHeaderMap,
+			final SeekableByteChannel channel,
+			Map<String, List<CellError>> cellErrors, Class<T> recordClass,
+			ParseOptions parseOptions, ExecutorService executor)
+			throws InvalidFormatException, InvalidHeaderRowException {
+		return parseSheets(reverseHeaderMap,
+				options -> openWorkbookSheets(channel, false, options), cellErrors,
+				recordClass, parseOptions, executor);
+	}
+
+	/**
+	 * the same as {@link #parse(Map, InputStream, List, Class, ParseOptions)}
+	 * , but for a csv file. The first record of the file is the header row.
+	 * The fields are set to the records the same way as string cells, and
+	 * poi is not involved at all. The reader is not closed.
+	 * 
+	 * @param reverseHeaderMap
+	 *            {@code <headerText, propName>, for example <"User Name" as the csv header, "username" of User class>.}
+	 * @param reader
+	 *            the reader of the csv file
+	 * @param cellErrors
+	 *            the errors of data rows (not including header row) found while
+	 *            being parsed. The error here can tell you which field is
+	 *            wrong.
+	 * @param recordClass
+	 *            the class the java bean. It must have a default constructor
+	 * @param parseOptions
+	 *            the options, e.g. the separator. null means the default ones
+	 * @param <T>
+	 *            the java type of records
+	 * @return a list of beans
+	 * @throws InvalidHeaderRowException
+	 *             the header row of the csv file is not valid, for example, no
+	 *             headerText accords to that of the reverseHeaerMap
+	 */
+	public static <T> List<T> parseCsv(Map<String, String> reverseHeaderMap,
+			Reader reader, List<CellError> cellErrors, Class<T> recordClass,
+			ParseOptions parseOptions) throws InvalidHeaderRowException {
+		return toList(parseCsvAsIterator(reverseHeaderMap, reader,
+				recordClass, cellErrors == null ? null : cellErrors::add,
+				parseOptions));
+	}
+
+	/**
+	 * the same as
+	 * {@link #parseAsIterator(Map, InputStream, Class, Consumer, ParseOptions)}
+	 * , but for a csv file. See
+	 * {@link #parseCsv(Map, Reader, List, Class, ParseOptions)}
+	 * 
+	 * @param reverseHeaderMap
+	 *            {@code <headerText, propName>, for example <"User Name" as the csv header, "username" of User class>.}
+	 * @param reader
+	 *            the reader of the csv file
+	 * @param recordClass
+	 *            the class the java bean. It must have a default constructor
+	 * @param cellErrorConsumer
+	 *            takes the errors of a data row when the row is read. It can
+	 *            be null.
+	 * @param parseOptions
+	 *            the options, e.g. the separator. null means the default ones
+	 * @param <T>
+	 *            the java type of records
+	 * @return the iterator of the records
+	 * @throws InvalidHeaderRowException
+	 *             the header row of the csv file is not valid, for example, no
+	 *             headerText accords to that of the reverseHeaerMap
+	 */
+	public static <T> RecordIterator<T> parseCsvAsIterator(
+			Map<String, String> reverseHeaderMap, Reader reader,
+			Class<T> recordClass,
+			Consumer<? super CellError> cellErrorConsumer,
+			ParseOptions parseOptions) throws InvalidHeaderRowException {
+		validateReverseHeaderMap(reverseHeaderMap);
+
+		validateRecordClass(recordClass);
+
+		if (reader == null) {
+			throw new IllegalArgumentException("the reader can not be null");
+		}
+		if (parseOptions == null) {
+			parseOptions = new ParseOptions();
+		}
+		validateParseOptions(parseOptions);
+
+		return openRecordIterator(reverseHeaderMap, new CsvSheetRowReader(
+				reader, parseOptions.getCsvSeparator()), recordClass,
+				cellErrorConsumer, parseOptions);
+	}
+
+	/**
+	 * the same as
+	 * {@link #save(Map, Iterable, OutputStream, String, List, SaveOptions)}
+	 * , but to a csv file. The first record of the file is the header row. A
+	 * field is the text of the property, the same as an untyped cell, and poi
+	 * is not involved at all. The options which only make sense for a
+	 * spreadsheet, e.g. the styles, are ignored. The rows are written as soon
+	 * as the records are read, so there is no such thing as
+	 * saveIfNoDatumError for csv. The writer is flushed but not closed.
+	 * 
+	 * @param headerMap
+	 *            {@code <propName, headerText>, for example <"username" field of User class, "User Name" as the csv header text>. }
+	 * @param records
+	 *            the records to save.
+	 * @param writer
+	 *            the writer of the csv file
+	 * @param datumErrPlaceholder
+	 *            if some datum is wrong, write this place holder to the field
+	 * @param datumErrors
+	 *            all data errors in the records
+	 * @param saveOptions
+	 *            the options, e.g. the separator. null means the default ones
+	 * 
+	 * @param <T>
+	 *            the java type of records
+	 */
+	public static <T> void saveCsv(Map<String, String> headerMap,
+			Iterable<T> records, Writer writer, String datumErrPlaceholder,
+			List<DatumError> datumErrors, SaveOptions saveOptions) {
+		validateHeaderMap(headerMap);
+		if (saveOptions == null) {
+			saveOptions = new SaveOptions();
+		}
+		validateSaveOptions(saveOptions);
+		if (writer == null) {
+			throw new IllegalArgumentException("the writer can not be null");
+		}
+
+		final String[] propNames = headerMap.keySet().toArray(
+				new String[headerMap.size()]);
+		final String placeholder = datumErrPlaceholder;
+		Iterator<T> recordIterator = records == null ? Collections
+				.<T> emptyList().iterator() : records.iterator();
+		Iterator<RecordCells> cellsIterator = readRecords(recordIterator,
+				record -> RecordCells.read(record, propNames, placeholder,
+						false, null), saveOptions);
+
+		CsvWriter csv = new CsvWriter(writer, saveOptions.getCsvSeparator());
+		try {
+			csv.writeRow(headerMap.values());
+			int recordIndex = 0;
+			while (cellsIterator.hasNext()) {
+				RecordCells cells = cellsIterator.next();
+				addDatumErrors(propNames, cells, recordIndex, datumErrors);
+				csv.writeRow(cells.values);
+				recordIndex++;
+			}
+			csv.flush();
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		} finally {
+			if (cellsIterator instanceof Closeable) {
+				IOUtils.closeQuietly((Closeable) cellsIterator);
+			}
+		}
+	}
+
+	private static <T> List<T> toList(RecordIterator<T> iterator) {
+		List<T> records = new ArrayList<T>();
+		try {
+			while (iterator.hasNext()) {
+				records.add(iterator.next());
+			}
+		} finally {
+			iterator.close();
+		}
+		return records;
+	}
+
+	/**
+	 * save records to a new workbook.
+	 * 
+	 * @param headerMap
+	 *            {@code <propName, headerText>, for example <"username" field of User class, "User Name" as the spreadsheet header text>. }
+	 * @param records
+	 *            the records to save.
+	 * @param outputStream
+	 *            the output stream for the spreadsheet
+	 * @param datumErrPlaceholder
+	 *            if some datum is wrong, write this place holder to the cell
+	 *            (stillSaveIfDataError should be set true)
+	 * @param datumErrors
 	 *            all data errors in the records
 	 * @param stillSaveIfDataError
 	 *            if there are errors in data, should we still save the records
@@ -256,47 +1655,451 @@ public class Ssio {
 			Collection<T> records, OutputStream outputStream,
 			String datumErrPlaceholder, List<DatumError> datumErrors,
 			boolean stillSaveIfDataError) {
+		save(headerMap, records, outputStream, datumErrPlaceholder,
+				datumErrors, stillSaveIfDataError, null);
+	}
+
+	/**
+	 * save records to a new workbook, with options.
+	 * 
+	 * @param saveOptions
+	 *            null means the default ones
+	 */
+	static <T> void save(Map<String, String> headerMap,
+			Collection<T> records, OutputStream outputStream,
+			String datumErrPlaceholder, List<DatumError> datumErrors,
+			boolean stillSaveIfDataError, SaveOptions saveOptions) {
+		save(headerMap, toIterator(records), outputStream,
+				datumErrPlaceholder, datumErrors, stillSaveIfDataError,
+				saveOptions);
+	}
+
+	/**
+	 * save records to a new workbook, with options. The records are pulled
+	 * one by one while the rows are written.
+	 * 
+	 * @param records
+	 *            null means no records
+	 * @param saveOptions
+	 *            null means the default ones
+	 * @return whether the spreadsheet is written to the output stream
+	 */
+	static <T> boolean save(Map<String, String> headerMap, Iterator<T> records,
+			OutputStream outputStream, String datumErrPlaceholder,
+			List<DatumError> datumErrors, boolean stillSaveIfDataError,
+			SaveOptions saveOptions) {
 		validateHeaderMap(headerMap);
+		if (saveOptions == null) {
+			saveOptions = new SaveOptions();
+		}
+		validateSaveOptions(saveOptions);
 
 		if (records == null) {
-			records = new ArrayList<T>();
+			records = Collections.<T> emptyList().iterator();
 		}
 		if (outputStream == null) {
 			throw new IllegalArgumentException(
 					"the outputStream can not be null");
 		}
 
-		Workbook wb = new XSSFWorkbook();
-		Sheet sheet = wb.createSheet();
+		if (canWriteDirectly(saveOptions, stillSaveIfDataError)) {
+			saveDirectly(headerMap, records, outputStream,
+					datumErrPlaceholder, datumErrors, saveOptions);
+			return true;
+		}
+
+		Workbook wb = createWorkbook(saveOptions);
+		try {
+			CellStyleRegistry styles = new CellStyleRegistry(wb, saveOptions);
+
+			ColumnWidthEstimator widths = saveOptions.isAutoWidth() ? new ColumnWidthEstimator(
+					headerMap.size(), saveOptions.getAutoWidthSampleRows()) : null;
+
+			Sheet sheet = wb.createSheet();
+			createHeaders(headerMap, sheet, styles, widths);
+			CellStyle[] columnStyles = getColumnStyles(headerMap, saveOptions,
+					styles);
+
+			final String[] propNames = headerMap.keySet().toArray(
+					new String[headerMap.size()]);
+			final String placeholder = datumErrPlaceholder;
+			final SaveOptions options = saveOptions;
+			Iterator<RecordCells> cellsIterator = readRecords(records,
+					record -> RecordCells.read(record, propNames, placeholder,
+							options), saveOptions);
+
+			try {
+				// the header takes a row of each sheet
+				int dataRowsPerSheet = saveOptions.getMaxRowsPerSheet() - 1;
+				int recordIndex = 0;
+				int rowIndex = 0;
+				while (cellsIterator.hasNext()) {
+					RecordCells cells = cellsIterator.next();
+					if (rowIndex == dataRowsPerSheet) {
+						// roll over to a new sheet
+						sheet = wb.createSheet();
+						createHeaders(headerMap, sheet, styles, null);
+						rowIndex = 0;
+					}
+					rowIndex++;
+					createRow(propNames, cells, recordIndex, sheet, rowIndex,
+							datumErrors, columnStyles, styles,
+							widths != null && widths.isSampling(recordIndex) ? widths
+									: null);
+					recordIndex++;
+				}
+			} finally {
+				if (cellsIterator instanceof Closeable) {
+					IOUtils.closeQuietly((Closeable) cellsIterator);
+				}
+			}
+
+			if (widths != null) {
+				for (int i = 0; i < wb.getNumberOfSheets(); i++) {
+					widths.applyTo(wb.getSheetAt(i));
+				}
+			}
+
+			if (!shouldSave(datumErrors, stillSaveIfDataError)) {
+				return false;
+			}
+			Set<Integer> sharedStringsColumnIndexes = getSharedStringsColumnIndexes(
+					headerMap, saveOptions);
+			if (sharedStringsColumnIndexes.isEmpty()
+					&& saveOptions.getCompressionLevel() == Deflater.DEFAULT_COMPRESSION) {
+				writeWorkbook(wb, outputStream);
+			} else {
+				writeWorkbookRezipped(wb, outputStream,
+						sharedStringsColumnIndexes,
+						saveOptions.getCompressionLevel());
+			}
+			return true;
+		} finally {
+			disposeWorkbook(wb);
+		}
+	}
+
+	/**
+	 * save records to a temp file next to the file, and then move it to the
+	 * file. The arguments are validated before any file is touched. Nothing
+	 * is written to the file if the spreadsheet is not saved because of datum
+	 * errors.
+	 */
+	static <T> void save(Map<String, String> headerMap, Iterator<T> records,
+			Path file, String datumErrPlaceholder,
+			List<DatumError> datumErrors, boolean stillSaveIfDataError,
+			SaveOptions saveOptions) {
+		validateHeaderMap(headerMap);
+		if (saveOptions == null) {
+			saveOptions = new SaveOptions();
+		}
+		validateSaveOptions(saveOptions);
+		if (file == null) {
+			throw new IllegalArgumentException("the file can not be null");
+		}
+
+		Path tempFile = null;
+		boolean moved = false;
+		try {
+			tempFile = createTempFileBeside(file);
+			OutputStream out = Files.newOutputStream(tempFile);
+			boolean written;
+			try {
+				written = save(headerMap, records, out, datumErrPlaceholder,
+						datumErrors, stillSaveIfDataError, saveOptions);
+				out.close();
+			} finally {
+				IOUtils.closeQuietly(out);
+			}
+			if (written) {
+				moveReplacing(tempFile, file);
+				moved = true;
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		} finally {
+			if (tempFile != null && !moved) {
+				deleteQuietly(tempFile);
+			}
+		}
+	}
+
+	/**
+	 * save records to a channel, which is not closed
+	 */
+	static <T> void save(Map<String, String> headerMap, Iterator<T> records,
+			WritableByteChannel channel, String datumErrPlaceholder,
+			List<DatumError> datumErrors, boolean stillSaveIfDataError,
+			SaveOptions saveOptions) {
+		if (channel == null) {
+			throw new IllegalArgumentException("the channel can not be null");
+		}
+		OutputStream out = new BufferedOutputStream(new CloseShieldOutputStream(
+				Channels.newOutputStream(channel)));
+		save(headerMap, records, out, datumErrPlaceholder, datumErrors,
+				stillSaveIfDataError, saveOptions);
+		try {
+			out.flush();
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static final Random TEMP_FILE_RANDOM = new Random();
+
+	/**
+	 * in the same directory, so that it can be moved to the file atomically.
+	 * It has the default permissions of a new file, unlike
+	 * {@link Files#createTempFile(Path, String, String, java.nio.file.attribute.FileAttribute...)}
+	 */
+	private static Path createTempFileBeside(Path file) throws IOException {
+		Path dir = file.toAbsolutePath().getParent();
+		String prefix = "." + file.getFileName() + ".";
+		for (;;) {
+			Path tempFile = dir.resolve(prefix
+					+ Long.toHexString(TEMP_FILE_RANDOM.nextLong()) + ".tmp");
+			try {
+				return Files.createFile(tempFile);
+			} catch (FileAlreadyExistsException e) {
+				// try another name
+			}
+		}
+	}
+
+	private static void moveReplacing(Path source, Path target)
+			throws IOException {
+		try {
+			Files.move(source, target, StandardCopyOption.ATOMIC_MOVE,
+					StandardCopyOption.REPLACE_EXISTING);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	private static void deleteQuietly(Path file) {
+		try {
+			Files.deleteIfExists(file);
+		} catch (IOException e) {
+			// nothing more can be done
+		}
+	}
+
+	/**
+	 * see {@link SaveOptions#isDirectWriting()}. A streaming save which
+	 * would have to rezip the workbook, for the compression level or the
+	 * shared strings columns, is written directly too, since the direct
+	 * writer gives the same file in one pass.
+	 */
+	static boolean canWriteDirectly(SaveOptions saveOptions,
+			boolean stillSaveIfDataError) {
+		if (!stillSaveIfDataError || !saveOptions.getCellStyles().isEmpty()
+				|| !saveOptions.getColumnStyles().isEmpty()) {
+			return false;
+		}
+		if (saveOptions.isDirectWriting()) {
+			return true;
+		}
+		return saveOptions.isStreaming()
+				&& (saveOptions.getCompressionLevel() != Deflater.DEFAULT_COMPRESSION
+						|| !saveOptions.getSharedStringsColumns().isEmpty());
+	}
+
+	/**
+	 * write the xlsx package directly, without a poi workbook
+	 */
+	private static <T> void saveDirectly(Map<String, String> headerMap,
+			Iterator<T> records, OutputStream outputStream,
+			String datumErrPlaceholder, List<DatumError> datumErrors,
+			SaveOptions saveOptions) {
+		final String[] propNames = headerMap.keySet().toArray(
+				new String[headerMap.size()]);
+		final String placeholder = datumErrPlaceholder;
+		final SaveOptions options = saveOptions;
+		Iterator<RecordCells> cellsIterator = readRecords(records,
+				record -> RecordCells.read(record, propNames, placeholder,
+						options), saveOptions);
+
+		XlsxDirectWriter writer = new XlsxDirectWriter(outputStream, headerMap
+				.values().toArray(new String[headerMap.size()]), saveOptions,
+				getColumnIndexes(headerMap,
+						saveOptions.getSharedStringsColumns()));
+		try {
+			int recordIndex = 0;
+			while (cellsIterator.hasNext()) {
+				RecordCells cells = cellsIterator.next();
+				addDatumErrors(propNames, cells, recordIndex, datumErrors);
+				writer.writeRow(cells);
+				recordIndex++;
+			}
+			writer.finish();
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		} finally {
+			if (cellsIterator instanceof Closeable) {
+				IOUtils.closeQuietly((Closeable) cellsIterator);
+			}
+		}
+	}
+
+	/**
+	 * read the records one by one, or in batches by the executor of the save
+	 * options, or a pool of threads if there is none, in parallel mode. The
+	 * iterator should be closed if it's Closeable.
+	 */
+	private static <T> Iterator<RecordCells> readRecords(Iterator<T> records,
+			Function<T, RecordCells> reader, SaveOptions saveOptions) {
+		if (saveOptions.getParallelism() > 1) {
+			return new ParallelMappingIterator<T, RecordCells>(records,
+					reader, saveOptions.getParallelism(),
+					saveOptions.getParallelBatchSize(),
+					saveOptions.getExecutor());
+		}
+		return new MappingIterator<T, RecordCells>(records, reader);
+	}
+
+	private static void addDatumErrors(String[] propNames, RecordCells cells,
+			int recordIndex, List<DatumError> datumErrors) {
+		if (datumErrors == null) {
+			return;
+		}
+		for (int columnIndex = 0; columnIndex < propNames.length; columnIndex++) {
+			Exception datumErr = cells.errors[columnIndex];
+			if (datumErr != null) {
+				DatumError de = new DatumError();
+				de.setPropName(propNames[columnIndex]);
+				de.setRecordIndex(recordIndex);
+				de.setCause(datumErr);
+				datumErrors.add(de);
+			}
+		}
+	}
+
+	private static <T> Iterator<T> toIterator(Iterable<T> records) {
+		return records == null ? null : records.iterator();
+	}
+
+	private static <T> Iterator<T> toIterator(Stream<T> records) {
+		return records == null ? null : records.iterator();
+	}
+
+	/**
+	 * the workbook has been generated. Should we write it to the outputstream?
+	 */
+	static boolean shouldSave(List<DatumError> datumErrors,
+			boolean stillSaveIfDataError) {
+		if (stillSaveIfDataError) {
+			return true;
+		}
+		if (datumErrors == null || datumErrors.isEmpty()) {
+			return true;
+		} else {
+			return false;
+		}
+	}
+
+	static void validateSaveOptions(SaveOptions saveOptions) {
+		if (saveOptions.isStreaming()
+				&& saveOptions.getRowAccessWindowSize() <= 0) {
+			throw new IllegalArgumentException(
+					"the rowAccessWindowSize should be positive in streaming mode");
+		}
+		if (saveOptions.isTypedCells()
+				&& StringUtils.isBlank(saveOptions.getDateFormat())) {
+			throw new IllegalArgumentException(
+					"the dateFormat can not be blank for typed cells");
+		}
+		if (saveOptions.getParallelism() < 1) {
+			throw new IllegalArgumentException(
+					"the parallelism should be positive");
+		}
+		if (saveOptions.getParallelBatchSize() < 1) {
+			throw new IllegalArgumentException(
+					"the parallelBatchSize should be positive");
+		}
+		if (saveOptions.getCompressionLevel() < Deflater.DEFAULT_COMPRESSION
+				|| saveOptions.getCompressionLevel() > Deflater.BEST_COMPRESSION) {
+			throw new IllegalArgumentException(
+					"the compressionLevel should be between -1 and 9");
+		}
+		if (saveOptions.getMaxRowsPerSheet() < 2
+				|| saveOptions.getMaxRowsPerSheet() > SaveOptions.DEFAULT_MAX_ROWS_PER_SHEET) {
+			throw new IllegalArgumentException(
+					"the maxRowsPerSheet should be between 2 and "
+							+ SaveOptions.DEFAULT_MAX_ROWS_PER_SHEET);
+		}
+		if (saveOptions.getAutoWidthSampleRows() < 0) {
+			throw new IllegalArgumentException(
+					"the autoWidthSampleRows can not be negative");
+		}
+		validateCsvSeparator(saveOptions.getCsvSeparator());
+		for (String styleName : saveOptions.getColumnStyles().values()) {
+			if (!CellStyleRegistry.isKnown(styleName,
+					saveOptions.getCellStyles())) {
+				throw new IllegalArgumentException("the cell style \""
+						+ styleName + "\" is not registered");
+			}
+		}
+	}
+
+	static void validateParseOptions(ParseOptions parseOptions) {
+		if (parseOptions.getParallelism() < 1) {
+			throw new IllegalArgumentException(
+					"the parallelism should be positive");
+		}
+		if (parseOptions.getParallelChunkSize() < 1) {
+			throw new IllegalArgumentException(
+					"the parallelChunkSize should be positive");
+		}
+		validateCsvSeparator(parseOptions.getCsvSeparator());
+	}
 
-		createHeaders(headerMap, sheet);
+	private static void validateCsvSeparator(char csvSeparator) {
+		if (csvSeparator == '"' || csvSeparator == '\r'
+				|| csvSeparator == '\n') {
+			throw new IllegalArgumentException(
+					"the csvSeparator can not be a quote or a line break");
+		}
+	}
 
-		int recordIndex = 0;
-		for (T record : records) {
-			int rowIndex = recordIndex + 1;
-			createRow(headerMap, record, recordIndex, sheet, rowIndex,
-					datumErrPlaceholder, datumErrors);
-			recordIndex++;
+	/**
+	 * the styles of the data cells, in the order of the columns. null
+	 * elements mean default styles.
+	 */
+	private static CellStyle[] getColumnStyles(Map<String, String> headerMap,
+			SaveOptions saveOptions, CellStyleRegistry styles) {
+		CellStyle[] columnStyles = new CellStyle[headerMap.size()];
+		int columnIndex = 0;
+		for (String propName : headerMap.keySet()) {
+			String styleName = saveOptions.getColumnStyles().get(propName);
+			if (styleName != null) {
+				columnStyles[columnIndex] = styles.getStyle(styleName);
+			}
+			columnIndex++;
 		}
+		return columnStyles;
+	}
 
-		if (shouldSave(datumErrors, stillSaveIfDataError)) {
-			writeWorkbook(wb, outputStream);
+	/**
+	 * an in-memory workbook, or a streaming one which flushes the rows out of
+	 * the window to temp files
+	 */
+	static Workbook createWorkbook(SaveOptions saveOptions) {
+		if (!saveOptions.isStreaming()) {
+			return new XSSFWorkbook();
 		}
-
+		SXSSFWorkbook wb = new SXSSFWorkbook(
+				saveOptions.getRowAccessWindowSize());
+		wb.setCompressTempFiles(saveOptions.isCompressTempFiles());
+		return wb;
 	}
 
 	/**
-	 * the workbook has been generated. Should we write it to the outputstream?
+	 * delete the temp files of a streaming workbook, whether it's been written
+	 * or not
 	 */
-	static boolean shouldSave(List<DatumError> datumErrors,
-			boolean stillSaveIfDataError) {
-		if (stillSaveIfDataError) {
-			return true;
-		}
-		if (datumErrors == null || datumErrors.isEmpty()) {
-			return true;
-		} else {
-			return false;
+	static void disposeWorkbook(Workbook wb) {
+		if (wb instanceof SXSSFWorkbook) {
+			SxssfTempFileCleaner.clean((SXSSFWorkbook) wb);
 		}
 	}
 
@@ -351,66 +2154,11 @@ public class Ssio {
 
 	static <T> void setPropertyWithCellValue(Class<T> recordClass, T record,
 			String propName, Object cellStringOrDate) {
-		IllegalArgumentException noSetterException = new IllegalArgumentException(
-				MessageFormat
-						.format("No suitable setter for property \"{0}\" with cellValue \"{1}\" ",
-								propName, cellStringOrDate));
-		List<Method> setters = SepReflectionHelper.findSettersByPropName(
-				recordClass, propName);
-
-		// no setter for this prop
-		if (setters.isEmpty()) {
-			throw noSetterException;
-		}
-
-		if (cellStringOrDate == null) {
-			// in this case, try all the setters one by one
-			for (Method setter : setters) {
-				Class<?> propClass = setter.getParameterTypes()[0];
-				if (SepBasicTypeConverts.canFromNull(propClass)) {
-					SepReflectionHelper.invokeSetter(setter, record, null);
-					return;
-				}
-			}
-			throw noSetterException;
-		}
-
-		if (cellStringOrDate instanceof java.util.Date) {
-			Method setter = SepReflectionHelper.findSetterByPropNameAndType(
-					recordClass, propName, java.util.Date.class);
-			if (setter == null) {
-				throw noSetterException;
-			} else {
-				SepReflectionHelper.invokeSetter(setter, record,
-						cellStringOrDate);
-				return;
-			}
-		}
-
-		// ok, we got a string
-		String cellText = (String) cellStringOrDate;
-
-		// try to find a string-type setter first
-		Method stringSetter = SepReflectionHelper.findSetterByPropNameAndType(
-				recordClass, propName, String.class);
-		if (stringSetter != null) {
-			SepReflectionHelper.invokeSetter(stringSetter, record, cellText);
-			return;
-		}
-
-		// no string-type setter? do a guess!
-
-		for (Method setter : setters) {
-			Class<?> propClass = setter.getParameterTypes()[0];
-			if (SepBasicTypeConverts.canFromThisString(cellText, propClass)) {
-				Object propValue = SepBasicTypeConverts.fromThisString(
-						cellText, propClass);
-				SepReflectionHelper.invokeSetter(setter, record, propValue);
-				return;
-			}
+		CellErrorReason reason = RowMappingPlan.ColumnBinding.forProperty(
+				recordClass, propName).bind(record, cellStringOrDate);
+		if (reason != null) {
+			throw RowMappingPlan.noSuitableSetter(propName, cellStringOrDate);
 		}
-
-		throw noSetterException;
 	}
 
 	static <T> T createRecordInstance(Class<T> recordClass) {
@@ -442,6 +2190,20 @@ public class Ssio {
 	 * 
 	 */
 	static Object readCellAsStringOrDate(Cell cell) {
+		return toStringOrDate(readCellAsTypedValue(cell));
+	}
+
+	/**
+	 * read the cell the same way as {@link #readCellAsStringOrDate(Cell)},
+	 * except that a numeric cell is read as a Double, so that it can be set
+	 * to a numeric property without formatting and parsing.
+	 * 
+	 * @param cell
+	 *            the cell to read
+	 * @return the date if it is a date cell, the double if it is a numeric
+	 *         cell, or else the string value (will be trimmed to null)
+	 */
+	static Object readCellAsTypedValue(Cell cell) {
 		if (cell == null) {
 			return null;
 		}
@@ -466,8 +2228,7 @@ public class Ssio {
 			if (DateUtil.isCellDateFormatted(cell)) {
 				return cell.getDateCellValue();
 			} else {
-				double v = cell.getNumericCellValue();
-				return String.valueOf(v);
+				return cell.getNumericCellValue();
 			}
 		}
 
@@ -479,44 +2240,25 @@ public class Ssio {
 
 	}
 
-	private static <T> T parseDataRow(Map<Short, ColumnMeta> columnMetaMap,
-			Row row, int rowIndex, Class<T> recordClass,
-			List<CellError> cellErrors) {
-		T record = createRecordInstance(recordClass);
-
-		for (short columnIndex = 0; columnIndex < row.getLastCellNum(); columnIndex++) {
-			ColumnMeta columnMeta = columnMetaMap.get(columnIndex);
-			if (columnMeta == null || columnMeta.propName == null) {
-				continue;
-			}
-			String propName = columnMeta.propName;
-			Cell cell = row.getCell(columnIndex);
-			Object cellStringOrDate = readCellAsStringOrDate(cell);
-			try {
-				setPropertyWithCellValue(recordClass, record, propName,
-						cellStringOrDate);
-			} catch (Exception e) {
-				if (cellErrors != null) {
-					CellError ce = new CellError();
-					ce.setColumnIndex(columnIndex);
-					ce.setHeaderText(columnMeta.headerText);
-					ce.setPropName(propName);
-					ce.setRowIndex(rowIndex);
-					ce.setCause(e);
-					cellErrors.add(ce);
-				}
-			}
+	/**
+	 * turn a value read by {@link #readCellAsTypedValue(Cell)} into what
+	 * {@link #readCellAsStringOrDate(Cell)} returns, i.e. a number will be
+	 * formatted as a double
+	 */
+	static Object toStringOrDate(Object cellValue) {
+		if (cellValue instanceof Number) {
+			return String.valueOf(((Number) cellValue).doubleValue());
 		}
-
-		return record;
+		return cellValue;
 	}
 
 	/**
-	 * meta info about a column
+	 * meta info about a column. The same header layout leads to equal maps
+	 * of column metas, so they can be used as cache keys.
 	 * 
 	 * 
 	 */
-	private static class ColumnMeta {
+	static class ColumnMeta {
 		public String propName;
 		public String headerText;
 
@@ -525,19 +2267,70 @@ public class Ssio {
 			return ToStringBuilder.reflectionToString(this,
 					ToStringStyle.SHORT_PREFIX_STYLE);
 		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof ColumnMeta)) {
+				return false;
+			}
+			ColumnMeta that = (ColumnMeta) obj;
+			return StringUtils.equals(propName, that.propName)
+					&& StringUtils.equals(headerText, that.headerText);
+		}
+
+		@Override
+		public int hashCode() {
+			return (propName == null ? 0 : propName.hashCode()) * 31
+					+ (headerText == null ? 0 : headerText.hashCode());
+		}
+	}
+
+	/**
+	 * a row reader which also closes something else, e.g. the workbook, when
+	 * being closed
+	 */
+	private static class ClosingSheetRowReader implements SheetRowReader {
+		private final SheetRowReader reader;
+		private final Closeable alsoToClose;
+
+		public ClosingSheetRowReader(SheetRowReader reader,
+				Closeable alsoToClose) {
+			this.reader = reader;
+			this.alsoToClose = alsoToClose;
+		}
+
+		public RawRow nextRow() {
+			return reader.nextRow();
+		}
+
+		public String getSheetName() {
+			return reader.getSheetName();
+		}
+
+		public void close() throws IOException {
+			try {
+				reader.close();
+			} finally {
+				alsoToClose.close();
+			}
+		}
 	}
 
 	/**
-	 * to get <columnIndex, column info>
+	 * to get <columnIndex, column info> from the first row, which should be
+	 * the header row. It will be empty if there is no header row.
 	 */
 	private static Map<Short, ColumnMeta> parseHeader(
-			Map<String, String> reverseHeaderMap, Row row) {
+			Map<String, String> reverseHeaderMap, SheetRowReader reader) {
 		Map<Short, ColumnMeta> columnMetaMap = new LinkedHashMap<Short, ColumnMeta>();
 
-		// note that row.getLastCellNum() is one-based
-		for (short columnIndex = 0; columnIndex < row.getLastCellNum(); columnIndex++) {
-			Cell cell = row.getCell(columnIndex);
-			Object headerObj = readCellAsStringOrDate(cell);
+		RawRow row = reader.nextRow();
+		if (row == null || row.getRowIndex() != 0) {
+			return columnMetaMap;
+		}
+
+		for (short columnIndex = 0; columnIndex < row.getCellCount(); columnIndex++) {
+			Object headerObj = toStringOrDate(row.getCellValue(columnIndex));
 			String headerText = headerObj == null ? "" : headerObj.toString();
 			if (headerText == null) {
 				continue;
@@ -556,14 +2349,8 @@ public class Ssio {
 	}
 
 	private static Row createHeaders(Map<String, String> headerMap,
-			Sheet sheet) {
-		CellStyle style = sheet.getWorkbook().createCellStyle();
-		style.setFillForegroundColor(IndexedColors.YELLOW.getIndex());
-		style.setFillPattern(CellStyle.SOLID_FOREGROUND);
-		style.setBorderBottom(HSSFCellStyle.BORDER_THIN);
-		style.setBorderTop(HSSFCellStyle.BORDER_THIN);
-		style.setBorderRight(HSSFCellStyle.BORDER_THIN);
-		style.setBorderLeft(HSSFCellStyle.BORDER_THIN);
+			Sheet sheet, CellStyleRegistry styles, ColumnWidthEstimator widths) {
+		CellStyle style = styles.getHeaderStyle();
 
 		Row header = sheet.createRow(0);
 		int columnIndex = 0;
@@ -572,59 +2359,180 @@ public class Ssio {
 			Cell cell = createCell(header, columnIndex);
 			cell.setCellValue(headerText);
 			cell.setCellStyle(style);
-			sheet.autoSizeColumn(columnIndex);
+			if (widths != null) {
+				widths.sample(columnIndex, headerText);
+			}
 			columnIndex++;
 		}
 
 		return header;
 	}
 
-	private static <T> Row createRow(Map<String, String> headerMap,
-			T record, int recordIndex, Sheet sheet, int rowIndex,
-			String datumErrPlaceholder, List<DatumError> datumErrors) {
+	private static Row createRow(String[] propNames, RecordCells cells,
+			int recordIndex, Sheet sheet, int rowIndex,
+			List<DatumError> datumErrors, CellStyle[] columnStyles,
+			CellStyleRegistry styles, ColumnWidthEstimator widths) {
 		Row row = sheet.createRow(rowIndex);
-		int columnIndex = 0;
+		addDatumErrors(propNames, cells, recordIndex, datumErrors);
 
-		for (Map.Entry<String, String> entry : headerMap.entrySet()) {
-			boolean datumErr = false;
-			String propName = entry.getKey();
-			Object propValue = null;
-			try {
-				propValue = SepReflectionHelper.getProperty(record, propName);
-			} catch (Exception e) {
-				if (datumErrors != null) {
-					DatumError de = new DatumError();
-					de.setPropName(propName);
-					de.setRecordIndex(recordIndex);
-					de.setCause(e);
-					datumErrors.add(de);
-				}
-				datumErr = true;
-				propValue = datumErrPlaceholder;
-			}
-			String propValueText = (propValue == null ? null : propValue
-					.toString());
+		for (int columnIndex = 0; columnIndex < propNames.length; columnIndex++) {
+			Exception datumErr = cells.errors[columnIndex];
+			Object cellValue = cells.values[columnIndex];
 			Cell cell = createCell(row, columnIndex);
-			cell.setCellValue(StringUtils.defaultString(propValueText));
-
-			if (datumErr) {
-				CellStyle errStyle = sheet.getWorkbook().createCellStyle();
-				errStyle.setFillForegroundColor(IndexedColors.RED.getIndex());
-				errStyle.setFillPattern(CellStyle.SOLID_FOREGROUND);
-				cell.setCellStyle(errStyle);
+			if (cellValue instanceof Double) {
+				cell.setCellValue((Double) cellValue);
+			} else if (cellValue instanceof Boolean) {
+				cell.setCellValue((Boolean) cellValue);
+			} else if (cellValue instanceof Date) {
+				cell.setCellValue((Date) cellValue);
+			} else if (cellValue != null) {
+				cell.setCellValue((String) cellValue);
+			}
+			if (widths != null) {
+				widths.sample(columnIndex, cells.texts[columnIndex]);
 			}
 
-			columnIndex++;
+			if (datumErr != null) {
+				cell.setCellStyle(styles.getDatumErrorStyle());
+			} else if (cellValue instanceof Date) {
+				// a date cell needs a date format, even in a styled column
+				cell.setCellStyle(columnStyles[columnIndex] == null ? styles
+						.getDateStyle() : styles
+						.getDateStyle(columnStyles[columnIndex]));
+			} else if (columnStyles[columnIndex] != null) {
+				cell.setCellStyle(columnStyles[columnIndex]);
+			}
 		}
 
 		return row;
 	}
 
+	/**
+	 * the max whole number which a double can hold exactly
+	 */
+	private static final long MAX_EXACT_DOUBLE_LONG = 1L << 53;
+
+	/**
+	 * convert a property value to a value of a typed cell. Numbers which can't
+	 * be held by a double exactly, and values of other types, are kept as
+	 * strings.
+	 * 
+	 * @return a Double, a Boolean, a Date, a String, or null if the property
+	 *         value is null
+	 */
+	static Object toTypedCellValue(Object propValue) {
+		if (propValue == null) {
+			return null;
+		}
+		if (propValue instanceof Boolean) {
+			return propValue;
+		}
+		if (propValue instanceof Date) {
+			return propValue;
+		}
+		if (propValue instanceof Calendar) {
+			return ((Calendar) propValue).getTime();
+		}
+		if (propValue instanceof Double) {
+			Double d = (Double) propValue;
+			return d.isNaN() || d.isInfinite() ? d.toString() : d;
+		}
+		if (propValue instanceof Float) {
+			Float f = (Float) propValue;
+			// keep it as it's displayed, e.g. 1.02f => 1.02 instead of
+			// 1.0199999809265137
+			return f.isNaN() || f.isInfinite() ? f.toString() : (Object) Double
+					.valueOf(f.toString());
+		}
+		if (propValue instanceof Integer || propValue instanceof Short
+				|| propValue instanceof Byte) {
+			return ((Number) propValue).doubleValue();
+		}
+		if (propValue instanceof Long) {
+			long l = (Long) propValue;
+			return Math.abs(l) <= MAX_EXACT_DOUBLE_LONG ? (Object) (double) l
+					: propValue.toString();
+		}
+		if (propValue instanceof BigInteger) {
+			BigInteger bi = (BigInteger) propValue;
+			return bi.bitLength() <= 53 ? (Object) bi.doubleValue() : bi
+					.toString();
+		}
+		if (propValue instanceof BigDecimal) {
+			BigDecimal bd = (BigDecimal) propValue;
+			double d = bd.doubleValue();
+			boolean exact = !Double.isInfinite(d)
+					&& BigDecimal.valueOf(d).compareTo(bd) == 0;
+			return exact ? (Object) d : bd.toString();
+		}
+		return propValue.toString();
+	}
+
 	private static Cell createCell(Row row, int columnIndex) {
 		Cell cell = row.createCell(columnIndex);
 		return cell;
 	}
 
+	/**
+	 * the columns whose strings should be moved to the shared strings table.
+	 * Only needed in streaming mode.
+	 */
+	private static Set<Integer> getSharedStringsColumnIndexes(
+			Map<String, String> headerMap, SaveOptions saveOptions) {
+		if (!saveOptions.isStreaming()) {
+			return new HashSet<Integer>();
+		}
+		return getColumnIndexes(headerMap, saveOptions.getSharedStringsColumns());
+	}
+
+	/**
+	 * the 0-based indexes of the columns of some properties
+	 */
+	private static Set<Integer> getColumnIndexes(Map<String, String> headerMap,
+			Set<String> propNames) {
+		Set<Integer> columnIndexes = new HashSet<Integer>();
+		int columnIndex = 0;
+		for (String propName : headerMap.keySet()) {
+			if (propNames.contains(propName)) {
+				columnIndexes.add(columnIndex);
+			}
+			columnIndex++;
+		}
+		return columnIndexes;
+	}
+
+	/**
+	 * write the workbook to a temp file first, and then zip it again to the
+	 * output stream, moving the strings of some columns to the shared strings
+	 * table on the way. Poi always zips with the default level, so it's also
+	 * how another compression level is applied.
+	 */
+	private static void writeWorkbookRezipped(Workbook workbook,
+			OutputStream outputStream, Set<Integer> columnIndexes,
+			int compressionLevel) {
+		File tempFile = null;
+		InputStream in = null;
+		try {
+			tempFile = File.createTempFile("sep4j-save", ".xlsx");
+			OutputStream out = new FileOutputStream(tempFile);
+			try {
+				workbook.write(out);
+			} finally {
+				IOUtils.closeQuietly(out);
+			}
+			in = new FileInputStream(tempFile);
+			SharedStringsRewriter.rewrite(in, outputStream, columnIndexes,
+					compressionLevel);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		} finally {
+			IOUtils.closeQuietly(in);
+			if (tempFile != null) {
+				tempFile.delete();
+			}
+		}
+	}
+
 	private static void writeWorkbook(Workbook workbook,
 			OutputStream outputStream) {
 		try {
@@ -634,6 +2542,361 @@ public class Ssio {
 		}
 	}
 
+	/**
+	 * open a row reader of the first sheet
+	 * 
+	 * @return null if there are no sheets
+	 */
+	private static SheetRowReader openFirstSheet(WorkbookSheets sheets) {
+		if (sheets.getNumberOfSheets() <= 0) {
+			IOUtils.closeQuietly(sheets);
+			return null;
+		}
+		return new ClosingSheetRowReader(sheets.openSheet(0), sheets);
+	}
+
+	private static WorkbookSheets openWorkbookSheets(InputStream inputStream,
+			ParseOptions parseOptions) throws InvalidFormatException {
+		if (inputStream == null) {
+			throw new IllegalArgumentException(
+					"the inputStream can not be null");
+		}
+		if (!inputStream.markSupported()) {
+			inputStream = new PushbackInputStream(inputStream, 8);
+		}
+
+		if (parseOptions.isStreaming() && isOoxml(inputStream)) {
+			return new WorkbookSheets(openXlsxStreamingWorkbook(inputStream));
+		}
+		if (parseOptions.isStreaming() && isOle2(inputStream)) {
+			return openOle2WorkbookSheets(inputStream, parseOptions);
+		}
+		return new WorkbookSheets(toWorkbook(inputStream));
+	}
+
+	/**
+	 * the zip or the ole2 file system is read with random access, without
+	 * copying the file
+	 */
+	private static WorkbookSheets openWorkbookSheets(File file,
+			ParseOptions parseOptions) throws InvalidFormatException {
+		if (file == null) {
+			throw new IllegalArgumentException("the file can not be null");
+		}
+		try {
+			InputStream in = new PushbackInputStream(new FileInputStream(file),
+					8);
+			boolean ooxml;
+			boolean ole2;
+			try {
+				ooxml = POIXMLDocument.hasOOXMLHeader(in);
+				ole2 = !ooxml && NPOIFSFileSystem.hasPOIFSHeader(in);
+			} finally {
+				in.close();
+			}
+
+			if (ooxml && parseOptions.isStreaming()) {
+				return new WorkbookSheets(
+						XlsxStreamingWorkbook.open(new ZipFilePartSource(
+								file, false)));
+			}
+			if (ooxml) {
+				final OPCPackage pkg = OPCPackage.open(file.getPath(),
+						PackageAccess.READ);
+				Closeable closingPkg = () -> pkg.revert();
+				return new WorkbookSheets(createXssfWorkbook(pkg, closingPkg),
+						closingPkg);
+			}
+			if (ole2) {
+				NPOIFSFileSystem fs = new NPOIFSFileSystem(file, true);
+				return openOle2WorkbookSheets(fs, fs, parseOptions);
+			}
+		} catch (ZipException e) {
+			throw new InvalidFormatException(e.getMessage());
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+		throw new InvalidFormatException(
+				"The file is neither an OLE2 file, nor an OOXML file");
+	}
+
+	/**
+	 * the zip is read with random access in streaming mode. An ole2 file is
+	 * read with random access if the channel is a file channel, otherwise the
+	 * channel is read as a stream
+	 * 
+	 * @param closeChannel
+	 *            should the channel be closed with the sheets?
+	 */
+	private static WorkbookSheets openWorkbookSheets(
+			SeekableByteChannel channel, boolean closeChannel,
+			ParseOptions parseOptions) throws InvalidFormatException {
+		if (channel == null) {
+			throw new IllegalArgumentException("the channel can not be null");
+		}
+		boolean ok = false;
+		try {
+			InputStream in = new PushbackInputStream(
+					Channels.newInputStream(channel.position(0)), 8);
+			boolean ooxml = POIXMLDocument.hasOOXMLHeader(in);
+			boolean ole2 = !ooxml && NPOIFSFileSystem.hasPOIFSHeader(in);
+			channel.position(0);
+
+			WorkbookSheets sheets;
+			if (ooxml && parseOptions.isStreaming()) {
+				sheets = new WorkbookSheets(
+						XlsxStreamingWorkbook.open(new ChannelPartSource(
+								channel, closeChannel)));
+			} else if (ole2 && channel instanceof FileChannel) {
+				NPOIFSFileSystem fs = new NPOIFSFileSystem(
+						(FileChannel) channel);
+				// the file system only holds the channel
+				Closeable resources = closeChannel ? fs : null;
+				sheets = openOle2WorkbookSheets(fs, resources, parseOptions);
+			} else if (ole2 && parseOptions.isStreaming()) {
+				sheets = openOle2WorkbookSheets(new CloseShieldInputStream(
+						Channels.newInputStream(channel)), parseOptions);
+				if (closeChannel) {
+					channel.close();
+				}
+			} else {
+				// the workbook is loaded as a whole, so the channel is done
+				sheets = new WorkbookSheets(
+						toWorkbook(new CloseShieldInputStream(
+								Channels.newInputStream(channel))));
+				if (closeChannel) {
+					channel.close();
+				}
+			}
+			ok = true;
+			return sheets;
+		} catch (ZipException e) {
+			throw new InvalidFormatException(e.getMessage());
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		} finally {
+			if (!ok && closeChannel) {
+				IOUtils.closeQuietly(channel);
+			}
+		}
+	}
+
+	private static WorkbookSheets openWorkbookSheets(Path path,
+			ParseOptions parseOptions) throws InvalidFormatException {
+		if (path == null) {
+			throw new IllegalArgumentException("the path can not be null");
+		}
+		if (path.getFileSystem() == FileSystems.getDefault()) {
+			return openWorkbookSheets(path.toFile(), parseOptions);
+		}
+		try {
+			return openWorkbookSheets(Files.newByteChannel(path), true,
+					parseOptions);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * @param resources
+	 *            to be closed if it fails
+	 */
+	private static Workbook createXssfWorkbook(OPCPackage pkg,
+			Closeable resources) throws IOException {
+		boolean ok = false;
+		try {
+			Workbook workbook = new XSSFWorkbook(pkg);
+			ok = true;
+			return workbook;
+		} finally {
+			if (!ok) {
+				IOUtils.closeQuietly(resources);
+			}
+		}
+	}
+
+	/**
+	 * @param resources
+	 *            to be closed if it fails. It can be null
+	 */
+	private static Workbook createHssfWorkbook(NPOIFSFileSystem fs,
+			Closeable resources) throws IOException {
+		boolean ok = false;
+		try {
+			Workbook workbook = new HSSFWorkbook(fs.getRoot(), true);
+			ok = true;
+			return workbook;
+		} finally {
+			if (!ok && resources != null) {
+				IOUtils.closeQuietly(resources);
+			}
+		}
+	}
+
+	/**
+	 * in streaming mode the sheets are read record by record, unless the
+	 * workbook can't be read that way, e.g. it's encrypted
+	 * 
+	 * @param resources
+	 *            to be closed with the sheets, or if it fails. It can be null
+	 */
+	private static WorkbookSheets openOle2WorkbookSheets(NPOIFSFileSystem fs,
+			Closeable resources, ParseOptions parseOptions) throws IOException {
+		if (parseOptions.isStreaming()) {
+			XlsStreamingWorkbook workbook = XlsStreamingWorkbook.open(fs,
+					resources);
+			if (workbook != null) {
+				return new WorkbookSheets(workbook);
+			}
+		}
+		return new WorkbookSheets(createHssfWorkbook(fs, resources),
+				resources);
+	}
+
+	/**
+	 * the ole2 file system needs random access, so the stream is copied to a
+	 * temp file first. The file will be deleted when the sheets are closed.
+	 */
+	private static WorkbookSheets openOle2WorkbookSheets(
+			InputStream inputStream, ParseOptions parseOptions) {
+		try {
+			final File tempFile = File.createTempFile("sep4j-parse", ".xls");
+			try {
+				OutputStream out = new FileOutputStream(tempFile);
+				try {
+					IOUtils.copy(inputStream, out);
+				} finally {
+					out.close();
+				}
+				final NPOIFSFileSystem fs = new NPOIFSFileSystem(tempFile,
+						true);
+				Closeable resources = () -> {
+					try {
+						fs.close();
+					} finally {
+						tempFile.delete();
+					}
+				};
+				return openOle2WorkbookSheets(fs, resources, parseOptions);
+			} catch (IOException e) {
+				tempFile.delete();
+				throw e;
+			} catch (RuntimeException e) {
+				tempFile.delete();
+				throw e;
+			}
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * opens the sheets of a spreadsheet source
+	 */
+	private interface SheetsOpener {
+		WorkbookSheets open(ParseOptions parseOptions)
+				throws InvalidFormatException;
+	}
+
+	/**
+	 * the sheets of either a streaming workbook or a poi workbook. Different
+	 * sheets can be read at the same time.
+	 */
+	private static class WorkbookSheets implements Closeable {
+		private final StreamingWorkbook streamingWorkbook;
+		private final Workbook workbook;
+
+		/**
+		 * what the poi workbook is read from, e.g. a zip file. It can be null
+		 */
+		private final Closeable resources;
+
+		WorkbookSheets(StreamingWorkbook streamingWorkbook) {
+			this.streamingWorkbook = streamingWorkbook;
+			this.workbook = null;
+			this.resources = streamingWorkbook;
+		}
+
+		WorkbookSheets(Workbook workbook) {
+			this(workbook, null);
+		}
+
+		WorkbookSheets(Workbook workbook, Closeable resources) {
+			this.streamingWorkbook = null;
+			this.workbook = workbook;
+			this.resources = resources;
+		}
+
+		int getNumberOfSheets() {
+			return streamingWorkbook != null ? streamingWorkbook
+					.getNumberOfSheets() : workbook.getNumberOfSheets();
+		}
+
+		String getSheetName(int sheetIndex) {
+			return streamingWorkbook != null ? streamingWorkbook
+					.getSheetName(sheetIndex) : workbook
+					.getSheetName(sheetIndex);
+		}
+
+		SheetRowReader openSheet(int sheetIndex) {
+			return streamingWorkbook != null ? streamingWorkbook
+					.openSheet(sheetIndex) : new WorkbookSheetRowReader(
+					workbook.getSheetAt(sheetIndex));
+		}
+
+		public void close() throws IOException {
+			if (resources != null) {
+				resources.close();
+			}
+		}
+	}
+
+	private static boolean isOoxml(InputStream inputStream) {
+		try {
+			return POIXMLDocument.hasOOXMLHeader(inputStream);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private static boolean isOle2(InputStream inputStream) {
+		try {
+			return NPOIFSFileSystem.hasPOIFSHeader(inputStream);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * the zip needs random access, so the stream is copied to a temp file
+	 * first. The file will be deleted when the workbook is closed.
+	 */
+	private static XlsxStreamingWorkbook openXlsxStreamingWorkbook(
+			InputStream inputStream) throws InvalidFormatException {
+		XlsxPartSource partSource = null;
+		try {
+			File tempFile = File.createTempFile("sep4j-parse", ".xlsx");
+			try {
+				OutputStream out = new FileOutputStream(tempFile);
+				try {
+					IOUtils.copy(inputStream, out);
+				} finally {
+					out.close();
+				}
+				partSource = new ZipFilePartSource(tempFile, true);
+			} catch (ZipException e) {
+				tempFile.delete();
+				throw new InvalidFormatException(e.getMessage());
+			} catch (IOException e) {
+				tempFile.delete();
+				throw e;
+			}
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+		return XlsxStreamingWorkbook.open(partSource);
+	}
+
 	private static Workbook toWorkbook(InputStream inputStream)
 			throws InvalidFormatException {
 		try {
@@ -0,0 +1,22 @@
+package org.sep4j;
+
+import java.io.Closeable;
+
+/**
+ * a workbook whose sheets are read row by row, without being loaded as a
+ * whole. Different sheets can be read at the same time.
+ *
+ * @author chenjianjx
+ */
+interface StreamingWorkbook extends Closeable {
+
+	int getNumberOfSheets();
+
+	String getSheetName(int sheetIndex);
+
+	/**
+	 * open a reader of the sheet
+	 */
+	SheetRowReader openSheet(int sheetIndex);
+
+}
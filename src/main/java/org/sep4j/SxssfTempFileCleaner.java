@@ -0,0 +1,83 @@
+package org.sep4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.streaming.SheetDataWriter;
+
+/**
+ * deletes the temp files which a streaming poi workbook flushes its rows to.
+ *
+ * Poi 3.8 has no way to dispose a streaming workbook; its temp files are only
+ * deleted when the jvm exits, so every streaming save would leave a file as
+ * big as a sheet on the disk of a long-running server. The files are found
+ * with the package-private accessors of poi.
+ *
+ * @author chenjianjx
+ */
+class SxssfTempFileCleaner {
+
+	private static final Method GET_SHEET_DATA_WRITER = findMethod(
+			SXSSFSheet.class, "getSheetDataWriter");
+
+	private static final Method GET_TEMP_FILE = findMethod(
+			SheetDataWriter.class, "getTempFile");
+
+	private SxssfTempFileCleaner() {
+	}
+
+	/**
+	 * close the temp files of the sheets and delete them. It should be called
+	 * after the workbook is written or discarded.
+	 */
+	static void clean(SXSSFWorkbook workbook) {
+		if (GET_SHEET_DATA_WRITER == null || GET_TEMP_FILE == null) {
+			return;
+		}
+		for (int i = 0; i < workbook.getNumberOfSheets(); i++) {
+			Sheet sheet = workbook.getSheetAt(i);
+			try {
+				SheetDataWriter writer = (SheetDataWriter) GET_SHEET_DATA_WRITER
+						.invoke(sheet);
+				if (writer == null) {
+					continue;
+				}
+				closeQuietly(writer);
+				File tempFile = (File) GET_TEMP_FILE.invoke(writer);
+				if (tempFile != null) {
+					tempFile.delete();
+				}
+			} catch (ReflectiveOperationException e) {
+				// leave the file to be deleted when the jvm exits
+			}
+		}
+	}
+
+	/**
+	 * the writer is already closed if the workbook has been written
+	 */
+	private static void closeQuietly(SheetDataWriter writer) {
+		try {
+			writer.close();
+		} catch (IOException e) {
+			// already closed
+		}
+	}
+
+	private static Method findMethod(Class<?> clazz, String name) {
+		try {
+			Method method = clazz.getDeclaredMethod(name);
+			method.setAccessible(true);
+			return method;
+		} catch (NoSuchMethodException e) {
+			return null;
+		} catch (SecurityException e) {
+			return null;
+		}
+	}
+
+}
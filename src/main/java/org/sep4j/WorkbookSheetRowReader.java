@@ -0,0 +1,54 @@
+package org.sep4j;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+
+/**
+ * reads rows from a sheet of an in-memory workbook
+ * 
+ * @author chenjianjx
+ */
+class WorkbookSheetRowReader implements SheetRowReader {
+
+	private final Sheet sheet;
+
+	private int nextRowIndex = 0;
+
+	WorkbookSheetRowReader(Sheet sheet) {
+		this.sheet = sheet;
+	}
+
+	public RawRow nextRow() {
+		while (nextRowIndex <= sheet.getLastRowNum()) {
+			int rowIndex = nextRowIndex++;
+			Row row = sheet.getRow(rowIndex);
+			if (row == null) {
+				continue;
+			}
+			return toRawRow(row, rowIndex);
+		}
+		return null;
+	}
+
+	private RawRow toRawRow(Row row, int rowIndex) {
+		// note that row.getLastCellNum() is one-based, and it is -1 if the row
+		// has no cells
+		int cellCount = Math.max(row.getLastCellNum(), 0);
+		Object[] cellValues = new Object[cellCount];
+		for (int columnIndex = 0; columnIndex < cellCount; columnIndex++) {
+			Cell cell = row.getCell(columnIndex);
+			cellValues[columnIndex] = Ssio.readCellAsTypedValue(cell);
+		}
+		return new RawRow(rowIndex, cellValues);
+	}
+
+	public String getSheetName() {
+		return sheet.getSheetName();
+	}
+
+	public void close() {
+		// nothing to release
+	}
+
+}
@@ -0,0 +1,211 @@
+package org.sep4j;
+
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.StringUtils;
+import org.apache.poi.hssf.record.BOFRecord;
+import org.apache.poi.hssf.record.BoolErrRecord;
+import org.apache.poi.hssf.record.CellValueRecordInterface;
+import org.apache.poi.hssf.record.EOFRecord;
+import org.apache.poi.hssf.record.LabelRecord;
+import org.apache.poi.hssf.record.LabelSSTRecord;
+import org.apache.poi.hssf.record.MulBlankRecord;
+import org.apache.poi.hssf.record.MulRKRecord;
+import org.apache.poi.hssf.record.NumberRecord;
+import org.apache.poi.hssf.record.RKRecord;
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.hssf.record.RecordFactoryInputStream;
+import org.apache.poi.hssf.record.RowRecord;
+import org.apache.poi.ss.usermodel.DateUtil;
+
+/**
+ * reads the rows of an xls sheet as a stream of biff8 records. The cell
+ * values are the same as those read from a poi workbook.
+ *
+ * The row records of a block of at most 32 rows come before the cells of
+ * these rows, so only the rows of the current block are kept in memory. A row
+ * which has a row record but no cells is read as an empty row, the same as
+ * a poi workbook does.
+ *
+ * @author chenjianjx
+ */
+class XlsStreamingSheetRowReader implements SheetRowReader {
+
+	private final XlsStreamingWorkbook workbook;
+
+	private final String sheetName;
+
+	private final RecordFactoryInputStream records;
+
+	private final InputStream in;
+
+	/**
+	 * the sheet itself is depth 1. Charts embedded in the sheet are deeper
+	 */
+	private int depth;
+
+	private boolean ended;
+
+	/**
+	 * the indexes of the rows which have row records but haven't been read
+	 */
+	private final Deque<Integer> declaredRowIndexes = new ArrayDeque<Integer>();
+
+	/**
+	 * rows which have been read but not returned yet
+	 */
+	private final Deque<RawRow> readyRows = new ArrayDeque<RawRow>();
+
+	/**
+	 * the row whose cells are being read. -1 means none
+	 */
+	private int currentRowIndex = -1;
+
+	/**
+	 * reused for every row
+	 */
+	private final List<Object> cellValues = new ArrayList<Object>();
+
+	XlsStreamingSheetRowReader(XlsStreamingWorkbook workbook,
+			String sheetName, RecordFactoryInputStream records, InputStream in) {
+		this.workbook = workbook;
+		this.sheetName = sheetName;
+		this.records = records;
+		this.in = in;
+	}
+
+	public RawRow nextRow() {
+		while (readyRows.isEmpty() && !ended) {
+			readRecord();
+		}
+		return readyRows.poll();
+	}
+
+	private void readRecord() {
+		Record record = records.nextRecord();
+		if (record == null) {
+			endSheet();
+			return;
+		}
+		if (record instanceof BOFRecord) {
+			depth++;
+			return;
+		}
+		if (record instanceof EOFRecord) {
+			depth--;
+			if (depth <= 0) {
+				endSheet();
+			}
+			return;
+		}
+		if (depth != 1) {
+			return;
+		}
+
+		if (record instanceof RowRecord) {
+			declaredRowIndexes.add(((RowRecord) record).getRowNumber());
+		} else if (record instanceof MulRKRecord) {
+			MulRKRecord mrk = (MulRKRecord) record;
+			for (int i = 0; i < mrk.getNumColumns(); i++) {
+				setCell(mrk.getRow(), mrk.getFirstColumn() + i,
+						toNumberOrDate(mrk.getRKNumberAt(i), mrk.getXFAt(i)));
+			}
+		} else if (record instanceof MulBlankRecord) {
+			MulBlankRecord mb = (MulBlankRecord) record;
+			setCell(mb.getRow(), mb.getLastColumn(), null);
+		} else if (record instanceof CellValueRecordInterface) {
+			CellValueRecordInterface cell = (CellValueRecordInterface) record;
+			setCell(cell.getRow(), cell.getColumn(), readCell(cell));
+		}
+	}
+
+	/**
+	 * read the cell the same way as
+	 * {@link Ssio#readCellAsTypedValue(org.apache.poi.ss.usermodel.Cell)}
+	 * does
+	 */
+	private Object readCell(CellValueRecordInterface cell) {
+		if (cell instanceof NumberRecord) {
+			return toNumberOrDate(((NumberRecord) cell).getValue(),
+					cell.getXFIndex());
+		}
+		if (cell instanceof RKRecord) {
+			return toNumberOrDate(((RKRecord) cell).getRKNumber(),
+					cell.getXFIndex());
+		}
+		if (cell instanceof LabelSSTRecord) {
+			return workbook.getSharedString(((LabelSSTRecord) cell)
+					.getSSTIndex());
+		}
+		if (cell instanceof LabelRecord) {
+			return StringUtils.trimToNull(((LabelRecord) cell).getValue());
+		}
+		if (cell instanceof BoolErrRecord) {
+			BoolErrRecord be = (BoolErrRecord) cell;
+			return be.isBoolean() ? String.valueOf(be.getBooleanValue())
+					: null;
+		}
+		// blanks and formulas
+		return null;
+	}
+
+	private Object toNumberOrDate(double d, int xfIndex) {
+		if (workbook.isDateStyle(xfIndex) && DateUtil.isValidExcelDate(d)) {
+			return DateUtil.getJavaDate(d, workbook.isDate1904());
+		}
+		return d;
+	}
+
+	private void setCell(int rowIndex, int columnIndex, Object value) {
+		if (rowIndex != currentRowIndex) {
+			finishCurrentRow();
+			// the rows without cells before this one
+			while (!declaredRowIndexes.isEmpty()
+					&& declaredRowIndexes.peek() < rowIndex) {
+				readyRows.add(new RawRow(declaredRowIndexes.poll(),
+						new Object[0]));
+			}
+			if (!declaredRowIndexes.isEmpty()
+					&& declaredRowIndexes.peek() == rowIndex) {
+				declaredRowIndexes.poll();
+			}
+			currentRowIndex = rowIndex;
+		}
+		while (cellValues.size() <= columnIndex) {
+			cellValues.add(null);
+		}
+		if (value != null) {
+			cellValues.set(columnIndex, value);
+		}
+	}
+
+	private void finishCurrentRow() {
+		if (currentRowIndex >= 0) {
+			readyRows.add(new RawRow(currentRowIndex, cellValues.toArray()));
+			cellValues.clear();
+			currentRowIndex = -1;
+		}
+	}
+
+	private void endSheet() {
+		finishCurrentRow();
+		while (!declaredRowIndexes.isEmpty()) {
+			readyRows.add(new RawRow(declaredRowIndexes.poll(), new Object[0]));
+		}
+		ended = true;
+	}
+
+	public String getSheetName() {
+		return sheetName;
+	}
+
+	public void close() {
+		IOUtils.closeQuietly(in);
+	}
+
+}
@@ -0,0 +1,303 @@
+package org.sep4j;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.StringUtils;
+import org.apache.poi.hssf.record.BoundSheetRecord;
+import org.apache.poi.hssf.record.DateWindow1904Record;
+import org.apache.poi.hssf.record.EOFRecord;
+import org.apache.poi.hssf.record.ExtendedFormatRecord;
+import org.apache.poi.hssf.record.FilePassRecord;
+import org.apache.poi.hssf.record.FormatRecord;
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.hssf.record.RecordFactoryInputStream;
+import org.apache.poi.hssf.record.SSTRecord;
+import org.apache.poi.poifs.filesystem.DirectoryNode;
+import org.apache.poi.poifs.filesystem.NPOIFSFileSystem;
+import org.apache.poi.ss.usermodel.BuiltinFormats;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.util.LittleEndianInputStream;
+
+/**
+ * an xls workbook read as a stream of biff8 records, instead of being loaded
+ * as a poi workbook. Only the sheet names, the shared strings and the date
+ * styles are kept in memory; the sheets are read row by row with
+ * {@link #openSheet(int)}.
+ *
+ * @author chenjianjx
+ */
+class XlsStreamingWorkbook implements StreamingWorkbook {
+
+	private static final String[] WORKBOOK_ENTRY_NAMES = { "Workbook",
+			"WORKBOOK" };
+
+	private static final int BUFFER_SIZE = 8192;
+
+	private final NPOIFSFileSystem fs;
+
+	private final String workbookEntryName;
+
+	/**
+	 * what the file system is read from. It can be null
+	 */
+	private final Closeable resources;
+
+	private final List<String> sheetNames = new ArrayList<String>();
+
+	/**
+	 * where the records of the sheets start in the workbook stream
+	 */
+	private final List<Integer> sheetOffsets = new ArrayList<Integer>();
+
+	private SSTRecord sst;
+
+	/**
+	 * index = xf index, value = whether it is a date format
+	 */
+	private boolean[] dateStyles = new boolean[0];
+
+	private boolean date1904;
+
+	private XlsStreamingWorkbook(NPOIFSFileSystem fs,
+			String workbookEntryName, Closeable resources) {
+		this.fs = fs;
+		this.workbookEntryName = workbookEntryName;
+		this.resources = resources;
+	}
+
+	/**
+	 * read the sheet names, the shared strings and the styles. The resources
+	 * will be closed if it fails.
+	 *
+	 * @param resources
+	 *            to be closed with the workbook. It can be null
+	 * @return null if the workbook can't be read as a stream, e.g. it's
+	 *         encrypted or it's not a biff8 workbook at all. Then it should be
+	 *         loaded as a poi workbook, which will either read it or tell
+	 *         what's wrong.
+	 */
+	static XlsStreamingWorkbook open(NPOIFSFileSystem fs, Closeable resources) {
+		boolean ok = false;
+		try {
+			String entryName = findWorkbookEntryName(fs.getRoot());
+			XlsStreamingWorkbook workbook = null;
+			if (entryName != null) {
+				workbook = new XlsStreamingWorkbook(fs, entryName, resources);
+				if (workbook.isEncrypted()) {
+					workbook = null;
+				} else {
+					workbook.readGlobals();
+				}
+			}
+			ok = true;
+			return workbook;
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		} finally {
+			if (!ok && resources != null) {
+				IOUtils.closeQuietly(resources);
+			}
+		}
+	}
+
+	private static String findWorkbookEntryName(DirectoryNode root) {
+		for (String name : WORKBOOK_ENTRY_NAMES) {
+			if (root.hasEntry(name)) {
+				return name;
+			}
+		}
+		return null;
+	}
+
+	public int getNumberOfSheets() {
+		return sheetNames.size();
+	}
+
+	public String getSheetName(int sheetIndex) {
+		return sheetNames.get(sheetIndex);
+	}
+
+	public XlsStreamingSheetRowReader openSheet(int sheetIndex) {
+		InputStream in = openWorkbookStream();
+		boolean ok = false;
+		try {
+			IOUtils.skipFully(in, sheetOffsets.get(sheetIndex));
+			XlsStreamingSheetRowReader reader = new XlsStreamingSheetRowReader(
+					this, getSheetName(sheetIndex),
+					new RecordFactoryInputStream(in, false), in);
+			ok = true;
+			return reader;
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		} finally {
+			if (!ok) {
+				IOUtils.closeQuietly(in);
+			}
+		}
+	}
+
+	/**
+	 * already trimmed to null, the same as what a string cell reads
+	 */
+	String getSharedString(int index) {
+		return sst == null ? null : StringUtils.trimToNull(sst.getString(index)
+				.getString());
+	}
+
+	boolean isDateStyle(int xfIndex) {
+		return xfIndex >= 0 && xfIndex < dateStyles.length
+				&& dateStyles[xfIndex];
+	}
+
+	boolean isDate1904() {
+		return date1904;
+	}
+
+	public void close() throws IOException {
+		if (resources != null) {
+			resources.close();
+		}
+	}
+
+	/**
+	 * the records of an encrypted workbook can only be decrypted from the
+	 * start of the stream, so its sheets can't be read separately
+	 */
+	private boolean isEncrypted() throws IOException {
+		LittleEndianInputStream in = new LittleEndianInputStream(
+				openWorkbookStream());
+		try {
+			// the file pass record, if any, is right after the bof record and
+			// an optional write protect record
+			for (int i = 0; i < 3 && in.available() >= 4; i++) {
+				int sid = in.readUShort();
+				int size = in.readUShort();
+				if (sid == FilePassRecord.sid) {
+					return true;
+				}
+				IOUtils.skipFully(in, size);
+			}
+			return false;
+		} finally {
+			IOUtils.closeQuietly(in);
+		}
+	}
+
+	/**
+	 * read the records of the workbook globals, i.e. those before the first
+	 * sheet
+	 */
+	private void readGlobals() {
+		InputStream in = openWorkbookStream();
+		try {
+			RecordFactoryInputStream records = new RecordFactoryInputStream(
+					in, false);
+			Map<Integer, String> customFormats = new HashMap<Integer, String>();
+			List<Short> xfFormatIndexes = new ArrayList<Short>();
+			for (Record record; (record = records.nextRecord()) != null;) {
+				if (record instanceof EOFRecord) {
+					break;
+				}
+				if (record instanceof BoundSheetRecord) {
+					BoundSheetRecord bsr = (BoundSheetRecord) record;
+					sheetNames.add(bsr.getSheetname());
+					sheetOffsets.add(bsr.getPositionOfBof());
+				} else if (record instanceof SSTRecord) {
+					sst = (SSTRecord) record;
+				} else if (record instanceof FormatRecord) {
+					FormatRecord fr = (FormatRecord) record;
+					customFormats.put(fr.getIndexCode(), fr.getFormatString());
+				} else if (record instanceof ExtendedFormatRecord) {
+					xfFormatIndexes.add(((ExtendedFormatRecord) record)
+							.getFormatIndex());
+				} else if (record instanceof DateWindow1904Record) {
+					date1904 = ((DateWindow1904Record) record).getWindowing() == 1;
+				}
+			}
+
+			dateStyles = new boolean[xfFormatIndexes.size()];
+			for (int i = 0; i < dateStyles.length; i++) {
+				int formatIndex = xfFormatIndexes.get(i);
+				String format = customFormats.get(formatIndex);
+				if (format == null) {
+					format = BuiltinFormats.getBuiltinFormat(formatIndex);
+				}
+				dateStyles[i] = DateUtil.isADateFormat(formatIndex, format);
+			}
+		} finally {
+			IOUtils.closeQuietly(in);
+		}
+	}
+
+	/**
+	 * the file system can't be read by multiple threads at the same time, so
+	 * the reads of the sheets are serialized, a buffer at a time
+	 */
+	private InputStream openWorkbookStream() {
+		synchronized (fs) {
+			try {
+				return new BufferedInputStream(new LockedInputStream(fs
+						.getRoot().createDocumentInputStream(workbookEntryName),
+						fs), BUFFER_SIZE);
+			} catch (IOException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+
+	private static class LockedInputStream extends InputStream {
+
+		private final InputStream in;
+
+		private final Object lock;
+
+		LockedInputStream(InputStream in, Object lock) {
+			this.in = in;
+			this.lock = lock;
+		}
+
+		@Override
+		public int read() throws IOException {
+			synchronized (lock) {
+				return in.read();
+			}
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			synchronized (lock) {
+				return in.read(b, off, len);
+			}
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			synchronized (lock) {
+				return in.skip(n);
+			}
+		}
+
+		@Override
+		public int available() throws IOException {
+			synchronized (lock) {
+				return in.available();
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			synchronized (lock) {
+				in.close();
+			}
+		}
+	}
+
+}
@@ -0,0 +1,495 @@
+package org.sep4j;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.poi.ss.usermodel.BuiltinFormats;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellReference;
+
+/**
+ * writes an xlsx package directly from the cell values of the records, as
+ * the xml text of the parts and the entries of the zip. No poi workbook, row
+ * or cell is created, so it's much faster than poi for plain tabular data.
+ *
+ * Only the built-in styles are supported: the default header style, the
+ * default datum error style and the date style. The sheets roll over like
+ * those of a poi workbook, and the strings of some columns can be shared.
+ *
+ * @author chenjianjx
+ */
+class XlsxDirectWriter {
+
+	private static final String SPREADSHEETML_NS = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+
+	private static final String RELATIONSHIPS_NS = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+
+	private static final String PACKAGE_RELATIONSHIPS_NS = "http://schemas.openxmlformats.org/package/2006/relationships";
+
+	private static final String XML_DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n";
+
+	/**
+	 * the indexes of the cell formats in the styles part
+	 */
+	private static final int HEADER_XF = 1;
+	private static final int DATUM_ERROR_XF = 2;
+	private static final int DATE_XF = 3;
+
+	/**
+	 * the first id of the custom number formats
+	 */
+	private static final int FIRST_CUSTOM_FORMAT_ID = 164;
+
+	private final ZipOutputStream zout;
+
+	private final Writer writer;
+
+	private final String[] headerTexts;
+
+	private final SaveOptions saveOptions;
+
+	/**
+	 * the letters of the columns, e.g. "AB"
+	 */
+	private final String[] columnNames;
+
+	/**
+	 * index = columnIndex, value = whether its strings should be shared
+	 */
+	private final boolean[] sharedStringsColumns;
+
+	/**
+	 * key = the string, value = its index in the shared strings table
+	 */
+	private final Map<String, Integer> sharedStrings = new LinkedHashMap<String, Integer>();
+
+	private int sharedStringsCount;
+
+	/**
+	 * null if the columns are not auto-sized
+	 */
+	private final ColumnWidthEstimator widths;
+
+	/**
+	 * the rows sampled for the column widths, which can only be written when
+	 * the widths are known
+	 */
+	private final List<RecordCells> pendingRows = new ArrayList<RecordCells>();
+
+	private int recordCount;
+
+	private int sheetCount;
+
+	/**
+	 * the 1-based number of the last row written to the current sheet. 0
+	 * means no sheet is open
+	 */
+	private int rowNum;
+
+	private boolean entryOpen;
+
+	/**
+	 * @param out
+	 *            it's not closed by this class
+	 * @param sharedStringsColumnIndexes
+	 *            the 0-based indexes of the columns whose strings should be
+	 *            shared
+	 */
+	XlsxDirectWriter(OutputStream out, String[] headerTexts,
+			SaveOptions saveOptions, Set<Integer> sharedStringsColumnIndexes) {
+		this.zout = new ZipOutputStream(out);
+		this.zout.setLevel(saveOptions.getCompressionLevel());
+		this.writer = new BufferedWriter(new OutputStreamWriter(zout,
+				StandardCharsets.UTF_8));
+		this.headerTexts = headerTexts;
+		this.saveOptions = saveOptions;
+		this.columnNames = new String[headerTexts.length];
+		this.sharedStringsColumns = new boolean[headerTexts.length];
+		for (int columnIndex = 0; columnIndex < headerTexts.length; columnIndex++) {
+			columnNames[columnIndex] = CellReference
+					.convertNumToColString(columnIndex);
+			sharedStringsColumns[columnIndex] = sharedStringsColumnIndexes
+					.contains(columnIndex);
+		}
+		if (saveOptions.isAutoWidth()) {
+			widths = new ColumnWidthEstimator(headerTexts.length,
+					saveOptions.getAutoWidthSampleRows());
+			for (int columnIndex = 0; columnIndex < headerTexts.length; columnIndex++) {
+				widths.sample(columnIndex, headerTexts[columnIndex]);
+			}
+		} else {
+			widths = null;
+		}
+	}
+
+	void writeRow(RecordCells cells) throws IOException {
+		int recordIndex = recordCount++;
+		if (widths != null && widths.isSampling(recordIndex)) {
+			for (int columnIndex = 0; columnIndex < headerTexts.length; columnIndex++) {
+				widths.sample(columnIndex, cells.texts[columnIndex]);
+			}
+			pendingRows.add(cells);
+			return;
+		}
+		flushPendingRows();
+		doWriteRow(cells);
+	}
+
+	/**
+	 * write the rest of the package. The output stream is not closed
+	 */
+	void finish() throws IOException {
+		flushPendingRows();
+		if (sheetCount == 0) {
+			startSheet();
+		}
+		endSheet();
+
+		putEntry("[Content_Types].xml");
+		writeContentTypes();
+		putEntry("_rels/.rels");
+		writer.write(XML_DECLARATION);
+		writer.write("<Relationships xmlns=\"" + PACKAGE_RELATIONSHIPS_NS
+				+ "\"><Relationship Id=\"rId1\" Type=\"" + RELATIONSHIPS_NS
+				+ "/officeDocument\" Target=\"xl/workbook.xml\"/></Relationships>");
+		putEntry("xl/workbook.xml");
+		writeWorkbook();
+		putEntry("xl/_rels/workbook.xml.rels");
+		writeWorkbookRelationships();
+		putEntry("xl/styles.xml");
+		writeStyles();
+		if (!sharedStrings.isEmpty()) {
+			putEntry("xl/sharedStrings.xml");
+			writeSharedStrings();
+		}
+		writer.flush();
+		zout.closeEntry();
+		zout.finish();
+	}
+
+	private void flushPendingRows() throws IOException {
+		if (pendingRows.isEmpty()) {
+			return;
+		}
+		for (RecordCells cells : pendingRows) {
+			doWriteRow(cells);
+		}
+		pendingRows.clear();
+	}
+
+	private void doWriteRow(RecordCells cells) throws IOException {
+		if (rowNum == saveOptions.getMaxRowsPerSheet()) {
+			// roll over to a new sheet
+			endSheet();
+		}
+		if (rowNum == 0) {
+			startSheet();
+		}
+		rowNum++;
+		writer.write("<row r=\"");
+		writer.write(Integer.toString(rowNum));
+		writer.write("\">");
+		for (int columnIndex = 0; columnIndex < headerTexts.length; columnIndex++) {
+			Object value = cells.values[columnIndex];
+			if (value == null) {
+				// a blank cell still shows the datum error, as poi does
+				if (cells.errors[columnIndex] != null) {
+					writeBlankCell(columnIndex, DATUM_ERROR_XF);
+				}
+				continue;
+			}
+			int xf = cells.errors[columnIndex] != null ? DATUM_ERROR_XF
+					: value instanceof Date ? DATE_XF : 0;
+			if (value instanceof Double) {
+				startCell(columnIndex, xf, null);
+				writer.write("<v>");
+				writer.write(Double.toString((Double) value));
+				writer.write("</v></c>");
+			} else if (value instanceof Boolean) {
+				startCell(columnIndex, xf, "b");
+				writer.write((Boolean) value ? "<v>1</v></c>" : "<v>0</v></c>");
+			} else if (value instanceof Date) {
+				startCell(columnIndex, xf, null);
+				writer.write("<v>");
+				writer.write(Double.toString(DateUtil.getExcelDate((Date) value)));
+				writer.write("</v></c>");
+			} else if (sharedStringsColumns[columnIndex]) {
+				startCell(columnIndex, xf, "s");
+				writer.write("<v>");
+				writer.write(Integer.toString(shareString((String) value)));
+				writer.write("</v></c>");
+			} else {
+				writeInlineStringCell(columnIndex, xf, (String) value);
+			}
+		}
+		writer.write("</row>");
+	}
+
+	private void startSheet() throws IOException {
+		sheetCount++;
+		putEntry("xl/worksheets/sheet" + sheetCount + ".xml");
+		writer.write(XML_DECLARATION);
+		writer.write("<worksheet xmlns=\"" + SPREADSHEETML_NS + "\">");
+		if (widths != null) {
+			writer.write("<cols>");
+			for (int columnIndex = 0; columnIndex < headerTexts.length; columnIndex++) {
+				String column = Integer.toString(columnIndex + 1);
+				writer.write("<col min=\"" + column + "\" max=\"" + column
+						+ "\" width=\"" + widths.getWidth(columnIndex) / 256.0
+						+ "\" customWidth=\"true\"/>");
+			}
+			writer.write("</cols>");
+		}
+		writer.write("<sheetData><row r=\"1\">");
+		for (int columnIndex = 0; columnIndex < headerTexts.length; columnIndex++) {
+			writeInlineStringCell(columnIndex, HEADER_XF,
+					StringUtils.defaultString(headerTexts[columnIndex]));
+		}
+		writer.write("</row>");
+		rowNum = 1;
+	}
+
+	private void endSheet() throws IOException {
+		writer.write("</sheetData></worksheet>");
+		rowNum = 0;
+	}
+
+	private void startCell(int columnIndex, int xf, String type)
+			throws IOException {
+		writer.write("<c r=\"");
+		writer.write(columnNames[columnIndex]);
+		writer.write(Integer.toString(rowNum));
+		writer.write('"');
+		if (xf != 0) {
+			writer.write(" s=\"");
+			writer.write(Integer.toString(xf));
+			writer.write('"');
+		}
+		if (type != null) {
+			writer.write(" t=\"");
+			writer.write(type);
+			writer.write('"');
+		}
+		writer.write('>');
+	}
+
+	private void writeBlankCell(int columnIndex, int xf) throws IOException {
+		writer.write("<c r=\"");
+		writer.write(columnNames[columnIndex]);
+		writer.write(Integer.toString(rowNum));
+		writer.write("\" s=\"");
+		writer.write(Integer.toString(xf));
+		writer.write("\"/>");
+	}
+
+	private void writeInlineStringCell(int columnIndex, int xf, String text)
+			throws IOException {
+		startCell(columnIndex, xf, "inlineStr");
+		writer.write("<is>");
+		writeText(text);
+		writer.write("</is></c>");
+	}
+
+	/**
+	 * write a {@code <t>} element
+	 */
+	private void writeText(String text) throws IOException {
+		if (text.length() > 0
+				&& (Character.isWhitespace(text.charAt(0)) || Character
+						.isWhitespace(text.charAt(text.length() - 1)))) {
+			writer.write("<t xml:space=\"preserve\">");
+		} else {
+			writer.write("<t>");
+		}
+		writeEscaped(text);
+		writer.write("</t>");
+	}
+
+	/**
+	 * escape the xml markups, for both texts and attributes. The chars which are not allowed in xml, and
+	 * the underscores which could be taken as the start of such an escape,
+	 * are escaped as "_xHHHH_"
+	 */
+	private void writeEscaped(String text) throws IOException {
+		int start = 0;
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			String replacement;
+			if (c == '<') {
+				replacement = "&lt;";
+			} else if (c == '>') {
+				replacement = "&gt;";
+			} else if (c == '&') {
+				replacement = "&amp;";
+			} else if (c == '"') {
+				replacement = "&quot;";
+			} else if (c < 0x20 && c != '\t' && c != '\n' && c != '\r'
+					|| c == 0xFFFE || c == 0xFFFF) {
+				replacement = "_x" + hex4(c) + "_";
+			} else if (c == '_' && looksLikeEscape(text, i)) {
+				replacement = "_x005F_";
+			} else {
+				continue;
+			}
+			writer.write(text, start, i - start);
+			writer.write(replacement);
+			start = i + 1;
+		}
+		writer.write(text, start, text.length() - start);
+	}
+
+	private static boolean looksLikeEscape(String text, int i) {
+		if (i + 6 >= text.length() || text.charAt(i + 1) != 'x'
+				|| text.charAt(i + 6) != '_') {
+			return false;
+		}
+		for (int j = i + 2; j < i + 6; j++) {
+			if (Character.digit(text.charAt(j), 16) < 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static String hex4(char c) {
+		String hex = Integer.toHexString(c).toUpperCase();
+		return StringUtils.leftPad(hex, 4, '0');
+	}
+
+	private int shareString(String s) {
+		sharedStringsCount++;
+		Integer index = sharedStrings.get(s);
+		if (index == null) {
+			index = sharedStrings.size();
+			sharedStrings.put(s, index);
+		}
+		return index;
+	}
+
+	private void putEntry(String name) throws IOException {
+		if (entryOpen) {
+			writer.flush();
+			zout.closeEntry();
+		}
+		zout.putNextEntry(new ZipEntry(name));
+		entryOpen = true;
+	}
+
+	private void writeContentTypes() throws IOException {
+		String prefix = "application/vnd.openxmlformats-officedocument.spreadsheetml.";
+		writer.write(XML_DECLARATION);
+		writer.write("<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">");
+		writer.write("<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>");
+		writer.write("<Default Extension=\"xml\" ContentType=\"application/xml\"/>");
+		writer.write("<Override PartName=\"/xl/workbook.xml\" ContentType=\""
+				+ prefix + "sheet.main+xml\"/>");
+		for (int i = 1; i <= sheetCount; i++) {
+			writer.write("<Override PartName=\"/xl/worksheets/sheet" + i
+					+ ".xml\" ContentType=\"" + prefix + "worksheet+xml\"/>");
+		}
+		writer.write("<Override PartName=\"/xl/styles.xml\" ContentType=\""
+				+ prefix + "styles+xml\"/>");
+		if (!sharedStrings.isEmpty()) {
+			writer.write("<Override PartName=\"/xl/sharedStrings.xml\" ContentType=\""
+					+ prefix + "sharedStrings+xml\"/>");
+		}
+		writer.write("</Types>");
+	}
+
+	/**
+	 * the sheets are named the same way as those created by poi
+	 */
+	private void writeWorkbook() throws IOException {
+		writer.write(XML_DECLARATION);
+		writer.write("<workbook xmlns=\"" + SPREADSHEETML_NS
+				+ "\" xmlns:r=\"" + RELATIONSHIPS_NS + "\">");
+		writer.write("<bookViews><workbookView activeTab=\"0\"/></bookViews><sheets>");
+		for (int i = 1; i <= sheetCount; i++) {
+			writer.write("<sheet name=\"Sheet" + (i - 1) + "\" sheetId=\"" + i
+					+ "\" r:id=\"rId" + i + "\"/>");
+		}
+		writer.write("</sheets></workbook>");
+	}
+
+	private void writeWorkbookRelationships() throws IOException {
+		writer.write(XML_DECLARATION);
+		writer.write("<Relationships xmlns=\"" + PACKAGE_RELATIONSHIPS_NS
+				+ "\">");
+		for (int i = 1; i <= sheetCount; i++) {
+			writer.write("<Relationship Id=\"rId" + i + "\" Type=\""
+					+ RELATIONSHIPS_NS + "/worksheet\" Target=\"worksheets/sheet"
+					+ i + ".xml\"/>");
+		}
+		writer.write("<Relationship Id=\"rId" + (sheetCount + 1)
+				+ "\" Type=\"" + RELATIONSHIPS_NS
+				+ "/styles\" Target=\"styles.xml\"/>");
+		if (!sharedStrings.isEmpty()) {
+			writer.write("<Relationship Id=\"rId" + (sheetCount + 2)
+					+ "\" Type=\"" + RELATIONSHIPS_NS
+					+ "/sharedStrings\" Target=\"sharedStrings.xml\"/>");
+		}
+		writer.write("</Relationships>");
+	}
+
+	/**
+	 * the same styles as the default ones of {@link CellStyleRegistry}: a
+	 * yellow header with thin borders, red datum errors, and dates in the
+	 * date format of the save options
+	 */
+	private void writeStyles() throws IOException {
+		String dateFormat = saveOptions.getDateFormat();
+		int dateFormatId = BuiltinFormats.getBuiltinFormat(dateFormat);
+		writer.write(XML_DECLARATION);
+		writer.write("<styleSheet xmlns=\"" + SPREADSHEETML_NS + "\">");
+		if (dateFormatId < 0) {
+			dateFormatId = FIRST_CUSTOM_FORMAT_ID;
+			writer.write("<numFmts count=\"1\"><numFmt numFmtId=\""
+					+ dateFormatId + "\" formatCode=\"");
+			writeEscaped(dateFormat);
+			writer.write("\"/></numFmts>");
+		}
+		writer.write("<fonts count=\"1\"><font><sz val=\"11.0\"/><color indexed=\"8\"/><name val=\"Calibri\"/><family val=\"2\"/><scheme val=\"minor\"/></font></fonts>");
+		writer.write("<fills count=\"4\"><fill><patternFill patternType=\"none\"/></fill><fill><patternFill patternType=\"gray125\"/></fill>");
+		writer.write("<fill><patternFill patternType=\"solid\"><fgColor indexed=\"13\"/></patternFill></fill>");
+		writer.write("<fill><patternFill patternType=\"solid\"><fgColor indexed=\"10\"/></patternFill></fill></fills>");
+		writer.write("<borders count=\"2\"><border><left/><right/><top/><bottom/><diagonal/></border>");
+		writer.write("<border><left style=\"thin\"/><right style=\"thin\"/><top style=\"thin\"/><bottom style=\"thin\"/><diagonal/></border></borders>");
+		writer.write("<cellStyleXfs count=\"1\"><xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\"/></cellStyleXfs>");
+		writer.write("<cellXfs count=\"4\">");
+		writer.write("<xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\"/>");
+		writer.write("<xf numFmtId=\"0\" fontId=\"0\" fillId=\"2\" borderId=\"1\" xfId=\"0\" applyFill=\"true\" applyBorder=\"true\"/>");
+		writer.write("<xf numFmtId=\"0\" fontId=\"0\" fillId=\"3\" borderId=\"0\" xfId=\"0\" applyFill=\"true\"/>");
+		writer.write("<xf numFmtId=\"" + dateFormatId
+				+ "\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyNumberFormat=\"true\"/>");
+		writer.write("</cellXfs>");
+		writer.write("<cellStyles count=\"1\"><cellStyle name=\"Normal\" xfId=\"0\" builtinId=\"0\"/></cellStyles>");
+		writer.write("</styleSheet>");
+	}
+
+	private void writeSharedStrings() throws IOException {
+		writer.write(XML_DECLARATION);
+		writer.write("<sst xmlns=\"" + SPREADSHEETML_NS + "\" count=\""
+				+ sharedStringsCount + "\" uniqueCount=\""
+				+ sharedStrings.size() + "\">");
+		for (String s : sharedStrings.keySet()) {
+			writer.write("<si>");
+			writeText(s);
+			writer.write("</si>");
+		}
+		writer.write("</sst>");
+	}
+
+}
@@ -0,0 +1,23 @@
+package org.sep4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * gives access to the parts (zip entries) of an xlsx package
+ * 
+ * @author chenjianjx
+ */
+interface XlsxPartSource extends Closeable {
+
+	/**
+	 * open a part for reading
+	 * 
+	 * @param partName
+	 *            the zip entry name, without leading "/"
+	 * @return null if there is no such part
+	 */
+	InputStream openPart(String partName) throws IOException;
+
+}
@@ -0,0 +1,213 @@
+package org.sep4j;
+
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.StringUtils;
+import org.apache.poi.ss.usermodel.DateUtil;
+
+/**
+ * reads the rows of an xlsx sheet with a streaming xml reader. Only the
+ * current row is kept in memory. The cell values are the same as those read
+ * from a poi workbook.
+ *
+ * @author chenjianjx
+ */
+class XlsxStreamingSheetRowReader implements SheetRowReader {
+
+	private final XlsxStreamingWorkbook workbook;
+
+	private final String sheetName;
+
+	private final XMLStreamReader reader;
+
+	private final InputStream in;
+
+	private int lastRowIndex = -1;
+
+	/**
+	 * reused for every row
+	 */
+	private final List<Object> cellValues = new ArrayList<Object>();
+
+	XlsxStreamingSheetRowReader(XlsxStreamingWorkbook workbook,
+			String sheetName, XMLStreamReader reader, InputStream in) {
+		this.workbook = workbook;
+		this.sheetName = sheetName;
+		this.reader = reader;
+		this.in = in;
+	}
+
+	public RawRow nextRow() {
+		try {
+			while (reader.hasNext()) {
+				if (reader.next() == XMLStreamConstants.START_ELEMENT
+						&& "row".equals(reader.getLocalName())) {
+					return readRow();
+				}
+			}
+			return null;
+		} catch (XMLStreamException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private RawRow readRow() throws XMLStreamException {
+		String r = reader.getAttributeValue(null, "r");
+		// the "r" attribute is optional
+		int rowIndex = r == null ? lastRowIndex + 1 : Integer.parseInt(r) - 1;
+		lastRowIndex = rowIndex;
+
+		cellValues.clear();
+		int lastColumnIndex = -1;
+		while (reader.hasNext()) {
+			int event = reader.next();
+			if (event == XMLStreamConstants.START_ELEMENT
+					&& "c".equals(reader.getLocalName())) {
+				String ref = reader.getAttributeValue(null, "r");
+				int columnIndex = ref == null ? lastColumnIndex + 1
+						: toColumnIndex(ref);
+				lastColumnIndex = columnIndex;
+				Object value = readCell();
+				while (cellValues.size() <= columnIndex) {
+					cellValues.add(null);
+				}
+				cellValues.set(columnIndex, value);
+			} else if (event == XMLStreamConstants.END_ELEMENT
+					&& "row".equals(reader.getLocalName())) {
+				break;
+			}
+		}
+		return new RawRow(rowIndex, cellValues.toArray());
+	}
+
+	/**
+	 * read the {@code <c>} element the same way as
+	 * {@link Ssio#readCellAsTypedValue(org.apache.poi.ss.usermodel.Cell)}
+	 * does, except that a number which has more digits than a double can hold
+	 * is read as a BigDecimal. The reader will be at the end of the element
+	 * afterwards.
+	 */
+	private Object readCell() throws XMLStreamException {
+		String type = reader.getAttributeValue(null, "t");
+		String styleStr = reader.getAttributeValue(null, "s");
+		boolean formula = false;
+		String v = null;
+		String inlineText = null;
+
+		while (reader.hasNext()) {
+			int event = reader.next();
+			if (event == XMLStreamConstants.START_ELEMENT) {
+				String localName = reader.getLocalName();
+				if ("f".equals(localName)) {
+					formula = true;
+					reader.getElementText();
+				} else if ("v".equals(localName)) {
+					v = reader.getElementText();
+				} else if ("is".equals(localName)) {
+					inlineText = XlsxStreamingWorkbook.readRichText(reader);
+				}
+			} else if (event == XMLStreamConstants.END_ELEMENT
+					&& "c".equals(reader.getLocalName())) {
+				break;
+			}
+		}
+
+		if (formula) {
+			return null;
+		}
+		if ("s".equals(type)) {
+			if (v == null) {
+				return null;
+			}
+			return workbook.getSharedString(Integer.parseInt(v.trim()));
+		}
+		if ("inlineStr".equals(type)) {
+			return StringUtils.trimToNull(inlineText != null ? inlineText
+					: v == null ? null : XlsxStreamingWorkbook
+							.decodeEscapedChars(v));
+		}
+		if ("str".equals(type)) {
+			return StringUtils.trimToNull(v);
+		}
+		if ("b".equals(type)) {
+			return String.valueOf("1".equals(v));
+		}
+		if ("e".equals(type) || "d".equals(type)) {
+			return null;
+		}
+
+		// numeric
+		if (v == null) {
+			return null;
+		}
+		double d = Double.parseDouble(v);
+		int styleIndex = styleStr == null ? 0 : Integer.parseInt(styleStr);
+		if (workbook.isDateStyle(styleIndex) && DateUtil.isValidExcelDate(d)) {
+			return DateUtil.getJavaDate(d, workbook.isDate1904());
+		}
+		if (countSignificantDigits(v) > MAX_DOUBLE_DIGITS) {
+			return new BigDecimal(v.trim());
+		}
+		return d;
+	}
+
+	/**
+	 * a double can hold a decimal of up to 15 digits exactly
+	 */
+	private static final int MAX_DOUBLE_DIGITS = 15;
+
+	/**
+	 * the digits of the number, without the leading zeros and the exponent
+	 */
+	static int countSignificantDigits(String number) {
+		int count = 0;
+		for (int i = 0; i < number.length(); i++) {
+			char c = number.charAt(i);
+			if (c == 'e' || c == 'E') {
+				break;
+			}
+			if (c >= '1' && c <= '9' || c == '0' && count > 0) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * "AB12" => 27
+	 */
+	static int toColumnIndex(String cellRef) {
+		int column = 0;
+		for (int i = 0; i < cellRef.length(); i++) {
+			char c = cellRef.charAt(i);
+			if (c < 'A' || c > 'Z') {
+				break;
+			}
+			column = column * 26 + (c - 'A' + 1);
+		}
+		return column - 1;
+	}
+
+	public String getSheetName() {
+		return sheetName;
+	}
+
+	public void close() {
+		try {
+			reader.close();
+		} catch (XMLStreamException e) {
+			// ignore
+		} finally {
+			IOUtils.closeQuietly(in);
+		}
+	}
+
+}
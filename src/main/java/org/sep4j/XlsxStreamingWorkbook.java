@@ -0,0 +1,420 @@
+package org.sep4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.StringUtils;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.ss.usermodel.BuiltinFormats;
+import org.apache.poi.ss.usermodel.DateUtil;
+
+/**
+ * an xlsx workbook read as streams. Unlike a poi workbook, it doesn't build
+ * the DOM of the sheets. Only the workbook structure, the shared strings and
+ * the date styles are kept in memory; the sheets are read row by row with
+ * {@link #openSheet(int)}.
+ *
+ * @author chenjianjx
+ */
+class XlsxStreamingWorkbook implements StreamingWorkbook {
+
+	private static final XMLInputFactory XML_INPUT_FACTORY = createXmlInputFactory();
+
+	private final XlsxPartSource partSource;
+
+	private final List<String> sheetNames = new ArrayList<String>();
+
+	private final List<String> sheetPartNames = new ArrayList<String>();
+
+	/**
+	 * already trimmed to null, the same as what a string cell reads
+	 */
+	private final List<String> sharedStrings = new ArrayList<String>();
+
+	/**
+	 * index = cell style index, value = whether it is a date format
+	 */
+	private boolean[] dateStyles = new boolean[0];
+
+	private boolean date1904;
+
+	private XlsxStreamingWorkbook(XlsxPartSource partSource) {
+		this.partSource = partSource;
+	}
+
+	/**
+	 * read the workbook structure, the shared strings and the styles. The
+	 * part source will be closed if it fails.
+	 *
+	 * @throws InvalidFormatException
+	 *             if it's not a valid xlsx package
+	 */
+	static XlsxStreamingWorkbook open(XlsxPartSource partSource)
+			throws InvalidFormatException {
+		XlsxStreamingWorkbook workbook = new XlsxStreamingWorkbook(partSource);
+		boolean ok = false;
+		try {
+			workbook.readPackage();
+			ok = true;
+			return workbook;
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		} catch (XMLStreamException e) {
+			throw new InvalidFormatException(e.getMessage());
+		} finally {
+			if (!ok) {
+				IOUtils.closeQuietly(workbook);
+			}
+		}
+	}
+
+	public int getNumberOfSheets() {
+		return sheetPartNames.size();
+	}
+
+	public String getSheetName(int sheetIndex) {
+		return sheetNames.get(sheetIndex);
+	}
+
+	/**
+	 * open a reader of the sheet. Different sheets can be read at the same
+	 * time.
+	 */
+	public XlsxStreamingSheetRowReader openSheet(int sheetIndex) {
+		String partName = sheetPartNames.get(sheetIndex);
+		try {
+			InputStream in = partSource.openPart(partName);
+			if (in == null) {
+				throw new IllegalStateException("No sheet part found: "
+						+ partName);
+			}
+			return new XlsxStreamingSheetRowReader(this,
+					getSheetName(sheetIndex), XML_INPUT_FACTORY.createXMLStreamReader(in), in);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		} catch (XMLStreamException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	String getSharedString(int index) {
+		return sharedStrings.get(index);
+	}
+
+	boolean isDateStyle(int styleIndex) {
+		return styleIndex >= 0 && styleIndex < dateStyles.length
+				&& dateStyles[styleIndex];
+	}
+
+	boolean isDate1904() {
+		return date1904;
+	}
+
+	public void close() throws IOException {
+		partSource.close();
+	}
+
+	private void readPackage() throws IOException, XMLStreamException,
+			InvalidFormatException {
+		Map<String, String> rootRels = readRelationships("");
+		String workbookPartName = findTargetByType(rootRels, "/officeDocument");
+		if (workbookPartName == null) {
+			throw new InvalidFormatException(
+					"No workbook found in the package");
+		}
+
+		Map<String, String> workbookRels = readRelationships(workbookPartName);
+		readWorkbookPart(workbookPartName, workbookRels);
+
+		String sharedStringsPartName = findTargetByType(workbookRels,
+				"/sharedStrings");
+		if (sharedStringsPartName != null) {
+			readSharedStrings(sharedStringsPartName);
+		}
+		String stylesPartName = findTargetByType(workbookRels, "/styles");
+		if (stylesPartName != null) {
+			readStyles(stylesPartName);
+		}
+	}
+
+	/**
+	 * @return key = "type:id", value = the resolved target part name
+	 */
+	private Map<String, String> readRelationships(String sourcePartName)
+			throws IOException, XMLStreamException {
+		String baseDir = sourcePartName.contains("/") ? StringUtils
+				.substringBeforeLast(sourcePartName, "/") + "/" : "";
+		String relsPartName = baseDir + "_rels/"
+				+ StringUtils.substringAfterLast("/" + sourcePartName, "/")
+				+ ".rels";
+
+		Map<String, String> rels = new LinkedHashMap<String, String>();
+		InputStream in = partSource.openPart(relsPartName);
+		if (in == null) {
+			return rels;
+		}
+		XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(in);
+		try {
+			while (reader.hasNext()) {
+				if (reader.next() == XMLStreamConstants.START_ELEMENT
+						&& "Relationship".equals(reader.getLocalName())) {
+					String type = reader.getAttributeValue(null, "Type");
+					String id = reader.getAttributeValue(null, "Id");
+					String target = reader.getAttributeValue(null, "Target");
+					if ("External".equals(reader.getAttributeValue(null,
+							"TargetMode"))) {
+						continue;
+					}
+					rels.put(type + ":" + id, resolvePartName(baseDir, target));
+				}
+			}
+		} finally {
+			reader.close();
+			IOUtils.closeQuietly(in);
+		}
+		return rels;
+	}
+
+	/**
+	 * the relationship types are matched by suffix, because the strict ooxml
+	 * format uses another namespace from the transitional one.
+	 */
+	private static String findTargetByType(Map<String, String> rels,
+			String typeSuffix) {
+		for (Map.Entry<String, String> entry : rels.entrySet()) {
+			String type = StringUtils.substringBeforeLast(entry.getKey(), ":");
+			if (type.endsWith(typeSuffix)) {
+				return entry.getValue();
+			}
+		}
+		return null;
+	}
+
+	private void readWorkbookPart(String workbookPartName,
+			Map<String, String> workbookRels) throws IOException,
+			XMLStreamException {
+		Map<String, String> targetsById = new HashMap<String, String>();
+		for (Map.Entry<String, String> entry : workbookRels.entrySet()) {
+			targetsById.put(
+					StringUtils.substringAfterLast(entry.getKey(), ":"),
+					entry.getValue());
+		}
+
+		InputStream in = partSource.openPart(workbookPartName);
+		if (in == null) {
+			throw new IOException("No workbook part found: "
+					+ workbookPartName);
+		}
+		XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(in);
+		try {
+			while (reader.hasNext()) {
+				if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+					continue;
+				}
+				String localName = reader.getLocalName();
+				if ("workbookPr".equals(localName)) {
+					String v = reader.getAttributeValue(null, "date1904");
+					date1904 = "1".equals(v) || "true".equals(v);
+				} else if ("sheet".equals(localName)) {
+					String relId = findAttributeByLocalName(reader, "id");
+					String partName = targetsById.get(relId);
+					if (partName == null) {
+						continue;
+					}
+					sheetNames.add(reader.getAttributeValue(null, "name"));
+					sheetPartNames.add(partName);
+				}
+			}
+		} finally {
+			reader.close();
+			IOUtils.closeQuietly(in);
+		}
+	}
+
+	private void readSharedStrings(String partName) throws IOException,
+			XMLStreamException {
+		InputStream in = partSource.openPart(partName);
+		if (in == null) {
+			return;
+		}
+		XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(in);
+		try {
+			while (reader.hasNext()) {
+				if (reader.next() == XMLStreamConstants.START_ELEMENT
+						&& "si".equals(reader.getLocalName())) {
+					sharedStrings.add(StringUtils
+							.trimToNull(readRichText(reader)));
+				}
+			}
+		} finally {
+			reader.close();
+			IOUtils.closeQuietly(in);
+		}
+	}
+
+	private void readStyles(String partName) throws IOException,
+			XMLStreamException {
+		InputStream in = partSource.openPart(partName);
+		if (in == null) {
+			return;
+		}
+		Map<Integer, String> customFormats = new HashMap<Integer, String>();
+		List<Boolean> dateStyleList = new ArrayList<Boolean>();
+		XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(in);
+		try {
+			boolean inCellXfs = false;
+			while (reader.hasNext()) {
+				int event = reader.next();
+				if (event == XMLStreamConstants.END_ELEMENT
+						&& "cellXfs".equals(reader.getLocalName())) {
+					inCellXfs = false;
+				}
+				if (event != XMLStreamConstants.START_ELEMENT) {
+					continue;
+				}
+				String localName = reader.getLocalName();
+				if ("numFmt".equals(localName)) {
+					customFormats.put(
+							Integer.valueOf(reader.getAttributeValue(null,
+									"numFmtId")),
+							reader.getAttributeValue(null, "formatCode"));
+				} else if ("cellXfs".equals(localName)) {
+					inCellXfs = true;
+				} else if ("xf".equals(localName) && inCellXfs) {
+					String numFmtIdStr = reader.getAttributeValue(null,
+							"numFmtId");
+					int numFmtId = numFmtIdStr == null ? 0 : Integer
+							.parseInt(numFmtIdStr);
+					String format = customFormats.get(numFmtId);
+					if (format == null) {
+						format = BuiltinFormats.getBuiltinFormat(numFmtId);
+					}
+					dateStyleList.add(DateUtil.isADateFormat(numFmtId, format));
+				}
+			}
+		} finally {
+			reader.close();
+			IOUtils.closeQuietly(in);
+		}
+
+		dateStyles = new boolean[dateStyleList.size()];
+		for (int i = 0; i < dateStyles.length; i++) {
+			dateStyles[i] = dateStyleList.get(i);
+		}
+	}
+
+	/**
+	 * read the text of a rich text element such as {@code <si>} or
+	 * {@code <is>}, skipping the phonetic runs. The reader should be at the
+	 * start of the element, and will be at the end of it afterwards.
+	 */
+	static String readRichText(XMLStreamReader reader)
+			throws XMLStreamException {
+		String elementName = reader.getLocalName();
+		StringBuilder text = new StringBuilder();
+		int phoneticDepth = 0;
+		while (reader.hasNext()) {
+			int event = reader.next();
+			if (event == XMLStreamConstants.START_ELEMENT) {
+				String localName = reader.getLocalName();
+				if ("rPh".equals(localName)) {
+					phoneticDepth++;
+				} else if ("t".equals(localName) && phoneticDepth == 0) {
+					text.append(reader.getElementText());
+				}
+			} else if (event == XMLStreamConstants.END_ELEMENT) {
+				String localName = reader.getLocalName();
+				if ("rPh".equals(localName)) {
+					phoneticDepth--;
+				} else if (elementName.equals(localName)) {
+					break;
+				}
+			}
+		}
+		return decodeEscapedChars(text.toString());
+	}
+
+	/**
+	 * ooxml escapes some characters as "_xHHHH_"
+	 */
+	static String decodeEscapedChars(String s) {
+		if (s.indexOf("_x") < 0) {
+			return s;
+		}
+		StringBuilder sb = new StringBuilder(s.length());
+		int i = 0;
+		while (i < s.length()) {
+			char c = s.charAt(i);
+			if (c == '_' && i + 6 < s.length() && s.charAt(i + 1) == 'x'
+					&& s.charAt(i + 6) == '_'
+					&& isHex(s.substring(i + 2, i + 6))) {
+				sb.append((char) Integer.parseInt(s.substring(i + 2, i + 6),
+						16));
+				i += 7;
+			} else {
+				sb.append(c);
+				i++;
+			}
+		}
+		return sb.toString();
+	}
+
+	private static boolean isHex(String s) {
+		for (int i = 0; i < s.length(); i++) {
+			if (Character.digit(s.charAt(i), 16) < 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static String findAttributeByLocalName(XMLStreamReader reader,
+			String localName) {
+		for (int i = 0; i < reader.getAttributeCount(); i++) {
+			if (localName.equals(reader.getAttributeLocalName(i))) {
+				return reader.getAttributeValue(i);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * resolve a relationship target to a zip entry name
+	 */
+	static String resolvePartName(String baseDir, String target) {
+		String path = target.startsWith("/") ? target.substring(1) : baseDir
+				+ target;
+		List<String> segments = new ArrayList<String>();
+		for (String segment : StringUtils.split(path, '/')) {
+			if ("..".equals(segment)) {
+				if (!segments.isEmpty()) {
+					segments.remove(segments.size() - 1);
+				}
+			} else if (!".".equals(segment)) {
+				segments.add(segment);
+			}
+		}
+		return StringUtils.join(segments, '/');
+	}
+
+	static XMLInputFactory createXmlInputFactory() {
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES,
+				false);
+		factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+		return factory;
+	}
+
+}
@@ -0,0 +1,47 @@
+package org.sep4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * reads the parts of an xlsx package on the disk. Only the central directory
+ * and the requested entries are read.
+ * 
+ * @author chenjianjx
+ */
+class ZipFilePartSource implements XlsxPartSource {
+
+	private final ZipFile zipFile;
+
+	/**
+	 * if not null, the file will be deleted on close
+	 */
+	private final File tempFile;
+
+	ZipFilePartSource(File file, boolean deleteOnClose) throws IOException {
+		this.zipFile = new ZipFile(file);
+		this.tempFile = deleteOnClose ? file : null;
+	}
+
+	public InputStream openPart(String partName) throws IOException {
+		ZipEntry entry = zipFile.getEntry(partName);
+		if (entry == null) {
+			return null;
+		}
+		return zipFile.getInputStream(entry);
+	}
+
+	public void close() throws IOException {
+		try {
+			zipFile.close();
+		} finally {
+			if (tempFile != null) {
+				tempFile.delete();
+			}
+		}
+	}
+
+}
@@ -4,8 +4,6 @@ import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * 
@@ -17,6 +15,17 @@ public class SepBasicTypeConverts {
 
 	private static final Map<Class<?>, CanFromStringTypeMeta> CanFromStringTypeMetas = new LinkedHashMap<Class<?>, CanFromStringTypeMeta>();
 	private static final Map<Class<?>, CanFromNullTypeMeta> CanFromNullTypeMetas = new LinkedHashMap<Class<?>, CanFromNullTypeMeta>();
+	private static final Map<Class<?>, CanFromNumberTypeMeta> CanFromNumberTypeMetas = new LinkedHashMap<Class<?>, CanFromNumberTypeMeta>();
+
+	/**
+	 * returned by the try-convert methods if a string cannot be converted
+	 */
+	public static final Object NOT_CONVERTIBLE = new Object() {
+		@Override
+		public String toString() {
+			return "NOT_CONVERTIBLE";
+		}
+	};
 
 	static {
 		init();
@@ -55,6 +64,22 @@ public class SepBasicTypeConverts {
 		addCanFromStringTypeMeta(new BigDecimalType());
 
 		addCanFromStringTypeMeta(new StringType());
+
+		// can from number
+		addCanFromNumberTypeMeta(new ShortType());
+		addCanFromNumberTypeMeta(new IntType());
+		addCanFromNumberTypeMeta(new LongType());
+		addCanFromNumberTypeMeta(new FloatType());
+		addCanFromNumberTypeMeta(new DoubleType());
+
+		addCanFromNumberTypeMeta(new ShortObjectType());
+		addCanFromNumberTypeMeta(new IntegerObjectType());
+		addCanFromNumberTypeMeta(new LongObjectType());
+		addCanFromNumberTypeMeta(new FloatObjectType());
+		addCanFromNumberTypeMeta(new DoubleObjectType());
+
+		addCanFromNumberTypeMeta(new BigIntegerType());
+		addCanFromNumberTypeMeta(new BigDecimalType());
 	}
 
 	private static void addCanFromStringTypeMeta(CanFromStringTypeMeta meta) {
@@ -65,6 +90,10 @@ public class SepBasicTypeConverts {
 		CanFromNullTypeMetas.put(meta.getType(), meta);
 	}
 
+	private static void addCanFromNumberTypeMeta(CanFromNumberTypeMeta meta) {
+		CanFromNumberTypeMetas.put(meta.getType(), meta);
+	}
+
 	/**
 	 * can this type take null?
 	 */
@@ -77,16 +106,7 @@ public class SepBasicTypeConverts {
 	 * can this string be parsed as that type?
 	 */
 	public static boolean canFromThisString(String str, Class<?> targetType) {
-		CanFromStringTypeMeta typeMeta = CanFromStringTypeMetas.get(targetType);
-		if (typeMeta == null) {
-			return false;
-		}
-		try {
-			typeMeta.fromThisString(str);
-			return true;
-		} catch (RuntimeException e) {
-			return false;
-		}
+		return tryFromThisString(str, targetType) != NOT_CONVERTIBLE;
 	}
 
 	/**
@@ -99,11 +119,109 @@ public class SepBasicTypeConverts {
 	 *         null is the value you are looking for.
 	 */
 	public static Object fromThisString(String str, Class<?> targetType) {
-		if (!canFromThisString(str, targetType)) {
+		Object value = tryFromThisString(str, targetType);
+		if (value == NOT_CONVERTIBLE) {
 			throw new IllegalArgumentException("Please call fromThisString(String str, targetType) first to confirm");
 		}
-		CanFromStringTypeMeta typeMeta = CanFromStringTypeMetas.get(targetType);
-		return typeMeta.fromThisString(str);
+		return value;
+	}
+
+	/**
+	 * parse from this string in a single pass. Nothing is thrown if it cannot
+	 * be parsed.
+	 * 
+	 * @param str
+	 *            the string
+	 * @param targetType
+	 *            the target type you want to convert the string to
+	 * @return {@link #NOT_CONVERTIBLE} if it cannot be parsed, or else the
+	 *         value. Note "null" doesn't mean anything wrong.
+	 */
+	public static Object tryFromThisString(String str, Class<?> targetType) {
+		StringConverter converter = getStringConverter(targetType);
+		if (converter == null) {
+			return NOT_CONVERTIBLE;
+		}
+		return converter.tryFromThisString(str);
+	}
+
+	/**
+	 * the converter for a type, which can be looked up once and used many
+	 * times
+	 * 
+	 * @return null if strings cannot be converted to this type
+	 */
+	public static StringConverter getStringConverter(Class<?> targetType) {
+		return CanFromStringTypeMetas.get(targetType);
+	}
+
+	/**
+	 * converts strings to a type
+	 */
+	public static interface StringConverter {
+
+		/**
+		 * the target type
+		 */
+		public Class<?> getType();
+
+		/**
+		 * parse from this string. Nothing is thrown if it cannot be parsed.
+		 * 
+		 * @return {@link SepBasicTypeConverts#NOT_CONVERTIBLE} if it cannot be
+		 *         parsed. Note "null" doesn't mean anything wrong. if it
+		 *         returns null, then null is the value you are looking for.
+		 */
+		public Object tryFromThisString(String str);
+	}
+
+	/**
+	 * convert a number, e.g. the value of a numeric cell, to that type
+	 * directly, without formatting it as a string first. A double whose
+	 * decimal part is zero can be converted to a whole number type.
+	 * 
+	 * @param number
+	 *            can't be null
+	 * @return {@link #NOT_CONVERTIBLE} if it cannot be converted, or else the
+	 *         value
+	 */
+	public static Object tryFromThisNumber(Number number, Class<?> targetType) {
+		NumberConverter converter = getNumberConverter(targetType);
+		if (converter == null) {
+			return NOT_CONVERTIBLE;
+		}
+		return converter.tryFromThisNumber(number);
+	}
+
+	/**
+	 * the converter for a type, which can be looked up once and used many
+	 * times
+	 * 
+	 * @return null if numbers cannot be converted to this type directly
+	 */
+	public static NumberConverter getNumberConverter(Class<?> targetType) {
+		return CanFromNumberTypeMetas.get(targetType);
+	}
+
+	/**
+	 * converts numbers to a type
+	 */
+	public static interface NumberConverter {
+
+		/**
+		 * the target type
+		 */
+		public Class<?> getType();
+
+		/**
+		 * convert this number. Nothing is thrown if it cannot be converted.
+		 * 
+		 * @param number
+		 *            can't be null
+		 * @return {@link SepBasicTypeConverts#NOT_CONVERTIBLE} if it cannot be
+		 *         converted
+		 */
+		public Object tryFromThisNumber(Number number);
 	}
 
 	private static interface BasicType {
@@ -129,80 +247,115 @@ public class SepBasicTypeConverts {
 	 * 
 	 * 
 	 */
-	private static interface CanFromStringTypeMeta extends BasicType {
+	private static interface CanFromStringTypeMeta extends BasicType, StringConverter {
+
+	}
+
+	/**
+	 * a wrapper for types that can be converted from a number directly
+	 */
+	private static interface CanFromNumberTypeMeta extends BasicType, NumberConverter {
 
-		/**
-		 * parse from this string.
-		 * 
-		 * @param str
-		 * @return Note "null" doesn't mean anything wrong. if it returns null,
-		 *         then null is the value you are looking for.
-		 * @throws RuntimeException
-		 *             If an exception is thrown, it means this string cannot be
-		 *             parsed
-		 */
-		public Object fromThisString(String str) throws RuntimeException;
 	}
 
-	private static class ShortType implements CanFromStringTypeMeta {
+	private static class ShortType implements CanFromStringTypeMeta, CanFromNumberTypeMeta {
 
 		public Class<?> getType() {
 			return short.class;
 		}
 
-		public Object fromThisString(String str) {
-			str = retainWholeIfDecimalPartZero(str);
-			return Short.parseShort(str);
+		public Object tryFromThisString(String str) {
+			Long n = tryParseWholeNumber(str, Short.MIN_VALUE, Short.MAX_VALUE);
+			return n == null ? NOT_CONVERTIBLE : (Object) n.shortValue();
+		}
+
+		public Object tryFromThisNumber(Number number) {
+			Long n = tryWholeNumber(number, Short.MIN_VALUE, Short.MAX_VALUE);
+			return n == null ? NOT_CONVERTIBLE : (Object) n.shortValue();
 		}
 
 	}
 
-	private static class IntType implements CanFromStringTypeMeta {
+	private static class IntType implements CanFromStringTypeMeta, CanFromNumberTypeMeta {
 
 		public Class<?> getType() {
 			return int.class;
 		}
 
-		public Object fromThisString(String str) {
-			str = retainWholeIfDecimalPartZero(str);
-			return Integer.parseInt(str);
+		public Object tryFromThisString(String str) {
+			Long n = tryParseWholeNumber(str, Integer.MIN_VALUE, Integer.MAX_VALUE);
+			return n == null ? NOT_CONVERTIBLE : (Object) n.intValue();
+		}
+
+		public Object tryFromThisNumber(Number number) {
+			Long n = tryWholeNumber(number, Integer.MIN_VALUE, Integer.MAX_VALUE);
+			return n == null ? NOT_CONVERTIBLE : (Object) n.intValue();
 		}
 
 	}
 
-	private static class LongType implements CanFromStringTypeMeta {
+	private static class LongType implements CanFromStringTypeMeta, CanFromNumberTypeMeta {
 
 		public Class<?> getType() {
 			return long.class;
 		}
 
-		public Object fromThisString(String str) {
-			str = retainWholeIfDecimalPartZero(str);
-			return Long.parseLong(str);
+		public Object tryFromThisString(String str) {
+			Long n = tryParseWholeNumber(str, Long.MIN_VALUE, Long.MAX_VALUE);
+			return n == null ? NOT_CONVERTIBLE : n;
+		}
+
+		public Object tryFromThisNumber(Number number) {
+			Long n = tryWholeNumber(number, Long.MIN_VALUE, Long.MAX_VALUE);
+			return n == null ? NOT_CONVERTIBLE : n;
 		}
 
 	}
 
-	private static class FloatType implements CanFromStringTypeMeta {
+	private static class FloatType implements CanFromStringTypeMeta, CanFromNumberTypeMeta {
 
 		public Class<?> getType() {
 			return float.class;
 		}
 
-		public Object fromThisString(String str) {
-			return Float.parseFloat(str);
+		public Object tryFromThisString(String str) {
+			if (!isFloatingPointNumber(str)) {
+				return NOT_CONVERTIBLE;
+			}
+			try {
+				return Float.parseFloat(str);
+			} catch (NumberFormatException e) {
+				// only for the rare hexadecimal ones
+				return NOT_CONVERTIBLE;
+			}
+		}
+
+		public Object tryFromThisNumber(Number number) {
+			return number.floatValue();
 		}
 
 	}
 
-	private static class DoubleType implements CanFromStringTypeMeta {
+	private static class DoubleType implements CanFromStringTypeMeta, CanFromNumberTypeMeta {
 
 		public Class<?> getType() {
 			return double.class;
 		}
 
-		public Object fromThisString(String str) {
-			return Double.parseDouble(str);
+		public Object tryFromThisString(String str) {
+			if (!isFloatingPointNumber(str)) {
+				return NOT_CONVERTIBLE;
+			}
+			try {
+				return Double.parseDouble(str);
+			} catch (NumberFormatException e) {
+				// only for the rare hexadecimal ones
+				return NOT_CONVERTIBLE;
+			}
+		}
+
+		public Object tryFromThisNumber(Number number) {
+			return number.doubleValue();
 		}
 
 	}
@@ -213,90 +366,87 @@ public class SepBasicTypeConverts {
 			return boolean.class;
 		}
 
-		public Object fromThisString(String str) {
+		public Object tryFromThisString(String str) {
 			if (str == null) {
-				throw new IllegalArgumentException("don't take null for primitive boolean type");
+				// don't take null for primitive boolean type
+				return NOT_CONVERTIBLE;
 			}
 
 			return Boolean.parseBoolean(str);
 		}
 	}
 
-	private static class ShortObjectType implements CanFromStringTypeMeta, CanFromNullTypeMeta {
+	private static class ShortObjectType extends ShortType implements CanFromNullTypeMeta {
 
 		public Class<?> getType() {
 			return Short.class;
 		}
 
-		public Object fromThisString(String str) {
-
+		public Object tryFromThisString(String str) {
 			if (str == null) {
 				return null;
 			}
-			str = retainWholeIfDecimalPartZero(str);
-			return Short.valueOf(str);
+			return super.tryFromThisString(str);
 		}
 
 	}
 
-	private static class IntegerObjectType implements CanFromStringTypeMeta, CanFromNullTypeMeta {
+	private static class IntegerObjectType extends IntType implements CanFromNullTypeMeta {
 
 		public Class<?> getType() {
 			return Integer.class;
 		}
 
-		public Object fromThisString(String str) {
+		public Object tryFromThisString(String str) {
 			if (str == null) {
 				return null;
 			}
-			str = retainWholeIfDecimalPartZero(str);
-			return Integer.valueOf(str);
+			return super.tryFromThisString(str);
 		}
 
 	}
 
-	private static class LongObjectType implements CanFromStringTypeMeta, CanFromNullTypeMeta {
+	private static class LongObjectType extends LongType implements CanFromNullTypeMeta {
 
 		public Class<?> getType() {
 			return Long.class;
 		}
 
-		public Object fromThisString(String str) {
+		public Object tryFromThisString(String str) {
 			if (str == null) {
 				return null;
 			}
-			str = retainWholeIfDecimalPartZero(str);
-			return Long.valueOf(str);
+			return super.tryFromThisString(str);
 		}
 
 	}
 
-	private static class FloatObjectType implements CanFromStringTypeMeta, CanFromNullTypeMeta {
+	private static class FloatObjectType extends FloatType implements CanFromNullTypeMeta {
 
 		public Class<?> getType() {
 			return Float.class;
 		}
 
-		public Object fromThisString(String str) {
+		public Object tryFromThisString(String str) {
 			if (str == null) {
 				return null;
 			}
-			return Float.valueOf(str);
+			return super.tryFromThisString(str);
 		}
 
 	}
 
-	private static class DoubleObjectType implements CanFromStringTypeMeta, CanFromNullTypeMeta {
+	private static class DoubleObjectType extends DoubleType implements CanFromNullTypeMeta {
 
 		public Class<?> getType() {
 			return Double.class;
 		}
 
-		public Object fromThisString(String str) {
+		public Object tryFromThisString(String str) {
 			if (str == null) {
 				return null;
 			}
-			return Double.valueOf(str);
+			return super.tryFromThisString(str);
 		}
 
 	}
@@ -307,7 +457,7 @@ public class SepBasicTypeConverts {
 			return Boolean.class;
 		}
 
-		public Object fromThisString(String str) {
+		public Object tryFromThisString(String str) {
 			if (str == null) {
 				return null;
 			}
@@ -316,35 +466,60 @@ public class SepBasicTypeConverts {
 
 	}
 
-	private static class BigIntegerType implements CanFromStringTypeMeta, CanFromNullTypeMeta {
+	private static class BigIntegerType implements CanFromStringTypeMeta, CanFromNullTypeMeta, CanFromNumberTypeMeta {
 
 		public Class<?> getType() {
 			return BigInteger.class;
 		}
 
-		public Object fromThisString(String str) {
+		public Object tryFromThisString(String str) {
 			if (str == null) {
 				return null;
 			}
+			if (!isDecimalNumber(str)) {
+				return NOT_CONVERTIBLE;
+			}
 			str = retainWholeIfDecimalPartZero(str);
+			if (!isPlainInteger(str)) {
+				return NOT_CONVERTIBLE;
+			}
 			return new BigInteger(str);
 		}
 
+		public Object tryFromThisNumber(Number number) {
+			if (number instanceof BigInteger) {
+				return number;
+			}
+			BigDecimal d = toBigDecimal(number);
+			if (d == null || !isWhole(d)) {
+				return NOT_CONVERTIBLE;
+			}
+			return d.toBigInteger();
+		}
+
 	}
 
-	private static class BigDecimalType implements CanFromStringTypeMeta, CanFromNullTypeMeta {
+	private static class BigDecimalType implements CanFromStringTypeMeta, CanFromNullTypeMeta, CanFromNumberTypeMeta {
 
 		public Class<?> getType() {
 			return BigDecimal.class;
 		}
 
-		public Object fromThisString(String str) {
+		public Object tryFromThisString(String str) {
 			if (str == null) {
 				return null;
 			}
+			if (!isDecimalNumber(str)) {
+				return NOT_CONVERTIBLE;
+			}
 			return new BigDecimal(str);
 		}
 
+		public Object tryFromThisNumber(Number number) {
+			BigDecimal d = toBigDecimal(number);
+			return d == null ? NOT_CONVERTIBLE : d;
+		}
+
 	}
 
 	private static class StringType implements CanFromStringTypeMeta, CanFromNullTypeMeta {
@@ -353,7 +528,7 @@ public class SepBasicTypeConverts {
 			return String.class;
 		}
 
-		public Object fromThisString(String str) {
+		public Object tryFromThisString(String str) {
 			return str;
 		}
 
@@ -366,11 +541,335 @@ public class SepBasicTypeConverts {
 
 	}
 
+	/**
+	 * the doubles beyond it may not be whole numbers as they are displayed
+	 */
+	private static final double MAX_EXACT_WHOLE_DOUBLE = 1L << 53;
+
+	/**
+	 * convert a number to a whole number if its decimal part is zero
+	 * 
+	 * @return null if it's not a whole number between min and max
+	 */
+	private static Long tryWholeNumber(Number number, long min, long max) {
+		if (number instanceof Long || number instanceof Integer || number instanceof Short || number instanceof Byte) {
+			long n = number.longValue();
+			return n < min || n > max ? null : (Long) n;
+		}
+		if (number instanceof Double || number instanceof Float) {
+			double d = number.doubleValue();
+			if (Math.abs(d) < MAX_EXACT_WHOLE_DOUBLE) {
+				if (d != Math.rint(d) || d < min || d > max) {
+					return null;
+				}
+				return (long) d;
+			}
+		}
+		// a big one. Take it as it's displayed, the same as it was a string
+		BigDecimal d = toBigDecimal(number);
+		if (d == null || !isWhole(d)) {
+			return null;
+		}
+		if (d.compareTo(BigDecimal.valueOf(min)) < 0 || d.compareTo(BigDecimal.valueOf(max)) > 0) {
+			return null;
+		}
+		return d.longValue();
+	}
+
+	/**
+	 * a double is taken as it's displayed, i.e. {@link Double#toString(double)}
+	 * 
+	 * @return null for NaN and infinities
+	 */
+	private static BigDecimal toBigDecimal(Number number) {
+		if (number instanceof BigDecimal) {
+			return (BigDecimal) number;
+		}
+		if (number instanceof BigInteger) {
+			return new BigDecimal((BigInteger) number);
+		}
+		if (number instanceof Long || number instanceof Integer || number instanceof Short || number instanceof Byte) {
+			return BigDecimal.valueOf(number.longValue());
+		}
+		double d = number.doubleValue();
+		if (Double.isNaN(d) || Double.isInfinite(d)) {
+			return null;
+		}
+		return BigDecimal.valueOf(d);
+	}
+
+	private static boolean isWhole(BigDecimal d) {
+		return d.signum() == 0 || d.scale() <= 0 || d.stripTrailingZeros().scale() <= 0;
+	}
+
+	/**
+	 * parse a whole number, which can be written as a decimal whose decimal
+	 * part is zero, or in scientific notation. e.g. "3", "3.00", "3E+2"
+	 * 
+	 * @return null if it's not a whole number between min and max
+	 */
+	private static Long tryParseWholeNumber(String str, long min, long max) {
+		if (str == null) {
+			return null;
+		}
+		int end = wholePartEnd(str);
+		if (end == NOT_WHOLE) {
+			return null;
+		}
+		if (end == NOT_PLAIN) {
+			// scientific notation, or not a number at all
+			if (!isDecimalNumber(str)) {
+				return null;
+			}
+			str = retainWholeIfDecimalPartZero(str);
+			end = str.length();
+		}
+		return parseLong(str, end, min, max);
+	}
+
+	/**
+	 * parse the [0, end) part of the string, which should be an optional sign
+	 * and then digits
+	 * 
+	 * @return null if it can't be parsed or it's not between min and max
+	 */
+	private static Long parseLong(String str, int end, long min, long max) {
+		int i = 0;
+		boolean negative = false;
+		char first = str.charAt(0);
+		if (first == '-' || first == '+') {
+			negative = first == '-';
+			i++;
+		}
+		if (i == end) {
+			return null;
+		}
+		// accumulate negatively so that Long.MIN_VALUE can be reached
+		long limit = negative ? min : -max;
+		long result = 0;
+		for (; i < end; i++) {
+			char c = str.charAt(i);
+			if (c < '0' || c > '9') {
+				return null;
+			}
+			int digit = c - '0';
+			if (result < (limit + digit) / 10) {
+				return null;
+			}
+			result = result * 10 - digit;
+		}
+		return negative ? result : -result;
+	}
+
+	/**
+	 * see {@link #wholePartEnd(String)}
+	 */
+	private static final int NOT_WHOLE = -1;
+
+	/**
+	 * see {@link #wholePartEnd(String)}
+	 */
+	private static final int NOT_PLAIN = -2;
+
+	/**
+	 * scan a plain decimal, i.e. an optional sign, ascii digits and an
+	 * optional decimal part, to see where its whole number part ends
+	 * 
+	 * @return the index of the decimal point, or the length if there is no
+	 *         decimal point, if the decimal part is zero; {@link #NOT_WHOLE}
+	 *         if the decimal part is not zero; {@link #NOT_PLAIN} if it's not
+	 *         a plain decimal, e.g. in scientific notation
+	 */
+	private static int wholePartEnd(String str) {
+		int len = str.length();
+		int i = 0;
+		if (i < len && (str.charAt(i) == '-' || str.charAt(i) == '+')) {
+			i++;
+		}
+		int digitsStart = i;
+		while (i < len && str.charAt(i) >= '0' && str.charAt(i) <= '9') {
+			i++;
+		}
+		if (i == digitsStart) {
+			// e.g. ".5", or not a number
+			return NOT_PLAIN;
+		}
+		if (i == len) {
+			return len;
+		}
+		if (str.charAt(i) != '.') {
+			return NOT_PLAIN;
+		}
+		int pointIndex = i;
+		boolean zero = true;
+		for (i++; i < len; i++) {
+			char c = str.charAt(i);
+			if (c < '0' || c > '9') {
+				return NOT_PLAIN;
+			}
+			if (c != '0') {
+				zero = false;
+			}
+		}
+		return zero ? pointIndex : NOT_WHOLE;
+	}
+
+	/**
+	 * is it an optional minus sign followed by digits?
+	 */
+	private static boolean isPlainInteger(String str) {
+		int len = str.length();
+		int i = str.startsWith("-") ? 1 : 0;
+		if (i == len) {
+			return false;
+		}
+		for (; i < len; i++) {
+			char c = str.charAt(i);
+			if (c < '0' || c > '9') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * can it be taken by {@link BigDecimal#BigDecimal(String)}? It's checked
+	 * before parsing so that no exception has to be thrown for a non-number.
+	 */
+	static boolean isDecimalNumber(String str) {
+		if (str == null) {
+			return false;
+		}
+		int len = str.length();
+		int i = 0;
+		if (i < len && (str.charAt(i) == '-' || str.charAt(i) == '+')) {
+			i++;
+		}
+		int digits = 0;
+		boolean dot = false;
+		for (; i < len; i++) {
+			char c = str.charAt(i);
+			if (isDigit(c)) {
+				digits++;
+			} else if (c == '.' && !dot) {
+				dot = true;
+			} else {
+				break;
+			}
+		}
+		if (digits == 0) {
+			return false;
+		}
+		if (i == len) {
+			return true;
+		}
+		char e = str.charAt(i);
+		if (e != 'e' && e != 'E') {
+			return false;
+		}
+		return isExponentDigits(str, i + 1, MAX_BIG_DECIMAL_EXPONENT_DIGITS);
+	}
+
+	/**
+	 * the exponent of a big decimal should be an int
+	 */
+	private static final int MAX_BIG_DECIMAL_EXPONENT_DIGITS = 9;
+
+	/**
+	 * can it be taken by {@link Double#parseDouble(String)}? The hexadecimal
+	 * ones are let pass without checking.
+	 */
+	static boolean isFloatingPointNumber(String str) {
+		if (str == null) {
+			return false;
+		}
+		int start = 0;
+		int end = str.length();
+		// the leading and trailing whitespaces are ignored by the jdk
+		while (start < end && str.charAt(start) <= ' ') {
+			start++;
+		}
+		while (end > start && str.charAt(end - 1) <= ' ') {
+			end--;
+		}
+		int i = start;
+		if (i < end && (str.charAt(i) == '-' || str.charAt(i) == '+')) {
+			i++;
+		}
+		if (str.startsWith("NaN", i) || str.startsWith("Infinity", i)) {
+			return str.charAt(i) == 'N' ? i + 3 == end : i + 8 == end;
+		}
+		if (i + 1 < end && str.charAt(i) == '0' && (str.charAt(i + 1) == 'x' || str.charAt(i + 1) == 'X')) {
+			return true;
+		}
+		// the type suffix, e.g. "1.0f"
+		if (end > i) {
+			char last = str.charAt(end - 1);
+			if (last == 'f' || last == 'F' || last == 'd' || last == 'D') {
+				end--;
+			}
+		}
+		int digits = 0;
+		boolean dot = false;
+		for (; i < end; i++) {
+			char c = str.charAt(i);
+			if (c >= '0' && c <= '9') {
+				digits++;
+			} else if (c == '.' && !dot) {
+				dot = true;
+			} else {
+				break;
+			}
+		}
+		if (digits == 0) {
+			return false;
+		}
+		if (i == end) {
+			return true;
+		}
+		char e = str.charAt(i);
+		if (e != 'e' && e != 'E') {
+			return false;
+		}
+		return isExponentDigits(str.substring(0, end), i + 1, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * an optional sign and then at most maxDigits digits till the end
+	 */
+	private static boolean isExponentDigits(String str, int from, int maxDigits) {
+		int len = str.length();
+		int i = from;
+		if (i < len && (str.charAt(i) == '-' || str.charAt(i) == '+')) {
+			i++;
+		}
+		int digits = len - i;
+		if (digits == 0 || digits > maxDigits) {
+			return false;
+		}
+		for (; i < len; i++) {
+			char c = str.charAt(i);
+			if (c < '0' || c > '9') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isDigit(char c) {
+		if (c >= '0' && c <= '9') {
+			return true;
+		}
+		// big decimals take non-ascii digits too
+		return c > 127 && Character.isDigit(c);
+	}
+
 	/**
 	 * get the whole number part if the string is numeric and the decimal part
 	 * is zero <br/>
 	 * e.g. null => null<br/>
 	 * "3.00" => "3"<br/>
+	 * "-3.00" => "-3"<br/>
 	 * "3.02" => "3.02" <br/>
 	 * "3" =>"3". <br/>
 	 * It also accommodates scientific notions with precision loss. <br/>
@@ -384,22 +883,46 @@ public class SepBasicTypeConverts {
 			return s;
 		}
 
-		try {
-			// using a big decimal here can also take care of scientific
-			// notions
-			BigDecimal d = new BigDecimal(s);
-			s = d.toPlainString();
-		} catch (NumberFormatException e) {
+		int end = wholePartEnd(s);
+		if (end == NOT_WHOLE) {
+			return s;
+		}
+		if (end >= 0) {
+			return normalizeWhole(s, end);
+		}
+
+		if (!isDecimalNumber(s)) {
 			// not a number
 			return s;
 		}
+		// using a big decimal here can also take care of scientific
+		// notions
+		String plain = new BigDecimal(s).toPlainString();
+		end = wholePartEnd(plain);
+		return end >= 0 ? normalizeWhole(plain, end) : plain;
+	}
 
-		Pattern pattern = Pattern.compile("^(\\d+)\\.0*$");
-		Matcher matcher = pattern.matcher(s);
-		if (matcher.find()) {
-			return matcher.group(1);
+	/**
+	 * the [0, end) part of a plain decimal, without the plus sign and the
+	 * leading zeros
+	 */
+	private static String normalizeWhole(String s, int end) {
+		int i = 0;
+		boolean negative = s.charAt(0) == '-';
+		if (negative || s.charAt(0) == '+') {
+			i++;
+		}
+		while (i < end - 1 && s.charAt(i) == '0') {
+			i++;
+		}
+		if (end - i == 1 && s.charAt(i) == '0') {
+			// no "-0"
+			return "0";
+		}
+		if (negative) {
+			return i == 1 && end == s.length() ? s : "-" + s.substring(i, end);
 		}
-		return s;
+		return i == 0 && end == s.length() ? s : s.substring(i, end);
 	}
 
 }
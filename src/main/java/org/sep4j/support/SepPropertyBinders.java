@@ -0,0 +1,220 @@
+package org.sep4j.support;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+import org.apache.commons.lang.ClassUtils;
+
+/**
+ * turns getter and setter methods into binders which can be invoked many
+ * times cheaply. A binder is backed by a method handle, so an invocation
+ * doesn't allocate an argument array nor check the access again; if a method
+ * handle is not allowed, it falls back to reflection.
+ *
+ * The binders behave the same as {@link Method#invoke(Object, Object...)}: a
+ * wrong argument leads to an IllegalArgumentException, and an exception
+ * thrown by the accessor itself is wrapped as an
+ * {@link InvocationTargetException} in an IllegalStateException.
+ *
+ * @author chenjianjx
+ */
+public class SepPropertyBinders {
+
+	private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+	private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+	/**
+	 * reads a property of an object
+	 */
+	public static interface Getter {
+
+		Object get(Object object);
+
+		Method getMethod();
+	}
+
+	/**
+	 * writes a property of an object
+	 */
+	public static interface Setter {
+
+		void set(Object object, Object propValue);
+
+		/**
+		 * the parameter type of the setter
+		 */
+		Class<?> getPropClass();
+
+		Method getMethod();
+	}
+
+	/**
+	 * bind a getter, i.e. a method without parameters
+	 */
+	public static Getter bindGetter(Method getter) {
+		if (getter == null) {
+			throw new IllegalArgumentException("The getter method cannot be null");
+		}
+		MethodHandle handle = unreflect(getter);
+		if (handle == null) {
+			return new ReflectiveGetter(getter);
+		}
+		return new MethodHandleGetter(getter, handle.asType(GETTER_TYPE));
+	}
+
+	/**
+	 * bind a setter, i.e. a method with one parameter. The return value of the
+	 * setter will be ignored.
+	 */
+	public static Setter bindSetter(Method setter) {
+		if (setter == null) {
+			throw new IllegalArgumentException("The setter method cannot be null");
+		}
+		if (setter.getParameterTypes().length != 1) {
+			throw new IllegalArgumentException("A setter should have exactly one parameter: " + setter);
+		}
+		MethodHandle handle = unreflect(setter);
+		if (handle == null) {
+			return new ReflectiveSetter(setter);
+		}
+		return new MethodHandleSetter(setter, handle.asType(SETTER_TYPE));
+	}
+
+	/**
+	 * @return null if it's not allowed
+	 */
+	private static MethodHandle unreflect(Method method) {
+		try {
+			method.setAccessible(true);
+			return MethodHandles.lookup().unreflect(method);
+		} catch (IllegalAccessException e) {
+			return null;
+		} catch (RuntimeException e) {
+			// e.g. SecurityException, or InaccessibleObjectException on newer
+			// jdks
+			return null;
+		}
+	}
+
+	private static IllegalStateException wrapAccessorException(Throwable t) {
+		return new IllegalStateException(new InvocationTargetException(t));
+	}
+
+	private static class MethodHandleGetter implements Getter {
+		private final Method method;
+		private final MethodHandle handle;
+
+		public MethodHandleGetter(Method method, MethodHandle handle) {
+			this.method = method;
+			this.handle = handle;
+		}
+
+		public Object get(Object object) {
+			if (!method.getDeclaringClass().isInstance(object)) {
+				throw new IllegalArgumentException("object is not an instance of declaring class");
+			}
+			try {
+				return (Object) handle.invokeExact(object);
+			} catch (Throwable t) {
+				throw wrapAccessorException(t);
+			}
+		}
+
+		public Method getMethod() {
+			return method;
+		}
+	}
+
+	private static class MethodHandleSetter implements Setter {
+		private final Method method;
+		private final MethodHandle handle;
+		private final Class<?> propClass;
+
+		/**
+		 * the wrapper class if the prop class is primitive
+		 */
+		private final Class<?> boxedPropClass;
+
+		public MethodHandleSetter(Method method, MethodHandle handle) {
+			this.method = method;
+			this.handle = handle;
+			this.propClass = method.getParameterTypes()[0];
+			this.boxedPropClass = ClassUtils.primitiveToWrapper(propClass);
+		}
+
+		public void set(Object object, Object propValue) {
+			if (!method.getDeclaringClass().isInstance(object)) {
+				throw new IllegalArgumentException("object is not an instance of declaring class");
+			}
+			if (propValue == null ? propClass.isPrimitive() : !boxedPropClass.isInstance(propValue)) {
+				throw new IllegalArgumentException("argument type mismatch");
+			}
+			try {
+				handle.invokeExact(object, propValue);
+			} catch (Throwable t) {
+				throw wrapAccessorException(t);
+			}
+		}
+
+		public Class<?> getPropClass() {
+			return propClass;
+		}
+
+		public Method getMethod() {
+			return method;
+		}
+	}
+
+	private static class ReflectiveGetter implements Getter {
+		private final Method method;
+
+		public ReflectiveGetter(Method method) {
+			this.method = method;
+		}
+
+		public Object get(Object object) {
+			try {
+				return method.invoke(object);
+			} catch (IllegalAccessException e) {
+				throw new IllegalStateException(e);
+			} catch (InvocationTargetException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+
+		public Method getMethod() {
+			return method;
+		}
+	}
+
+	private static class ReflectiveSetter implements Setter {
+		private final Method method;
+
+		public ReflectiveSetter(Method method) {
+			this.method = method;
+		}
+
+		public void set(Object object, Object propValue) {
+			try {
+				method.invoke(object, propValue);
+			} catch (IllegalAccessException e) {
+				throw new IllegalStateException(e);
+			} catch (InvocationTargetException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+
+		public Class<?> getPropClass() {
+			return method.getParameterTypes()[0];
+		}
+
+		public Method getMethod() {
+			return method;
+		}
+	}
+
+}
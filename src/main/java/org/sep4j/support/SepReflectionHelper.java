@@ -4,7 +4,12 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.commons.lang.StringUtils;
 
@@ -17,6 +22,17 @@ import org.apache.commons.lang.StringUtils;
  */
 public class SepReflectionHelper {
 
+	/**
+	 * the accessors of each class, resolved lazily and then reused. A
+	 * ClassValue doesn't prevent the classes from being unloaded.
+	 */
+	private static final ClassValue<ClassAccessors> CLASS_ACCESSORS = new ClassValue<ClassAccessors>() {
+		@Override
+		protected ClassAccessors computeValue(Class<?> type) {
+			return new ClassAccessors(type);
+		}
+	};
+
 	/**
 	 * get property value through getter methods. A runtime exception will be
 	 * thrown if no getter found
@@ -33,12 +49,43 @@ public class SepReflectionHelper {
 		}
 
 		Class<?> clazz = object.getClass();
-		Method getter = findGetterByPropName(clazz, propName);
+		SepPropertyBinders.Getter getter = CLASS_ACCESSORS.get(clazz).getPropertyAccessors(propName).getGetterBinder();
 		if (getter == null) {
 			String err = MessageFormat.format("Class {0} has no getter method for property \"{1}\"", clazz, propName);
 			throw new IllegalArgumentException(err);
 		}
-		return invokeGetter(getter, object);
+		return getter.get(object);
+	}
+
+	/**
+	 * the same as {@link #findSetterByPropNameAndType(Class, String, Class)},
+	 * but returns a bound setter which is cheap to invoke
+	 * 
+	 * @return null if not found
+	 */
+	public static SepPropertyBinders.Setter findSetterBinderByPropNameAndType(Class<?> objClass, String propName,
+			Class<?> propClass) {
+		Method setter = findSetterByPropNameAndType(objClass, propName, propClass);
+		if (setter == null) {
+			return null;
+		}
+		return CLASS_ACCESSORS.get(objClass).getPropertyAccessors(propName).getSetterBinder(setter);
+	}
+
+	/**
+	 * the same as {@link #findSettersByPropName(Class, String)}, but returns
+	 * bound setters which are cheap to invoke
+	 * 
+	 * @return an unmodifiable list, in the order of {@link Class#getMethods()}
+	 */
+	public static List<SepPropertyBinders.Setter> findSetterBindersByPropName(Class<?> objClass, String propName) {
+		if (objClass == null) {
+			throw new IllegalArgumentException("The objClass cannot be null");
+		}
+		if (propName == null) {
+			throw new IllegalArgumentException("The propName cannot be null");
+		}
+		return CLASS_ACCESSORS.get(objClass).getPropertyAccessors(propName).getSetterBinders();
 	}
 
 	/**
@@ -55,18 +102,15 @@ public class SepReflectionHelper {
 			throw new IllegalArgumentException("The propClass cannot be null");
 		}
 
-		try {
-			return objClass.getMethod("set" + StringUtils.capitalize(propName), new Class<?>[] { propClass });
-		} catch (SecurityException e) {
-			throw new IllegalStateException(e);
-		} catch (NoSuchMethodException e) {
-			return null;
-		}
+		return CLASS_ACCESSORS.get(objClass).getPropertyAccessors(propName).findSetter(propClass);
 	}
 
 	/**
 	 * a property may have several setters, each of which take a new parameter
 	 * type
+	 * 
+	 * @return a new list, in the order of {@link Class#getMethods()}. The
+	 *         caller can change it without affecting the cached setters
 	 */
 	public static List<Method> findSettersByPropName(Class<?> objClass, String propName) {
 		if (objClass == null) {
@@ -76,29 +120,7 @@ public class SepReflectionHelper {
 			throw new IllegalArgumentException("The propName cannot be null");
 		}
 
-		List<Method> setters = new ArrayList<Method>();
-		Method[] methodArray = objClass.getMethods();
-		if (methodArray == null) {
-			return setters;
-		}
-		for (Method method : methodArray) {
-			if (method.getName().equals("set" + StringUtils.capitalize(propName))
-					&& (method.getParameterTypes() != null && method.getParameterTypes().length == 1)) {
-				setters.add(method);
-			}
-		}
-		return setters;
-	}
-
-	private static Object invokeGetter(Method getter, Object object) {
-		try {
-			getter.setAccessible(true);
-			return getter.invoke(object, new Object[0]);
-		} catch (IllegalAccessException e) {
-			throw new IllegalStateException(e);
-		} catch (InvocationTargetException e) {
-			throw new IllegalStateException(e);
-		}
+		return new ArrayList<Method>(CLASS_ACCESSORS.get(objClass).getPropertyAccessors(propName).setters);
 	}
 
 	/**
@@ -124,59 +146,180 @@ public class SepReflectionHelper {
 	}
 
 	/**
-	 * find a getter
+	 * find a getter method for primitive boolean
 	 * 
 	 * @param clazz
 	 * @param propName
 	 * @return
 	 */
-	private static Method findGetterByPropName(Class<?> clazz, String propName) {
-		Method get = findGetLiterally(clazz, propName);
-		if (get != null) {
-			return get;
-		}
-		Method is = findIsLiterallyForBoolean(clazz, propName);
-		if (is != null) {
+	static Method findIsLiterallyForBoolean(Class<?> clazz, String propName) {
+		Method is = CLASS_ACCESSORS.get(clazz).findNoArgMethod("is" + StringUtils.capitalize(propName));
+		if (is != null && is.getReturnType().equals(boolean.class)) {
 			return is;
 		}
 		return null;
 	}
 
 	/**
-	 * find a getter method for primitive boolean
+	 * find a getter method which starts "get"
 	 * 
 	 * @param clazz
 	 * @param propName
 	 * @return
 	 */
-	static Method findIsLiterallyForBoolean(Class<?> clazz, String propName) {
-		try {
-			Method is = clazz.getMethod("is" + StringUtils.capitalize(propName), new Class<?>[0]);
-			if (is.getReturnType().equals(boolean.class)) {
-				return is;
+	static Method findGetLiterally(Class<?> clazz, String propName) {
+		return CLASS_ACCESSORS.get(clazz).findNoArgMethod("get" + StringUtils.capitalize(propName));
+	}
+
+	/**
+	 * the public methods of a class, and the accessors of its properties
+	 * resolved from them
+	 */
+	private static class ClassAccessors {
+
+		/**
+		 * key = method name, value = public methods with this name
+		 */
+		private final Map<String, List<Method>> methodsByName = new HashMap<String, List<Method>>();
+
+		private final ConcurrentMap<String, PropertyAccessors> propertyAccessors = new ConcurrentHashMap<String, PropertyAccessors>();
+
+		public ClassAccessors(Class<?> clazz) {
+			for (Method method : clazz.getMethods()) {
+				List<Method> methods = methodsByName.get(method.getName());
+				if (methods == null) {
+					methods = new ArrayList<Method>();
+					methodsByName.put(method.getName(), methods);
+				}
+				methods.add(method);
 			}
-			return null;
-		} catch (SecurityException e) {
-			throw new IllegalStateException(e);
-		} catch (NoSuchMethodException e) {
-			return null;
+		}
+
+		public PropertyAccessors getPropertyAccessors(String propName) {
+			PropertyAccessors accessors = propertyAccessors.get(propName);
+			if (accessors == null) {
+				accessors = new PropertyAccessors(this, propName);
+				PropertyAccessors existing = propertyAccessors.putIfAbsent(propName, accessors);
+				if (existing != null) {
+					accessors = existing;
+				}
+			}
+			return accessors;
+		}
+
+		/**
+		 * the same as {@link Class#getMethod(String, Class...)} without
+		 * parameters, but returns null if not found
+		 */
+		public Method findNoArgMethod(String methodName) {
+			Method found = null;
+			for (Method method : getMethodsByName(methodName)) {
+				if (method.getParameterTypes().length != 0) {
+					continue;
+				}
+				// choose the one with the most specific return type, e.g. not
+				// the bridge method of a covariant return
+				if (found == null || found.getReturnType().isAssignableFrom(method.getReturnType())) {
+					found = method;
+				}
+			}
+			return found;
+		}
+
+		public List<Method> getMethodsByName(String methodName) {
+			List<Method> methods = methodsByName.get(methodName);
+			return methods == null ? Collections.<Method> emptyList() : methods;
 		}
 	}
 
 	/**
-	 * find a getter method which starts "get"
-	 * 
-	 * @param clazz
-	 * @param propName
-	 * @return
+	 * the resolved getter and setters of a property
 	 */
-	static Method findGetLiterally(Class<?> clazz, String propName) {
-		try {
-			return clazz.getMethod("get" + StringUtils.capitalize(propName), new Class<?>[0]);
-		} catch (SecurityException e) {
-			throw new IllegalStateException(e);
-		} catch (NoSuchMethodException e) {
-			return null;
+	private static class PropertyAccessors {
+
+		/**
+		 * null if there is no getter
+		 */
+		private final Method getter;
+
+		private final List<Method> setters;
+
+		/**
+		 * bound lazily, since binding costs more than resolving
+		 */
+		private volatile SepPropertyBinders.Getter getterBinder;
+
+		private volatile List<SepPropertyBinders.Setter> setterBinders;
+
+		public PropertyAccessors(ClassAccessors classAccessors, String propName) {
+			String capitalized = StringUtils.capitalize(propName);
+
+			Method get = classAccessors.findNoArgMethod("get" + capitalized);
+			if (get == null) {
+				Method is = classAccessors.findNoArgMethod("is" + capitalized);
+				if (is != null && is.getReturnType().equals(boolean.class)) {
+					get = is;
+				}
+			}
+			this.getter = get;
+
+			List<Method> setterList = new ArrayList<Method>();
+			for (Method method : classAccessors.getMethodsByName("set" + capitalized)) {
+				if (method.getParameterTypes().length == 1) {
+					setterList.add(method);
+				}
+			}
+			this.setters = Collections.unmodifiableList(setterList);
+		}
+
+		/**
+		 * @return null if there is no getter
+		 */
+		public SepPropertyBinders.Getter getGetterBinder() {
+			if (getter == null) {
+				return null;
+			}
+			SepPropertyBinders.Getter binder = getterBinder;
+			if (binder == null) {
+				// binding twice in a race does no harm
+				binder = SepPropertyBinders.bindGetter(getter);
+				getterBinder = binder;
+			}
+			return binder;
+		}
+
+		public List<SepPropertyBinders.Setter> getSetterBinders() {
+			List<SepPropertyBinders.Setter> binders = setterBinders;
+			if (binders == null) {
+				List<SepPropertyBinders.Setter> binderList = new ArrayList<SepPropertyBinders.Setter>();
+				for (Method setter : setters) {
+					binderList.add(SepPropertyBinders.bindSetter(setter));
+				}
+				binders = Collections.unmodifiableList(binderList);
+				setterBinders = binders;
+			}
+			return binders;
+		}
+
+		public SepPropertyBinders.Setter getSetterBinder(Method setter) {
+			return getSetterBinders().get(setters.indexOf(setter));
+		}
+
+		/**
+		 * the same as {@link Class#getMethod(String, Class...)} with the
+		 * property class as the only parameter, but returns null if not found
+		 */
+		public Method findSetter(Class<?> propClass) {
+			Method found = null;
+			for (Method setter : setters) {
+				if (!setter.getParameterTypes()[0].equals(propClass)) {
+					continue;
+				}
+				if (found == null || found.getReturnType().isAssignableFrom(setter.getReturnType())) {
+					found = setter;
+				}
+			}
+			return found;
 		}
 	}
 
@@ -0,0 +1,165 @@
+package org.sep4j;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * 
+ * @author chenjianjx
+ * 
+ */
+public class ChannelPartSourceTest {
+
+	@Test
+	public void openPartTest() throws IOException {
+		byte[] deflated = "<a>deflated</a>".getBytes("UTF-8");
+		byte[] stored = "<b>stored</b>".getBytes("UTF-8");
+		ByteArrayOutputStream zip = new ByteArrayOutputStream();
+		ZipOutputStream zout = new ZipOutputStream(zip);
+		zout.putNextEntry(new ZipEntry("xl/deflated.xml"));
+		zout.write(deflated);
+		zout.closeEntry();
+		ZipEntry storedEntry = new ZipEntry("xl/stored.xml");
+		storedEntry.setMethod(ZipEntry.STORED);
+		storedEntry.setSize(stored.length);
+		CRC32 crc = new CRC32();
+		crc.update(stored);
+		storedEntry.setCrc(crc.getValue());
+		zout.putNextEntry(storedEntry);
+		zout.write(stored);
+		zout.closeEntry();
+		zout.setComment("some comment");
+		zout.close();
+
+		File file = writeTempFile(zip.toByteArray());
+		FileChannel channel = FileChannel.open(file.toPath());
+		ChannelPartSource source = new ChannelPartSource(channel, true);
+		try {
+			Assert.assertArrayEquals(deflated, readPart(source, "xl/deflated.xml"));
+			Assert.assertArrayEquals(stored, readPart(source, "xl/stored.xml"));
+			Assert.assertNull(source.openPart("xl/none.xml"));
+		} finally {
+			source.close();
+			file.delete();
+		}
+		Assert.assertFalse(channel.isOpen());
+	}
+
+	@Test(expected = ZipException.class)
+	public void openPartTest_NotZip() throws IOException {
+		File file = writeTempFile("not a zip file, but long enough to have an end".getBytes("UTF-8"));
+		FileChannel channel = FileChannel.open(file.toPath());
+		try {
+			new ChannelPartSource(channel, false);
+		} finally {
+			channel.close();
+			file.delete();
+		}
+	}
+
+	@Test
+	public void openPartTest_CorruptCentralDirectory() throws IOException {
+		byte[] zip = createZip();
+		int eocd = lastIndexOf(zip, 0x06054b50);
+		int centralDir = lastIndexOf(zip, 0x02014b50);
+
+		// a directory which is said to be much larger than the file
+		assertNotZip(patchInt(zip, eocd + 12, 0x7FFFFFF0));
+		// a directory which goes over the end record
+		assertNotZip(patchInt(zip, eocd + 16, centralDir + 1));
+		// more entries than the directory can have
+		assertNotZip(patchShort(zip, eocd + 10, 0xFFFF));
+		// a name which runs past the directory
+		assertNotZip(patchShort(zip, centralDir + 28, 0xFFFF));
+		// the end of the name read as an extra field which runs past the entry
+		assertNotZip(patchShort(patchShort(zip, centralDir + 28, 4), centralDir + 30, 4));
+		// a local header beyond the end of the file
+		assertNotZip(patchInt(zip, centralDir + 42, 0x7FFFFFF0));
+	}
+
+	@Test
+	public void openPartTest_OnlyEndOfCentralDirectory() throws IOException {
+		// a tiny file which claims a huge directory
+		byte[] bytes = new byte[100];
+		int eocd = bytes.length - 22;
+		bytes = patchInt(bytes, eocd, 0x06054b50);
+		bytes = patchShort(bytes, eocd + 10, 1);
+		bytes = patchInt(bytes, eocd + 12, 0x7FFFFFFF);
+		assertNotZip(bytes);
+	}
+
+	private void assertNotZip(byte[] bytes) throws IOException {
+		File file = writeTempFile(bytes);
+		FileChannel channel = FileChannel.open(file.toPath());
+		try {
+			new ChannelPartSource(channel, false).openPart("xl/a.xml");
+			Assert.fail("it should not be read as a zip");
+		} catch (ZipException e) {
+			// expected
+		} finally {
+			channel.close();
+			file.delete();
+		}
+	}
+
+	private byte[] createZip() throws IOException {
+		ByteArrayOutputStream zip = new ByteArrayOutputStream();
+		ZipOutputStream zout = new ZipOutputStream(zip);
+		zout.putNextEntry(new ZipEntry("xl/a.xml"));
+		zout.write("<a/>".getBytes("UTF-8"));
+		zout.closeEntry();
+		zout.close();
+		return zip.toByteArray();
+	}
+
+	private int lastIndexOf(byte[] bytes, int signature) {
+		for (int i = bytes.length - 4; i >= 0; i--) {
+			if (ByteBuffer.wrap(bytes, i, 4).order(ByteOrder.LITTLE_ENDIAN).getInt() == signature) {
+				return i;
+			}
+		}
+		throw new IllegalStateException("no signature found");
+	}
+
+	private byte[] patchInt(byte[] bytes, int index, int value) {
+		byte[] patched = bytes.clone();
+		ByteBuffer.wrap(patched).order(ByteOrder.LITTLE_ENDIAN).putInt(index, value);
+		return patched;
+	}
+
+	private byte[] patchShort(byte[] bytes, int index, int value) {
+		byte[] patched = bytes.clone();
+		ByteBuffer.wrap(patched).order(ByteOrder.LITTLE_ENDIAN).putShort(index, (short) value);
+		return patched;
+	}
+
+	private byte[] readPart(ChannelPartSource source, String partName) throws IOException {
+		InputStream in = source.openPart(partName);
+		try {
+			return IOUtils.toByteArray(in);
+		} finally {
+			in.close();
+		}
+	}
+
+	private File writeTempFile(byte[] bytes) throws IOException {
+		File file = File.createTempFile("sep4j-test", ".zip");
+		file.deleteOnExit();
+		FileUtils.writeByteArrayToFile(file, bytes);
+		return file;
+	}
+}
@@ -0,0 +1,49 @@
+package org.sep4j;
+
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * 
+ * @author chenjianjx
+ * 
+ */
+public class ColumnWidthEstimatorTest {
+
+	@Test
+	public void countCharsTest() {
+		Assert.assertEquals(0, ColumnWidthEstimator.countChars(""));
+		Assert.assertEquals(3, ColumnWidthEstimator.countChars("abc"));
+		Assert.assertEquals(4, ColumnWidthEstimator.countChars("\u4e2d\u6587"));
+		// the widest line
+		Assert.assertEquals(5, ColumnWidthEstimator.countChars("ab\nabcde\nabc"));
+	}
+
+	@Test
+	public void applyToTest() {
+		ColumnWidthEstimator widths = new ColumnWidthEstimator(3, 2);
+		widths.sample(0, "Name");
+		widths.sample(0, "A much longer name");
+		widths.sample(1, null);
+		widths.sample(2, repeat('x', 1000));
+		Assert.assertTrue(widths.isSampling(1));
+		Assert.assertFalse(widths.isSampling(2));
+
+		Sheet sheet = new XSSFWorkbook().createSheet();
+		widths.applyTo(sheet);
+		Assert.assertEquals((18 + 2) * 256, sheet.getColumnWidth(0));
+		Assert.assertEquals(2 * 256, sheet.getColumnWidth(1));
+		// the max allowed
+		Assert.assertEquals(255 * 256, sheet.getColumnWidth(2));
+	}
+
+	private String repeat(char c, int count) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < count; i++) {
+			sb.append(c);
+		}
+		return sb.toString();
+	}
+}
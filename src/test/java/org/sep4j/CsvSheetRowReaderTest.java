@@ -0,0 +1,70 @@
+package org.sep4j;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+
+import org.apache.commons.lang.StringUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * @author chenjianjx
+ *
+ */
+public class CsvSheetRowReaderTest {
+
+	@Test
+	public void nextRowTest() {
+		CsvSheetRowReader reader = new CsvSheetRowReader(new StringReader(
+				" a , \"b \"\"x\"\" \" ,,\"multi\nline\"\r\n\n\r\nlast"), ',');
+
+		RawRow row = reader.nextRow();
+		Assert.assertEquals(0, row.getRowIndex());
+		Assert.assertEquals(4, row.getCellCount());
+		Assert.assertEquals("a", row.getCellValue(0));
+		Assert.assertEquals("b \"x\"", row.getCellValue(1));
+		Assert.assertNull(row.getCellValue(2));
+		Assert.assertEquals("multi\nline", row.getCellValue(3));
+
+		row = reader.nextRow();
+		Assert.assertEquals(3, row.getRowIndex());
+		Assert.assertEquals(1, row.getCellCount());
+		Assert.assertEquals("last", row.getCellValue(0));
+
+		Assert.assertNull(reader.nextRow());
+		Assert.assertNull(reader.nextRow());
+	}
+
+	@Test
+	public void nextRowTest_FieldsAcrossBuffers() {
+		String longField = StringUtils.repeat("x", 10000);
+		String quotedField = StringUtils.repeat("y\"\"", 5000);
+		// a reader which returns a few chars at a time
+		Reader in = new StringReader(longField + ",\"" + quotedField
+				+ "\"\r\n1,2\r\n") {
+			@Override
+			public int read(char[] cbuf, int off, int len) throws IOException {
+				return super.read(cbuf, off, Math.min(len, 3));
+			}
+		};
+		CsvSheetRowReader reader = new CsvSheetRowReader(in, ',');
+
+		RawRow row = reader.nextRow();
+		Assert.assertEquals(longField, row.getCellValue(0));
+		Assert.assertEquals(StringUtils.repeat("y\"", 5000), row.getCellValue(1));
+		row = reader.nextRow();
+		Assert.assertEquals("1", row.getCellValue(0));
+		Assert.assertEquals("2", row.getCellValue(1));
+		Assert.assertNull(reader.nextRow());
+	}
+
+	@Test
+	public void nextRowTest_EmptyFile() {
+		CsvSheetRowReader reader = new CsvSheetRowReader(new StringReader(""),
+				',');
+		Assert.assertNull(reader.nextRow());
+	}
+
+}
@@ -0,0 +1,120 @@
+package org.sep4j;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.sep4j.Ssio.ColumnMeta;
+
+/**
+ * 
+ * @author chenjianjx
+ * 
+ */
+public class RowMappingPlanTest {
+
+	@Test
+	public void ofTest_Cached() {
+		Assert.assertSame(RowMappingPlan.of(UTRecord.class, createColumnMetaMap()),
+				RowMappingPlan.of(UTRecord.class, createColumnMetaMap()));
+	}
+
+	@Test
+	public void mapRowTest() {
+		RowMappingPlan<UTRecord> plan = RowMappingPlan.of(UTRecord.class, createColumnMetaMap());
+		List<CellError> cellErrors = new ArrayList<CellError>();
+
+		UTRecord record = plan.mapRow(new RawRow(3, new Object[] { "123", "ignored", "abc" }), cellErrors::add, false);
+		Assert.assertEquals(123, record.getPrimIntProp());
+		Assert.assertEquals("abc", record.getStrProp());
+		Assert.assertTrue(cellErrors.isEmpty());
+
+		record = plan.mapRow(new RawRow(4, new Object[] { "not a number", null, null }), cellErrors::add, false);
+		Assert.assertEquals(1, cellErrors.size());
+		Assert.assertEquals(4, cellErrors.get(0).getRowIndex());
+		Assert.assertEquals(0, cellErrors.get(0).getColumnIndex());
+		Assert.assertEquals("Int", cellErrors.get(0).getHeaderText());
+		Assert.assertEquals(CellErrorReason.NOT_CONVERTIBLE, cellErrors.get(0).getReason());
+		Assert.assertTrue(cellErrors.get(0).getCause().getMessage().contains("No suitable setter"));
+		Assert.assertTrue(cellErrors.get(0).getCause().getStackTrace().length > 0);
+	}
+
+	@Test
+	public void mapRowTest_NumericCells() {
+		RowMappingPlan<UTRecord> plan = RowMappingPlan.of(UTRecord.class, createColumnMetaMap());
+		List<CellError> cellErrors = new ArrayList<CellError>();
+
+		// the string property gets it as if it was read as a string
+		UTRecord record = plan.mapRow(new RawRow(3, new Object[] { 123d, null, 456d }), cellErrors::add, false);
+		Assert.assertEquals(123, record.getPrimIntProp());
+		Assert.assertEquals("456.0", record.getStrProp());
+		Assert.assertTrue(cellErrors.isEmpty());
+
+		record = plan.mapRow(new RawRow(4, new Object[] { 1.5d }), cellErrors::add, false);
+		Assert.assertEquals(CellErrorReason.NOT_CONVERTIBLE, cellErrors.get(0).getReason());
+		Assert.assertTrue(cellErrors.get(0).getCause().getMessage().contains("cellValue \"1.5\""));
+	}
+
+	@Test
+	public void mapRowTest_LightweightErrors() {
+		RowMappingPlan<UTRecord> plan = RowMappingPlan.of(UTRecord.class, createColumnMetaMap());
+		List<CellError> cellErrors = new ArrayList<CellError>();
+
+		plan.mapRow(new RawRow(4, new Object[] { null }), cellErrors::add, true);
+		CellError cellError = cellErrors.get(0);
+		Assert.assertEquals(CellErrorReason.NULL_NOT_ACCEPTED, cellError.getReason());
+		Assert.assertTrue(cellError.getCause() instanceof IllegalArgumentException);
+		Assert.assertTrue(cellError.getCause().getMessage().contains("No suitable setter for property \"primIntProp\""));
+		Assert.assertEquals(0, cellError.getCause().getStackTrace().length);
+	}
+
+	@Test
+	public void mapRowTest_ShortRow() {
+		RowMappingPlan<UTRecord> plan = RowMappingPlan.of(UTRecord.class, createColumnMetaMap());
+		List<CellError> cellErrors = new ArrayList<CellError>();
+
+		// the cells out of the row are not set at all, even for primitive
+		// properties
+		UTRecord record = plan.mapRow(new RawRow(1, new Object[0]), cellErrors::add, false);
+		Assert.assertEquals(0, record.getPrimIntProp());
+		Assert.assertTrue(cellErrors.isEmpty());
+	}
+
+	private Map<Short, ColumnMeta> createColumnMetaMap() {
+		Map<Short, ColumnMeta> columnMetaMap = new LinkedHashMap<Short, ColumnMeta>();
+		columnMetaMap.put((short) 0, createColumnMeta("primIntProp", "Int"));
+		columnMetaMap.put((short) 2, createColumnMeta("strProp", "Str"));
+		return columnMetaMap;
+	}
+
+	private ColumnMeta createColumnMeta(String propName, String headerText) {
+		ColumnMeta columnMeta = new ColumnMeta();
+		columnMeta.propName = propName;
+		columnMeta.headerText = headerText;
+		return columnMeta;
+	}
+
+	public static class UTRecord {
+		private int primIntProp;
+		private String strProp;
+
+		public int getPrimIntProp() {
+			return primIntProp;
+		}
+
+		public void setPrimIntProp(int primIntProp) {
+			this.primIntProp = primIntProp;
+		}
+
+		public String getStrProp() {
+			return strProp;
+		}
+
+		public void setStrProp(String strProp) {
+			this.strProp = strProp;
+		}
+	}
+}
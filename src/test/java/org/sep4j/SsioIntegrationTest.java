@@ -5,30 +5,55 @@ import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import junit.framework.Assert;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.apache.commons.lang.builder.ToStringStyle;
 import org.apache.commons.lang.time.DateFormatUtils;
 import org.apache.commons.lang.time.DateUtils;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
 import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.IndexedColors;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
@@ -193,6 +218,20 @@ public class SsioIntegrationTest {
 
 	}
 
+	@Test
+	public void saveTest_HeadersOnly_WithOptions() throws InvalidFormatException, IOException {
+		// a null records literal still picks the collection overloads
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		Ssio.save(ITRecord.getHeaderMap(), null, outputStream, null, null, new SaveOptions());
+		Sheet sheet = WorkbookFactory.create(new ByteArrayInputStream(outputStream.toByteArray())).getSheetAt(0);
+		Assert.assertEquals(0, sheet.getLastRowNum());
+
+		outputStream = new ByteArrayOutputStream();
+		Ssio.saveIfNoDatumError(ITRecord.getHeaderMap(), null, outputStream, null, null, new SaveOptions());
+		sheet = WorkbookFactory.create(new ByteArrayInputStream(outputStream.toByteArray())).getSheetAt(0);
+		Assert.assertEquals(0, sheet.getLastRowNum());
+	}
+
 	@Test
 	public void saveTest_BigNumber() throws InvalidFormatException, IOException {
 		LinkedHashMap<String, String> headerMap = new LinkedHashMap<String, String>();
@@ -235,6 +274,770 @@ public class SsioIntegrationTest {
 
 	}
 
+	@Test
+	public void saveTest_Streaming() throws InvalidFormatException, IOException {
+		LinkedHashMap<String, String> headerMap = new LinkedHashMap<String, String>();
+		headerMap.put("primInt", "Primitive Int");
+		headerMap.put("fake", "Not Real");
+
+		List<ITRecord> records = new ArrayList<ITRecord>();
+		for (int i = 0; i < 50; i++) {
+			ITRecord record = new ITRecord();
+			record.setPrimInt(i);
+			records.add(record);
+		}
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		List<DatumError> datumErrors = new ArrayList<DatumError>();
+
+		// save it with a window much smaller than the record count
+		Ssio.save(headerMap, records, outputStream, "!!ERROR!!", datumErrors, SaveOptions.streaming(10));
+		byte[] spreadsheet = outputStream.toByteArray();
+
+		// do a save for human eye check
+		FileUtils.writeByteArrayToFile(createFile("saveTest_Streaming"), spreadsheet);
+
+		// then parse it
+		Workbook workbook = WorkbookFactory.create(new ByteArrayInputStream(spreadsheet));
+
+		/*** do assertions ***/
+		Sheet sheet = workbook.getSheetAt(0);
+		Assert.assertEquals(50, sheet.getLastRowNum());
+		Assert.assertEquals("Primitive Int", sheet.getRow(0).getCell(0).getStringCellValue());
+		Assert.assertEquals("0", sheet.getRow(1).getCell(0).getStringCellValue());
+		Assert.assertEquals("49", sheet.getRow(50).getCell(0).getStringCellValue());
+		Assert.assertEquals("!!ERROR!!", sheet.getRow(50).getCell(1).getStringCellValue());
+
+		// errors
+		Assert.assertEquals(50, datumErrors.size());
+		Assert.assertEquals(49, datumErrors.get(49).getRecordIndex());
+	}
+
+	@Test
+	public void saveTest_StylesShared() throws InvalidFormatException, IOException {
+		LinkedHashMap<String, String> headerMap = new LinkedHashMap<String, String>();
+		headerMap.put("primInt", "Primitive Int");
+		headerMap.put("fake", "Not Real");
+
+		List<ITRecord> records = new ArrayList<ITRecord>();
+		for (int i = 0; i < 50; i++) {
+			records.add(new ITRecord());
+		}
+		SaveOptions saveOptions = new SaveOptions();
+		saveOptions.registerCellStyle("percentage", wb -> {
+			CellStyle style = wb.createCellStyle();
+			style.setDataFormat(wb.createDataFormat().getFormat("0%"));
+			return style;
+		});
+		saveOptions.setColumnStyle("primInt", "percentage");
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		Ssio.save(headerMap, records, outputStream, "!!ERROR!!", null, saveOptions);
+
+		Workbook workbook = WorkbookFactory.create(new ByteArrayInputStream(outputStream.toByteArray()));
+		Sheet sheet = workbook.getSheetAt(0);
+		// the default one, the header one, the error one and the custom one
+		Assert.assertEquals(4, workbook.getNumCellStyles());
+		Assert.assertEquals(sheet.getRow(0).getCell(0).getCellStyle().getIndex(), sheet.getRow(0).getCell(1).getCellStyle().getIndex());
+		Assert.assertEquals(sheet.getRow(1).getCell(1).getCellStyle().getIndex(), sheet.getRow(50).getCell(1).getCellStyle().getIndex());
+		Assert.assertEquals("0%", sheet.getRow(50).getCell(0).getCellStyle().getDataFormatString());
+	}
+
+	@Test
+	public void saveTest_TypedCells_DateColumnStyle() throws InvalidFormatException, IOException {
+		LinkedHashMap<String, String> headerMap = new LinkedHashMap<String, String>();
+		headerMap.put("date", "Date");
+
+		List<ITRecord> records = new ArrayList<ITRecord>();
+		for (int i = 0; i < 3; i++) {
+			ITRecord record = new ITRecord();
+			record.setDate(DateUtils.addDays(new Date(0), i));
+			records.add(record);
+		}
+		SaveOptions saveOptions = new SaveOptions();
+		saveOptions.setTypedCells(true);
+		saveOptions.setDateFormat("yyyy-mm-dd");
+		saveOptions.registerCellStyle("highlighted", wb -> {
+			CellStyle style = wb.createCellStyle();
+			style.setFillForegroundColor(IndexedColors.LIGHT_GREEN.getIndex());
+			style.setFillPattern(CellStyle.SOLID_FOREGROUND);
+			return style;
+		});
+		saveOptions.registerCellStyle("year", wb -> {
+			CellStyle style = wb.createCellStyle();
+			style.setDataFormat(wb.createDataFormat().getFormat("yyyy"));
+			return style;
+		});
+
+		// a style without a date format gets the one of the save options
+		saveOptions.setColumnStyle("date", "highlighted");
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		Ssio.save(headerMap, records, outputStream, null, null, saveOptions);
+		Sheet sheet = WorkbookFactory.create(new ByteArrayInputStream(outputStream.toByteArray())).getSheetAt(0);
+		Cell cell = sheet.getRow(1).getCell(0);
+		Assert.assertTrue(DateUtil.isCellDateFormatted(cell));
+		Assert.assertEquals("yyyy-mm-dd", cell.getCellStyle().getDataFormatString());
+		Assert.assertEquals(IndexedColors.LIGHT_GREEN.getIndex(), cell.getCellStyle().getFillForegroundColor());
+		Assert.assertEquals(cell.getCellStyle().getIndex(), sheet.getRow(3).getCell(0).getCellStyle().getIndex());
+
+		// a style with a date format is kept
+		saveOptions.setColumnStyle("date", "year");
+		outputStream = new ByteArrayOutputStream();
+		Ssio.save(headerMap, records, outputStream, null, null, saveOptions);
+		sheet = WorkbookFactory.create(new ByteArrayInputStream(outputStream.toByteArray())).getSheetAt(0);
+		Assert.assertEquals("yyyy", sheet.getRow(1).getCell(0).getCellStyle().getDataFormatString());
+	}
+
+	@Test
+	public void saveTest_FromStream() throws InvalidFormatException, IOException {
+		LinkedHashMap<String, String> headerMap = new LinkedHashMap<String, String>();
+		headerMap.put("str", "Str");
+		headerMap.put("fake", "Not Real");
+
+		Stream<ITRecord> records = IntStream.range(0, 30).mapToObj(i -> {
+			ITRecord record = new ITRecord();
+			record.setStr("record " + i);
+			return record;
+		});
+		List<DatumError> datumErrors = new ArrayList<DatumError>();
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		Ssio.saveStream(headerMap, records, outputStream, "!!ERROR!!", datumErrors, SaveOptions.streaming(10));
+
+		Sheet sheet = WorkbookFactory.create(new ByteArrayInputStream(outputStream.toByteArray())).getSheetAt(0);
+		Assert.assertEquals(30, sheet.getLastRowNum());
+		Assert.assertEquals("record 0", sheet.getRow(1).getCell(0).getStringCellValue());
+		Assert.assertEquals("record 29", sheet.getRow(30).getCell(0).getStringCellValue());
+		Assert.assertEquals(30, datumErrors.size());
+		Assert.assertEquals(29, datumErrors.get(29).getRecordIndex());
+	}
+
+	@Test
+	public void saveIfNoDatumErrorTest_FromIterator() {
+		LinkedHashMap<String, String> headerMap = new LinkedHashMap<String, String>();
+		headerMap.put("fake", "Not Real");
+
+		Iterator<ITRecord> records = Arrays.asList(new ITRecord(), new ITRecord()).iterator();
+		List<DatumError> datumErrors = new ArrayList<DatumError>();
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		Ssio.saveIteratorIfNoDatumError(headerMap, records, outputStream, null, datumErrors, null);
+
+		Assert.assertFalse(records.hasNext());
+		Assert.assertEquals(2, datumErrors.size());
+		Assert.assertEquals(0, outputStream.size());
+	}
+
+	@Test
+	public void saveTest_SheetRollover() throws InvalidFormatException, IOException {
+		LinkedHashMap<String, String> headerMap = new LinkedHashMap<String, String>();
+		headerMap.put("str", "Str");
+		headerMap.put("fake", "Not Real");
+
+		List<ITRecord> records = new ArrayList<ITRecord>();
+		for (int i = 0; i < 25; i++) {
+			ITRecord record = new ITRecord();
+			record.setStr("record " + i);
+			records.add(record);
+		}
+		SaveOptions saveOptions = SaveOptions.streaming(5);
+		saveOptions.setMaxRowsPerSheet(11);
+		saveOptions.addSharedStringsColumn("str");
+		List<DatumError> datumErrors = new ArrayList<DatumError>();
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		Ssio.save(headerMap, records, outputStream, null, datumErrors, saveOptions);
+
+		Workbook workbook = WorkbookFactory.create(new ByteArrayInputStream(outputStream.toByteArray()));
+		Assert.assertEquals(3, workbook.getNumberOfSheets());
+		Assert.assertEquals(10, workbook.getSheetAt(0).getLastRowNum());
+		Assert.assertEquals(10, workbook.getSheetAt(1).getLastRowNum());
+		Assert.assertEquals(5, workbook.getSheetAt(2).getLastRowNum());
+		Assert.assertEquals("Str", workbook.getSheetAt(2).getRow(0).getCell(0).getStringCellValue());
+		Assert.assertEquals("record 10", workbook.getSheetAt(1).getRow(1).getCell(0).getStringCellValue());
+		Assert.assertEquals("record 24", workbook.getSheetAt(2).getRow(5).getCell(0).getStringCellValue());
+		Assert.assertEquals(workbook.getSheetAt(0).getColumnWidth(0), workbook.getSheetAt(2).getColumnWidth(0));
+		Assert.assertEquals(25, datumErrors.size());
+		Assert.assertEquals(24, datumErrors.get(24).getRecordIndex());
+	}
+
+	@Test
+	public void saveTest_Parallel() throws InvalidFormatException, IOException {
+		LinkedHashMap<String, String> headerMap = new LinkedHashMap<String, String>();
+		headerMap.put("primInt", "Primitive Int");
+		headerMap.put("str", "Str");
+		headerMap.put("fake", "Not Real");
+
+		List<ITRecord> records = new ArrayList<ITRecord>();
+		for (int i = 0; i < 500; i++) {
+			ITRecord record = new ITRecord();
+			record.setPrimInt(i);
+			record.setStr("record " + i);
+			records.add(record);
+		}
+
+		SaveOptions sequentialOptions = new SaveOptions();
+		sequentialOptions.setTypedCells(true);
+		List<DatumError> sequentialErrors = new ArrayList<DatumError>();
+		ByteArrayOutputStream sequentialOutput = new ByteArrayOutputStream();
+		Ssio.save(headerMap, records, sequentialOutput, "!!ERROR!!", sequentialErrors, sequentialOptions);
+
+		SaveOptions parallelOptions = new SaveOptions();
+		parallelOptions.setTypedCells(true);
+		parallelOptions.setParallelism(4);
+		parallelOptions.setParallelBatchSize(7);
+		List<DatumError> parallelErrors = new ArrayList<DatumError>();
+		ByteArrayOutputStream parallelOutput = new ByteArrayOutputStream();
+		Ssio.save(headerMap, records, parallelOutput, "!!ERROR!!", parallelErrors, parallelOptions);
+
+		Assert.assertEquals(sequentialErrors.size(), parallelErrors.size());
+		for (int i = 0; i < sequentialErrors.size(); i++) {
+			Assert.assertEquals(sequentialErrors.get(i).getRecordIndex(), parallelErrors.get(i).getRecordIndex());
+			Assert.assertEquals(sequentialErrors.get(i).getPropName(), parallelErrors.get(i).getPropName());
+		}
+
+		Sheet sequentialSheet = WorkbookFactory.create(new ByteArrayInputStream(sequentialOutput.toByteArray())).getSheetAt(0);
+		Sheet parallelSheet = WorkbookFactory.create(new ByteArrayInputStream(parallelOutput.toByteArray())).getSheetAt(0);
+		Assert.assertEquals(500, parallelSheet.getLastRowNum());
+		for (int rowIndex = 0; rowIndex <= 500; rowIndex++) {
+			for (int columnIndex = 0; columnIndex < 3; columnIndex++) {
+				Cell expected = sequentialSheet.getRow(rowIndex).getCell(columnIndex);
+				Cell actual = parallelSheet.getRow(rowIndex).getCell(columnIndex);
+				Assert.assertEquals(expected.getCellType(), actual.getCellType());
+				Assert.assertEquals(expected.toString(), actual.toString());
+				Assert.assertEquals(expected.getCellStyle().getIndex(), actual.getCellStyle().getIndex());
+			}
+		}
+		Assert.assertEquals(499d, parallelSheet.getRow(500).getCell(0).getNumericCellValue());
+	}
+
+	@Test
+	public void saveTest_Parallel_CallerExecutor() throws InvalidFormatException, IOException {
+		LinkedHashMap<String, String> headerMap = new LinkedHashMap<String, String>();
+		headerMap.put("str", "Str");
+
+		List<ITRecord> records = new ArrayList<ITRecord>();
+		for (int i = 0; i < 100; i++) {
+			ITRecord record = new ITRecord();
+			record.setStr("record " + i);
+			records.add(record);
+		}
+
+		AtomicInteger threadCount = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(2, r -> {
+			threadCount.incrementAndGet();
+			return new Thread(r);
+		});
+		try {
+			SaveOptions saveOptions = new SaveOptions();
+			saveOptions.setParallelism(2);
+			saveOptions.setParallelBatchSize(7);
+			saveOptions.setExecutor(executor);
+			for (int i = 0; i < 2; i++) {
+				ByteArrayOutputStream output = new ByteArrayOutputStream();
+				Ssio.save(headerMap, records, output, null, null, saveOptions);
+				Sheet sheet = WorkbookFactory.create(new ByteArrayInputStream(output.toByteArray())).getSheetAt(0);
+				Assert.assertEquals(100, sheet.getLastRowNum());
+				Assert.assertEquals("record 99", sheet.getRow(100).getCell(0).getStringCellValue());
+			}
+
+			Assert.assertFalse(executor.isShutdown());
+			Assert.assertTrue(threadCount.get() > 0);
+			Assert.assertTrue(threadCount.get() <= 2);
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void saveTest_CompressionLevel() throws InvalidFormatException, IOException {
+		LinkedHashMap<String, String> headerMap = new LinkedHashMap<String, String>();
+		headerMap.put("str", "Str");
+
+		List<ITRecord> records = new ArrayList<ITRecord>();
+		for (int i = 0; i < 200; i++) {
+			ITRecord record = new ITRecord();
+			record.setStr("record " + i);
+			records.add(record);
+		}
+
+		SaveOptions storedOptions = new SaveOptions();
+		storedOptions.setCompressionLevel(0);
+		ByteArrayOutputStream storedOutput = new ByteArrayOutputStream();
+		Ssio.save(headerMap, records, storedOutput, null, null, storedOptions);
+
+		SaveOptions bestOptions = new SaveOptions();
+		bestOptions.setCompressionLevel(9);
+		ByteArrayOutputStream bestOutput = new ByteArrayOutputStream();
+		Ssio.save(headerMap, records, bestOutput, null, null, bestOptions);
+
+		Assert.assertTrue(storedOutput.size() > bestOutput.size());
+		for (ByteArrayOutputStream output : Arrays.asList(storedOutput, bestOutput)) {
+			Sheet sheet = WorkbookFactory.create(new ByteArrayInputStream(output.toByteArray())).getSheetAt(0);
+			Assert.assertEquals(200, sheet.getLastRowNum());
+			Assert.assertEquals("record 199", sheet.getRow(200).getCell(0).getStringCellValue());
+		}
+	}
+
+	@Test
+	public void saveTest_ToPathOrChannel() throws InvalidFormatException, IOException {
+		LinkedHashMap<String, String> headerMap = new LinkedHashMap<String, String>();
+		headerMap.put("str", "Str");
+		ITRecord record = new ITRecord();
+		record.setStr("some str");
+		List<ITRecord> records = Arrays.asList(record);
+
+		Path file = Files.createTempFile("sep4j-test", ".xlsx");
+		try {
+			Ssio.save(headerMap, records, file, null, null, null);
+			Sheet sheet = WorkbookFactory.create(new ByteArrayInputStream(Files.readAllBytes(file))).getSheetAt(0);
+			Assert.assertEquals("some str", sheet.getRow(1).getCell(0).getStringCellValue());
+		} finally {
+			Files.delete(file);
+		}
+
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		WritableByteChannel channel = Channels.newChannel(outputStream);
+		Ssio.save(headerMap, records, channel, null, null, null);
+		Assert.assertTrue(channel.isOpen());
+		Sheet sheet = WorkbookFactory.create(new ByteArrayInputStream(outputStream.toByteArray())).getSheetAt(0);
+		Assert.assertEquals("some str", sheet.getRow(1).getCell(0).getStringCellValue());
+	}
+
+	@Test
+	public void saveTest_ToPath_FileKeptOnFailure() throws IOException {
+		LinkedHashMap<String, String> headerMap = new LinkedHashMap<String, String>();
+		headerMap.put("str", "Str");
+		Path dir = Files.createTempDirectory("sep4j-test");
+		Path file = dir.resolve("existing.xlsx");
+		Files.write(file, "old".getBytes("UTF-8"));
+		try {
+			// invalid arguments
+			try {
+				Ssio.save(new LinkedHashMap<String, String>(), Arrays.asList(new ITRecord()), file, null, null, null);
+				Assert.fail("the header map should be rejected");
+			} catch (IllegalArgumentException e) {
+				// expected
+			}
+			Assert.assertEquals("old", new String(Files.readAllBytes(file), "UTF-8"));
+
+			// a failure in the middle of the save
+			Iterable<ITRecord> failingRecords = () -> IntStream.range(0, 10).mapToObj(i -> {
+				if (i == 5) {
+					throw new IllegalStateException("the cursor is gone");
+				}
+				return new ITRecord();
+			}).iterator();
+			try {
+				Ssio.save(headerMap, failingRecords, file, null, null, null);
+				Assert.fail("the failure should be thrown");
+			} catch (IllegalStateException e) {
+				Assert.assertEquals("the cursor is gone", e.getMessage());
+			}
+			Assert.assertEquals("old", new String(Files.readAllBytes(file), "UTF-8"));
+			Assert.assertEquals(1, dir.toFile().list().length);
+		} finally {
+			FileUtils.deleteDirectory(dir.toFile());
+		}
+	}
+
+	@Test
+	public void saveIfNoDatumErrorTest_ToPathOrChannel() throws InvalidFormatException, IOException {
+		LinkedHashMap<String, String> headerMap = new LinkedHashMap<String, String>();
+		headerMap.put("str", "Str");
+		headerMap.put("fake", "Not Real");
+		List<ITRecord> records = Arrays.asList(new ITRecord());
+
+		Path dir = Files.createTempDirectory("sep4j-test");
+		Path file = dir.resolve("users.xlsx");
+		try {
+			List<DatumError> datumErrors = new ArrayList<DatumError>();
+			Ssio.saveIfNoDatumError(headerMap, records, file, null, datumErrors, null);
+			Assert.assertEquals(1, datumErrors.size());
+			Assert.assertFalse(Files.exists(file));
+			Assert.assertEquals(0, dir.toFile().list().length);
+
+			headerMap.remove("fake");
+			Ssio.saveIfNoDatumError(headerMap, records, file, null, new ArrayList<DatumError>(), null);
+			Sheet sheet = WorkbookFactory.create(new ByteArrayInputStream(Files.readAllBytes(file))).getSheetAt(0);
+			Assert.assertEquals("Str", sheet.getRow(0).getCell(0).getStringCellValue());
+		} finally {
+			FileUtils.deleteDirectory(dir.toFile());
+		}
+
+		headerMap.put("fake", "Not Real");
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		List<DatumError> datumErrors = new ArrayList<DatumError>();
+		Ssio.saveIfNoDatumError(headerMap, records, Channels.newChannel(outputStream), null, datumErrors, null);
+		Assert.assertEquals(1, datumErrors.size());
+		Assert.assertEquals(0, outputStream.size());
+	}
+
+	@Test
+	public void saveTest_DirectWriting_SameAsPoi() throws InvalidFormatException, IOException, InvalidHeaderRowException {
+		LinkedHashMap<String, String> headerMap = new LinkedHashMap<String, String>();
+		headerMap.put("primInt", "Primitive Int");
+		headerMap.put("objDouble", "Object Double");
+		headerMap.put("objBoolean", "Object Boolean");
+		headerMap.put("bigInteger", "Big Integer");
+		headerMap.put("str", "Str");
+		headerMap.put("date", "Date");
+		headerMap.put("fake", "Not Real");
+
+		List<ITRecord> records = new ArrayList<ITRecord>();
+		for (int i = 0; i < 25; i++) {
+			ITRecord record = new ITRecord();
+			record.setPrimInt(i);
+			record.setObjDouble(i % 3 == 0 ? null : i + 0.5);
+			record.setObjBoolean(i % 2 == 0);
+			record.setBigInteger(new BigInteger("1234567890123456789").add(BigInteger.valueOf(i)));
+			record.setStr(i % 5 == 0 ? " <a & \"b\"> " : "str " + (i % 4));
+			record.setDate(DateUtils.addDays(new Date(0), i));
+			records.add(record);
+		}
+
+		for (String placeholder : new String[] { "!!ERROR!!", null }) {
+			for (boolean typedCells : new boolean[] { false, true }) {
+				assertDirectWritingSameAsPoi(headerMap, records, placeholder, typedCells);
+			}
+		}
+	}
+
+	private void assertDirectWritingSameAsPoi(LinkedHashMap<String, String> headerMap, List<ITRecord> records, String placeholder,
+			boolean typedCells) throws InvalidFormatException, IOException {
+		SaveOptions poiOptions = SaveOptions.streaming(10);
+		poiOptions.setTypedCells(typedCells);
+		poiOptions.setMaxRowsPerSheet(11);
+		poiOptions.setAutoWidthSampleRows(12);
+		poiOptions.addSharedStringsColumn("str");
+		List<DatumError> poiErrors = new ArrayList<DatumError>();
+		ByteArrayOutputStream poiOutput = new ByteArrayOutputStream();
+		Ssio.save(headerMap, records, poiOutput, placeholder, poiErrors, poiOptions);
+
+		SaveOptions directOptions = SaveOptions.streaming(10);
+		directOptions.setTypedCells(typedCells);
+		directOptions.setMaxRowsPerSheet(11);
+		directOptions.setAutoWidthSampleRows(12);
+		directOptions.addSharedStringsColumn("str");
+		directOptions.setDirectWriting(true);
+		List<DatumError> directErrors = new ArrayList<DatumError>();
+		ByteArrayOutputStream directOutput = new ByteArrayOutputStream();
+		Ssio.save(headerMap, records, directOutput, placeholder, directErrors, directOptions);
+
+		Assert.assertEquals(poiErrors.toString(), directErrors.toString());
+		Workbook poiWorkbook = WorkbookFactory.create(new ByteArrayInputStream(poiOutput.toByteArray()));
+		Workbook directWorkbook = WorkbookFactory.create(new ByteArrayInputStream(directOutput.toByteArray()));
+		Assert.assertEquals(3, directWorkbook.getNumberOfSheets());
+		for (int sheetIndex = 0; sheetIndex < 3; sheetIndex++) {
+			Sheet poiSheet = poiWorkbook.getSheetAt(sheetIndex);
+			Sheet directSheet = directWorkbook.getSheetAt(sheetIndex);
+			Assert.assertEquals(poiWorkbook.getSheetName(sheetIndex), directWorkbook.getSheetName(sheetIndex));
+			Assert.assertEquals(poiSheet.getLastRowNum(), directSheet.getLastRowNum());
+			for (int columnIndex = 0; columnIndex < headerMap.size(); columnIndex++) {
+				Assert.assertEquals(poiSheet.getColumnWidth(columnIndex), directSheet.getColumnWidth(columnIndex));
+			}
+			for (int rowIndex = 0; rowIndex <= poiSheet.getLastRowNum(); rowIndex++) {
+				for (int columnIndex = 0; columnIndex < headerMap.size(); columnIndex++) {
+					String message = "placeholder = " + placeholder + ", typedCells = " + typedCells + ", sheet " + sheetIndex + ", row " + rowIndex + ", column "
+							+ columnIndex;
+					Cell expected = poiSheet.getRow(rowIndex).getCell(columnIndex);
+					Cell actual = directSheet.getRow(rowIndex).getCell(columnIndex);
+					if (expected == null || expected.getCellType() == Cell.CELL_TYPE_BLANK) {
+						Assert.assertTrue(message, actual == null || actual.getCellType() == Cell.CELL_TYPE_BLANK);
+						// a blank datum error cell is still marked
+						Assert.assertEquals(message, getFillPattern(expected), getFillPattern(actual));
+						continue;
+					}
+					Assert.assertEquals(message, expected.getCellType(), actual.getCellType());
+					Assert.assertEquals(message, expected.toString(), actual.toString());
+					Assert.assertEquals(message, expected.getCellStyle().getFillForegroundColor(), actual.getCellStyle()
+							.getFillForegroundColor());
+					Assert.assertEquals(message, expected.getCellStyle().getBorderTop(), actual.getCellStyle().getBorderTop());
+					Assert.assertEquals(message, expected.getCellStyle().getDataFormatString(), actual.getCellStyle()
+							.getDataFormatString());
+				}
+			}
+		}
+		Assert.assertEquals(" <a & \"b\"> ", directWorkbook.getSheetAt(0).getRow(1).getCell(4).getStringCellValue());
+	}
+
+	private short getFillPattern(Cell cell) {
+		return cell == null ? CellStyle.NO_FILL : cell.getCellStyle().getFillPattern();
+	}
+
+	@Test
+	public void saveTest_DirectWriting_EscapedText() throws InvalidFormatException, IOException, InvalidHeaderRowException {
+		LinkedHashMap<String, String> headerMap = new LinkedHashMap<String, String>();
+		headerMap.put("str", "Str <&>");
+		headerMap.put("primInt", "Primitive Int");
+
+		List<ITRecord> records = new ArrayList<ITRecord>();
+		String[] texts = { "_x0041_ \u0001 <a>", "  \"b\" & c", "line\nbreak" };
+		for (int i = 0; i < texts.length; i++) {
+			ITRecord record = new ITRecord();
+			record.setStr(texts[i]);
+			record.setPrimInt(i);
+			records.add(record);
+		}
+
+		SaveOptions saveOptions = new SaveOptions();
+		saveOptions.setDirectWriting(true);
+		saveOptions.addSharedStringsColumn("str");
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		Ssio.save(headerMap, records, output, null, null, saveOptions);
+
+		Workbook workbook = WorkbookFactory.create(new ByteArrayInputStream(output.toByteArray()));
+		Sheet sheet = workbook.getSheetAt(0);
+		Assert.assertEquals("Str <&>", sheet.getRow(0).getCell(0).getStringCellValue());
+		for (int i = 0; i < texts.length; i++) {
+			Assert.assertEquals(texts[i], sheet.getRow(i + 1).getCell(0).getStringCellValue());
+		}
+
+		Map<String, String> reverseHeaderMap = new HashMap<String, String>();
+		reverseHeaderMap.put("Str <&>", "str");
+		List<ITRecord> parsed = Ssio.parse(reverseHeaderMap, new ByteArrayInputStream(output.toByteArray()), null,
+				ITRecord.class, ParseOptions.streaming());
+		Assert.assertEquals(texts.length, parsed.size());
+		for (int i = 0; i < texts.length; i++) {
+			Assert.assertEquals(StringUtils.trimToNull(texts[i]), parsed.get(i).getStr());
+		}
+	}
+
+	@Test
+	public void saveTest_AutoWidth() throws InvalidFormatException, IOException {
+		LinkedHashMap<String, String> headerMap = new LinkedHashMap<String, String>();
+		headerMap.put("primInt", "Int");
+		headerMap.put("str", "Str");
+
+		List<ITRecord> records = new ArrayList<ITRecord>();
+		for (int i = 0; i < 10; i++) {
+			ITRecord record = new ITRecord();
+			record.setStr(i == 0 ? "a string of 24 chars ..." : "short");
+			records.add(record);
+		}
+		ITRecord notSampled = new ITRecord();
+		notSampled.setStr("a string beyond the sample rows, which doesn't count");
+		records.add(notSampled);
+
+		SaveOptions saveOptions = SaveOptions.streaming(5);
+		saveOptions.setAutoWidthSampleRows(10);
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		Ssio.save(headerMap, records, outputStream, null, null, saveOptions);
+
+		Sheet sheet = WorkbookFactory.create(new ByteArrayInputStream(outputStream.toByteArray())).getSheetAt(0);
+		Assert.assertEquals((3 + 2) * 256, sheet.getColumnWidth(0));
+		Assert.assertEquals((24 + 2) * 256, sheet.getColumnWidth(1));
+	}
+
+	@Test
+	public void saveTest_TypedCells() throws InvalidFormatException, IOException, InvalidHeaderRowException, ParseException {
+		LinkedHashMap<String, String> headerMap = new LinkedHashMap<String, String>();
+		headerMap.put("primInt", "Primitive Int");
+		headerMap.put("primFloat", "Primitive Float");
+		headerMap.put("primLong", "Primitive Long");
+		headerMap.put("objBoolean", "Object Boolean");
+		headerMap.put("bigDecimal", "Big Decimal");
+		headerMap.put("date", "Date");
+		headerMap.put("str", "String");
+
+		ITRecord record = new ITRecord();
+		record.setPrimInt(123);
+		record.setPrimFloat(1.02f);
+		record.setPrimLong(Long.MAX_VALUE);
+		record.setObjBoolean(true);
+		record.setBigDecimal(new BigDecimal("123456789.123456789"));
+		record.setDate(DateUtils.parseDate("2015-03-04 05:06:07", new String[] { "yyyy-MM-dd HH:mm:ss" }));
+
+		SaveOptions saveOptions = new SaveOptions();
+		saveOptions.setTypedCells(true);
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		Ssio.save(headerMap, Arrays.asList(record), outputStream, null, null, saveOptions);
+		byte[] spreadsheet = outputStream.toByteArray();
+
+		Row row = WorkbookFactory.create(new ByteArrayInputStream(spreadsheet)).getSheetAt(0).getRow(1);
+		Assert.assertEquals(123d, row.getCell(0).getNumericCellValue());
+		Assert.assertEquals(1.02d, row.getCell(1).getNumericCellValue());
+		// a double can't hold it
+		Assert.assertEquals(String.valueOf(Long.MAX_VALUE), row.getCell(2).getStringCellValue());
+		Assert.assertEquals(true, row.getCell(3).getBooleanCellValue());
+		Assert.assertEquals("123456789.123456789", row.getCell(4).getStringCellValue());
+		Assert.assertEquals(record.getDate(), row.getCell(5).getDateCellValue());
+		Assert.assertEquals(SaveOptions.DEFAULT_DATE_FORMAT, row.getCell(5).getCellStyle().getDataFormatString());
+		Assert.assertEquals(Cell.CELL_TYPE_BLANK, row.getCell(6).getCellType());
+
+		// round trip
+		List<ITRecord> parsed = Ssio.parse(reverse(headerMap), new ByteArrayInputStream(spreadsheet), null, ITRecord.class);
+		Assert.assertEquals(ToStringBuilder.reflectionToString(record, ToStringStyle.SHORT_PREFIX_STYLE),
+				ToStringBuilder.reflectionToString(parsed.get(0), ToStringStyle.SHORT_PREFIX_STYLE));
+	}
+
+	@Test
+	public void saveTest_Streaming_SharedStringsColumns() throws InvalidFormatException, IOException, InvalidHeaderRowException {
+		LinkedHashMap<String, String> headerMap = new LinkedHashMap<String, String>();
+		headerMap.put("primInt", "Primitive Int");
+		headerMap.put("str", "String");
+
+		List<ITRecord> records = new ArrayList<ITRecord>();
+		for (int i = 0; i < 200; i++) {
+			ITRecord record = new ITRecord();
+			record.setPrimInt(i);
+			record.setStr(i % 3 == 0 ? "<one & only>" : i % 3 == 1 ? " two " : "three");
+			records.add(record);
+		}
+		SaveOptions saveOptions = SaveOptions.streaming(10);
+		ByteArrayOutputStream inlineOutput = new ByteArrayOutputStream();
+		Ssio.save(headerMap, records, inlineOutput, null, null, saveOptions);
+
+		saveOptions.addSharedStringsColumn("str");
+		ByteArrayOutputStream sharedOutput = new ByteArrayOutputStream();
+		Ssio.save(headerMap, records, sharedOutput, null, null, saveOptions);
+		byte[] spreadsheet = sharedOutput.toByteArray();
+		FileUtils.writeByteArrayToFile(createFile("saveTest_Streaming_SharedStringsColumns"), spreadsheet);
+
+		Assert.assertTrue(spreadsheet.length < inlineOutput.toByteArray().length);
+		Sheet sheet = WorkbookFactory.create(new ByteArrayInputStream(spreadsheet)).getSheetAt(0);
+		Assert.assertEquals("String", sheet.getRow(0).getCell(1).getStringCellValue());
+		Assert.assertEquals("<one & only>", sheet.getRow(1).getCell(1).getStringCellValue());
+		Assert.assertEquals(" two ", sheet.getRow(2).getCell(1).getStringCellValue());
+		Assert.assertEquals("three", sheet.getRow(3).getCell(1).getStringCellValue());
+		Assert.assertEquals("199", sheet.getRow(200).getCell(0).getStringCellValue());
+
+		// the streaming reader can read it too
+		List<ITRecord> parsed = Ssio.parse(reverse(headerMap), new ByteArrayInputStream(spreadsheet), null, ITRecord.class,
+				ParseOptions.streaming());
+		Assert.assertEquals(200, parsed.size());
+		Assert.assertEquals("two", parsed.get(1).getStr());
+	}
+
+	@Test
+	public void saveIfNoErrorTest_Streaming() throws InvalidFormatException, IOException {
+		LinkedHashMap<String, String> headerMap = new LinkedHashMap<String, String>();
+		headerMap.put("fake", "Not Real");
+
+		Collection<ITRecord> records = Arrays.asList(new ITRecord());
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		List<DatumError> datumErrors = new ArrayList<DatumError>();
+
+		Ssio.saveIfNoDatumError(headerMap, records, outputStream, null, datumErrors, SaveOptions.streaming(10));
+
+		Assert.assertEquals(0, outputStream.toByteArray().length);
+		Assert.assertEquals(1, datumErrors.size());
+	}
+
+	@Test
+	public void saveTest_Streaming_TempFilesDeleted() {
+		LinkedHashMap<String, String> headerMap = new LinkedHashMap<String, String>();
+		headerMap.put("primInt", "Primitive Int");
+		headerMap.put("fake", "Not Real");
+
+		List<ITRecord> records = new ArrayList<ITRecord>();
+		for (int i = 0; i < 50; i++) {
+			ITRecord record = new ITRecord();
+			record.setPrimInt(i);
+			records.add(record);
+		}
+		Set<String> tempFilesBefore = listSxssfTempFiles();
+
+		SaveOptions saveOptions = SaveOptions.streaming(10);
+		saveOptions.setMaxRowsPerSheet(21);
+		Ssio.save(headerMap, records, new ByteArrayOutputStream(), "!!ERROR!!", new ArrayList<DatumError>(), saveOptions);
+		Assert.assertEquals(tempFilesBefore, listSxssfTempFiles());
+
+		// a workbook which is not written
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		Ssio.saveIfNoDatumError(headerMap, records, outputStream, null, new ArrayList<DatumError>(), saveOptions);
+		Assert.assertEquals(0, outputStream.toByteArray().length);
+		Assert.assertEquals(tempFilesBefore, listSxssfTempFiles());
+	}
+
+	private Set<String> listSxssfTempFiles() {
+		Set<String> names = new HashSet<String>();
+		String[] files = new File(System.getProperty("java.io.tmpdir")).list();
+		for (String name : files == null ? new String[0] : files) {
+			if (name.startsWith("poi-sxssf-sheet")) {
+				names.add(name);
+			}
+		}
+		return names;
+	}
+
+	@Test
+	public void parseSheetsTest() throws InvalidFormatException, InvalidHeaderRowException, IOException {
+		byte[] spreadsheet = createMonthlySheets();
+		Map<String, String> reverseHeaderMap = new HashMap<String, String>();
+		reverseHeaderMap.put("Int", "primInt");
+		reverseHeaderMap.put("Str", "str");
+
+		for (ParseOptions parseOptions : Arrays.asList(new ParseOptions(), ParseOptions.streaming())) {
+			Map<String, List<CellError>> cellErrors = new HashMap<String, List<CellError>>();
+			Map<String, List<ITRecord>> records = Ssio.parseSheets(reverseHeaderMap, new ByteArrayInputStream(spreadsheet), cellErrors,
+					ITRecord.class, parseOptions);
+
+			Assert.assertEquals(Arrays.asList("Jan", "Feb", "Mar"), new ArrayList<String>(records.keySet()));
+			Assert.assertEquals(1, records.get("Jan").get(0).getPrimInt());
+			Assert.assertEquals("Jan-2", records.get("Jan").get(1).getStr());
+			Assert.assertEquals("Mar-1", records.get("Mar").get(0).getStr());
+			Assert.assertTrue(cellErrors.get("Jan").isEmpty());
+			Assert.assertEquals(1, cellErrors.get("Feb").size());
+			Assert.assertEquals("Feb", cellErrors.get("Feb").get(0).getSheetName());
+			Assert.assertEquals(2, cellErrors.get("Feb").get(0).getRowIndex());
+		}
+	}
+
+	@Test
+	public void parseSheetsTest_SelectedSheets() throws InvalidFormatException, InvalidHeaderRowException, IOException {
+		Map<String, String> reverseHeaderMap = new HashMap<String, String>();
+		reverseHeaderMap.put("Str", "str");
+		ParseOptions parseOptions = ParseOptions.streaming();
+		parseOptions.addSheetName("Mar");
+		parseOptions.addSheetName("Jan");
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Map<String, List<ITRecord>> records = Ssio.parseSheets(reverseHeaderMap, new ByteArrayInputStream(createMonthlySheets()), null,
+					ITRecord.class, parseOptions, executor);
+			Assert.assertEquals(Arrays.asList("Jan", "Mar"), new ArrayList<String>(records.keySet()));
+			Assert.assertEquals(2, records.get("Mar").size());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void parseSheetsTest_NoSuchSheet() throws InvalidFormatException, InvalidHeaderRowException, IOException {
+		expectedEx.expect(IllegalArgumentException.class);
+		expectedEx.expectMessage("Apr");
+		ParseOptions parseOptions = new ParseOptions();
+		parseOptions.addSheetName("Apr");
+		Ssio.parseSheets(ITRecord.getReverseHeaderMap(), new ByteArrayInputStream(createMonthlySheets()), null, ITRecord.class, parseOptions);
+	}
+
+	@Test(expected = InvalidHeaderRowException.class)
+	public void parseSheetsTest_InvalidHeader() throws InvalidFormatException, InvalidHeaderRowException, IOException {
+		Map<String, String> reverseHeaderMap = new HashMap<String, String>();
+		reverseHeaderMap.put("Not Real", "str");
+		Ssio.parseSheets(reverseHeaderMap, new ByteArrayInputStream(createMonthlySheets()), null, ITRecord.class, ParseOptions.streaming());
+	}
+
+	/**
+	 * 3 sheets of the same layout. The second row of "Feb" has a bad int
+	 */
+	private byte[] createMonthlySheets() throws IOException {
+		Workbook workbook = new XSSFWorkbook();
+		for (String month : Arrays.asList("Jan", "Feb", "Mar")) {
+			Sheet sheet = workbook.createSheet(month);
+			Row header = sheet.createRow(0);
+			header.createCell(0).setCellValue("Int");
+			header.createCell(1).setCellValue("Str");
+			for (int i = 1; i <= 2; i++) {
+				Row row = sheet.createRow(i);
+				if (month.equals("Feb") && i == 2) {
+					row.createCell(0).setCellValue("not an int");
+				} else {
+					row.createCell(0).setCellValue(i);
+				}
+				row.createCell(1).setCellValue(month + "-" + i);
+			}
+		}
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		workbook.write(outputStream);
+		return outputStream.toByteArray();
+	}
+
 	@Test(expected = InvalidHeaderRowException.class)
 	public void parseTest_InvalidHeader() throws InvalidFormatException, InvalidHeaderRowException {
 		ByteArrayInputStream in = toByteArrayInputStreamAndClose(this.getClass().getResourceAsStream("/parse-test-all-headers-wrong.xlsx"));
@@ -262,6 +1065,7 @@ public class SsioIntegrationTest {
 		Assert.assertEquals(1, cellErrors.size());
 		Assert.assertEquals(2, error.getRowIndexOneBased());
 		Assert.assertEquals(3, error.getColumnIndexOneBased());
+		Assert.assertEquals(CellErrorReason.NOT_CONVERTIBLE, error.getReason());
 		Assert.assertTrue(error.getCause().getMessage().contains("suitable setter"));
 		Assert.assertTrue(error.getCause().getMessage().contains("abc"));
 	}
@@ -332,6 +1136,448 @@ public class SsioIntegrationTest {
 
 	}
 
+	@Test
+	public void parseTest_Parallel_SameAsSequential() throws InvalidFormatException, InvalidHeaderRowException, IOException {
+		Workbook workbook = new XSSFWorkbook();
+		Sheet sheet = workbook.createSheet();
+		Row header = sheet.createRow(0);
+		header.createCell(0).setCellValue("Int");
+		header.createCell(1).setCellValue("Str");
+		for (int i = 1; i <= 1000; i++) {
+			Row row = sheet.createRow(i);
+			if (i % 13 == 0) {
+				row.createCell(0).setCellValue("bad " + i);
+			} else {
+				row.createCell(0).setCellValue(i);
+			}
+			row.createCell(1).setCellValue("row " + i);
+		}
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		workbook.write(outputStream);
+		byte[] spreadsheet = outputStream.toByteArray();
+		Map<String, String> reverseHeaderMap = new HashMap<String, String>();
+		reverseHeaderMap.put("Int", "primInt");
+		reverseHeaderMap.put("Str", "str");
+
+		List<CellError> cellErrors = new ArrayList<CellError>();
+		List<ITRecord> records = Ssio.parse(reverseHeaderMap, new ByteArrayInputStream(spreadsheet), cellErrors, ITRecord.class,
+				ParseOptions.streaming());
+
+		for (ParseOptions parseOptions : Arrays.asList(new ParseOptions(), ParseOptions.streaming())) {
+			parseOptions.setParallelism(4);
+			parseOptions.setParallelChunkSize(7);
+			List<CellError> parallelCellErrors = new ArrayList<CellError>();
+			List<ITRecord> parallelRecords = Ssio.parse(reverseHeaderMap, new ByteArrayInputStream(spreadsheet), parallelCellErrors,
+					ITRecord.class, parseOptions);
+
+			Assert.assertEquals(1000, parallelRecords.size());
+			for (int i = 0; i < records.size(); i++) {
+				Assert.assertEquals(ToStringBuilder.reflectionToString(records.get(i), ToStringStyle.SHORT_PREFIX_STYLE),
+						ToStringBuilder.reflectionToString(parallelRecords.get(i), ToStringStyle.SHORT_PREFIX_STYLE));
+			}
+			Assert.assertEquals(76, parallelCellErrors.size());
+			Assert.assertEquals(cellErrors.toString(), parallelCellErrors.toString());
+		}
+	}
+
+	@Test
+	public void parseAsIteratorTest_Parallel_CallerExecutor() throws InvalidFormatException, InvalidHeaderRowException, IOException {
+		Workbook workbook = new XSSFWorkbook();
+		Sheet sheet = workbook.createSheet();
+		sheet.createRow(0).createCell(0).setCellValue("Str");
+		for (int i = 1; i <= 200; i++) {
+			sheet.createRow(i).createCell(0).setCellValue("row " + i);
+		}
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		workbook.write(outputStream);
+		byte[] spreadsheet = outputStream.toByteArray();
+		Map<String, String> reverseHeaderMap = new HashMap<String, String>();
+		reverseHeaderMap.put("Str", "str");
+
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			ParseOptions parseOptions = ParseOptions.streaming();
+			parseOptions.setParallelism(2);
+			parseOptions.setParallelChunkSize(7);
+			parseOptions.setExecutor(executor);
+
+			// abandoned early
+			RecordIterator<ITRecord> iterator = Ssio.parseAsIterator(reverseHeaderMap, new ByteArrayInputStream(spreadsheet),
+					ITRecord.class, null, parseOptions);
+			Assert.assertEquals("row 1", iterator.next().getStr());
+			iterator.close();
+			Assert.assertFalse(executor.isShutdown());
+
+			List<ITRecord> records = Ssio.parse(reverseHeaderMap, new ByteArrayInputStream(spreadsheet), null, ITRecord.class,
+					parseOptions);
+			Assert.assertEquals(200, records.size());
+			Assert.assertEquals("row 200", records.get(199).getStr());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void csvTest_RoundTrip() throws InvalidHeaderRowException {
+		LinkedHashMap<String, String> headerMap = new LinkedHashMap<String, String>();
+		headerMap.put("primInt", "Primitive Int");
+		headerMap.put("objDouble", "Double");
+		headerMap.put("str", "Str, with a comma");
+		headerMap.put("fake", "Not Real");
+
+		List<ITRecord> records = new ArrayList<ITRecord>();
+		for (int i = 0; i < 3; i++) {
+			ITRecord record = new ITRecord();
+			record.setPrimInt(i);
+			record.setObjDouble(i + 0.5);
+			records.add(record);
+		}
+		records.get(0).setStr("plain");
+		records.get(1).setStr("a \"quoted\", comma");
+		records.get(2).setStr("two\r\nlines");
+
+		List<DatumError> datumErrors = new ArrayList<DatumError>();
+		StringWriter writer = new StringWriter();
+		Ssio.saveCsv(headerMap, records, writer, "!!ERROR!!", datumErrors, null);
+
+		Assert.assertEquals(3, datumErrors.size());
+		Assert.assertEquals(2, datumErrors.get(2).getRecordIndex());
+		Assert.assertEquals("fake", datumErrors.get(2).getPropName());
+		Assert.assertTrue(writer.toString().startsWith(
+				"Primitive Int,Double,\"Str, with a comma\",Not Real\r\n0,0.5,plain,!!ERROR!!\r\n1,1.5,\"a \"\"quoted\"\", comma\",!!ERROR!!\r\n"));
+
+		Map<String, String> reverseHeaderMap = new HashMap<String, String>();
+		reverseHeaderMap.put("Primitive Int", "primInt");
+		reverseHeaderMap.put("Double", "objDouble");
+		reverseHeaderMap.put("Str, with a comma", "str");
+		List<CellError> cellErrors = new ArrayList<CellError>();
+		List<ITRecord> parsed = Ssio.parseCsv(reverseHeaderMap, new StringReader(writer.toString()), cellErrors, ITRecord.class, null);
+
+		Assert.assertTrue(cellErrors.isEmpty());
+		Assert.assertEquals(3, parsed.size());
+		for (int i = 0; i < 3; i++) {
+			Assert.assertEquals(i, parsed.get(i).getPrimInt());
+			Assert.assertEquals(i + 0.5, parsed.get(i).getObjDouble());
+			Assert.assertEquals(records.get(i).getStr(), parsed.get(i).getStr());
+		}
+	}
+
+	@Test
+	public void parseCsvTest_CellErrors() throws InvalidHeaderRowException {
+		String csv = "\uFEFFInt;Str\r\n1;a\r\n\r\nbad;b\r\n3;\"c;d\"";
+		Map<String, String> reverseHeaderMap = new HashMap<String, String>();
+		reverseHeaderMap.put("Int", "primInt");
+		reverseHeaderMap.put("Str", "str");
+		ParseOptions parseOptions = new ParseOptions();
+		parseOptions.setCsvSeparator(';');
+
+		List<CellError> cellErrors = new ArrayList<CellError>();
+		List<ITRecord> records = Ssio.parseCsv(reverseHeaderMap, new StringReader(csv), cellErrors, ITRecord.class, parseOptions);
+
+		Assert.assertEquals(3, records.size());
+		Assert.assertEquals(1, records.get(0).getPrimInt());
+		Assert.assertEquals("b", records.get(1).getStr());
+		Assert.assertEquals(3, records.get(2).getPrimInt());
+		Assert.assertEquals("c;d", records.get(2).getStr());
+		Assert.assertEquals(1, cellErrors.size());
+		Assert.assertEquals(3, cellErrors.get(0).getRowIndex());
+		Assert.assertEquals("primInt", cellErrors.get(0).getPropName());
+		Assert.assertNull(cellErrors.get(0).getSheetName());
+	}
+
+	@Test(expected = InvalidHeaderRowException.class)
+	public void parseCsvTest_InvalidHeader() throws InvalidHeaderRowException {
+		Map<String, String> reverseHeaderMap = new HashMap<String, String>();
+		reverseHeaderMap.put("Int", "primInt");
+		Ssio.parseCsv(reverseHeaderMap, new StringReader("Something Else\r\n1\r\n"), null, ITRecord.class, null);
+	}
+
+	@Test
+	public void parseTest_FromFileOrChannel_SameAsStream() throws InvalidFormatException, InvalidHeaderRowException, IOException {
+		String[] resources = { "/parse-test-all-string-cells-input.xlsx", "/parse-test-all-free-type-input.xlsx",
+				"/parse-test-data-half-correct.xlsx", "/parse-test-excel97.xls" };
+		for (String resource : resources) {
+			byte[] bytes = IOUtils.toByteArray(toByteArrayInputStreamAndClose(this.getClass().getResourceAsStream(resource)));
+			File file = File.createTempFile("sep4j-test", resource.substring(resource.lastIndexOf('.')));
+			file.deleteOnExit();
+			FileUtils.writeByteArrayToFile(file, bytes);
+
+			for (ParseOptions parseOptions : Arrays.asList(new ParseOptions(), ParseOptions.streaming())) {
+				String message = resource + ", streaming = " + parseOptions.isStreaming();
+				List<CellError> cellErrors = new ArrayList<CellError>();
+				List<ITRecord> records = Ssio.parse(ITRecord.getReverseHeaderMap(), new ByteArrayInputStream(bytes), cellErrors,
+						ITRecord.class, parseOptions);
+
+				List<CellError> fileCellErrors = new ArrayList<CellError>();
+				List<ITRecord> fileRecords = Ssio.parse(ITRecord.getReverseHeaderMap(), file, fileCellErrors, ITRecord.class, parseOptions);
+				assertSameRecords(message, records, cellErrors, fileRecords, fileCellErrors);
+
+				List<CellError> pathCellErrors = new ArrayList<CellError>();
+				List<ITRecord> pathRecords = Ssio.parse(ITRecord.getReverseHeaderMap(), file.toPath(), pathCellErrors, ITRecord.class,
+						parseOptions);
+				assertSameRecords(message, records, cellErrors, pathRecords, pathCellErrors);
+
+				FileChannel fileChannel = FileChannel.open(file.toPath());
+				try {
+					List<CellError> channelCellErrors = new ArrayList<CellError>();
+					List<ITRecord> channelRecords = Ssio.parse(ITRecord.getReverseHeaderMap(), fileChannel, channelCellErrors,
+							ITRecord.class, parseOptions);
+					assertSameRecords(message, records, cellErrors, channelRecords, channelCellErrors);
+					Assert.assertTrue(fileChannel.isOpen());
+				} finally {
+					fileChannel.close();
+				}
+
+				List<CellError> memoryCellErrors = new ArrayList<CellError>();
+				List<ITRecord> memoryRecords = Ssio.parse(ITRecord.getReverseHeaderMap(), new ByteArraySeekableChannel(bytes),
+						memoryCellErrors, ITRecord.class, parseOptions);
+				assertSameRecords(message, records, cellErrors, memoryRecords, memoryCellErrors);
+			}
+			file.delete();
+		}
+	}
+
+	@Test(expected = InvalidFormatException.class)
+	public void parseTest_FromFile_InvalidFormat() throws InvalidFormatException, InvalidHeaderRowException, IOException {
+		File file = File.createTempFile("sep4j-test", ".txt");
+		file.deleteOnExit();
+		FileUtils.writeStringToFile(file, "not a spreadsheet");
+		try {
+			Ssio.parse(ITRecord.getReverseHeaderMap(), file, null, ITRecord.class, null);
+		} finally {
+			file.delete();
+		}
+	}
+
+	@Test
+	public void parseTest_XlsStreaming_SameAsWorkbook() throws InvalidFormatException, InvalidHeaderRowException, IOException {
+		Workbook workbook = new HSSFWorkbook();
+		CellStyle dateStyle = workbook.createCellStyle();
+		dateStyle.setDataFormat(workbook.createDataFormat().getFormat("yyyy-mm-dd hh:mm:ss"));
+		String[] headers = { "Primitive Int", "Object Double", "Object Boolean", "Big Decimal", "String", "Date" };
+		for (String sheetName : Arrays.asList("first", "second")) {
+			Sheet sheet = workbook.createSheet(sheetName);
+			Row header = sheet.createRow(0);
+			for (int columnIndex = 0; columnIndex < headers.length; columnIndex++) {
+				header.createCell(columnIndex).setCellValue(headers[columnIndex]);
+			}
+			for (int i = 1; i <= 150; i++) {
+				if (i % 10 == 3) {
+					continue;
+				}
+				Row row = sheet.createRow(i);
+				if (i % 10 == 5) {
+					continue;
+				}
+				if (i % 7 == 0) {
+					row.createCell(0).setCellValue("bad " + i);
+				} else {
+					row.createCell(0).setCellValue(i);
+				}
+				row.createCell(1).setCellValue(i + 0.25);
+				row.createCell(2).setCellValue(i % 2 == 0);
+				if (i % 4 == 0) {
+					row.createCell(3).setCellFormula("A2+1");
+				} else {
+					row.createCell(3).setCellValue(i * 1000000d);
+				}
+				row.createCell(4).setCellValue(" " + sheetName + " " + i + " ");
+				Cell dateCell = row.createCell(5);
+				dateCell.setCellValue(DateUtils.addDays(new Date(0), i));
+				dateCell.setCellStyle(dateStyle);
+				row.createCell(8).setCellStyle(dateStyle);
+			}
+		}
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		workbook.write(outputStream);
+		byte[] bytes = outputStream.toByteArray();
+
+		List<CellError> cellErrors = new ArrayList<CellError>();
+		List<ITRecord> records = Ssio.parse(ITRecord.getReverseHeaderMap(), new ByteArrayInputStream(bytes), cellErrors, ITRecord.class);
+		Assert.assertEquals(150 - 15, records.size());
+		Assert.assertEquals(" first 1 ".trim(), records.get(0).getStr());
+
+		List<CellError> streamingCellErrors = new ArrayList<CellError>();
+		List<ITRecord> streamingRecords = Ssio.parse(ITRecord.getReverseHeaderMap(), new ByteArrayInputStream(bytes), streamingCellErrors,
+				ITRecord.class, ParseOptions.streaming());
+		assertSameRecords("xls streaming", records, cellErrors, streamingRecords, streamingCellErrors);
+
+		Map<String, List<CellError>> sheetCellErrors = new HashMap<String, List<CellError>>();
+		Map<String, List<ITRecord>> sheetRecords = Ssio.parseSheets(ITRecord.getReverseHeaderMap(), new ByteArrayInputStream(bytes),
+				sheetCellErrors, ITRecord.class, null);
+		Map<String, List<CellError>> streamingSheetCellErrors = new HashMap<String, List<CellError>>();
+		Map<String, List<ITRecord>> streamingSheetRecords = Ssio.parseSheets(ITRecord.getReverseHeaderMap(), new ByteArrayInputStream(
+				bytes), streamingSheetCellErrors, ITRecord.class, ParseOptions.streaming());
+		Assert.assertEquals(Arrays.asList("first", "second"), new ArrayList<String>(streamingSheetRecords.keySet()));
+		for (String sheetName : sheetRecords.keySet()) {
+			assertSameRecords("xls streaming sheet " + sheetName, sheetRecords.get(sheetName), sheetCellErrors.get(sheetName),
+					streamingSheetRecords.get(sheetName), streamingSheetCellErrors.get(sheetName));
+		}
+		Assert.assertEquals("second 150", streamingSheetRecords.get("second").get(134).getStr());
+	}
+
+	private void assertSameRecords(String message, List<ITRecord> expectedRecords, List<CellError> expectedCellErrors,
+			List<ITRecord> actualRecords, List<CellError> actualCellErrors) {
+		Assert.assertEquals(message, expectedRecords.size(), actualRecords.size());
+		for (int i = 0; i < expectedRecords.size(); i++) {
+			Assert.assertEquals(message, ToStringBuilder.reflectionToString(expectedRecords.get(i), ToStringStyle.SHORT_PREFIX_STYLE),
+					ToStringBuilder.reflectionToString(actualRecords.get(i), ToStringStyle.SHORT_PREFIX_STYLE));
+		}
+		Assert.assertEquals(message, expectedCellErrors.toString(), actualCellErrors.toString());
+	}
+
+	/**
+	 * a channel which is not a file channel
+	 */
+	private static class ByteArraySeekableChannel implements SeekableByteChannel {
+		private final byte[] bytes;
+		private int position;
+		private boolean open = true;
+
+		ByteArraySeekableChannel(byte[] bytes) {
+			this.bytes = bytes;
+		}
+
+		public boolean isOpen() {
+			return open;
+		}
+
+		public void close() {
+			open = false;
+		}
+
+		public int read(ByteBuffer dst) {
+			if (position >= bytes.length) {
+				return -1;
+			}
+			int n = Math.min(dst.remaining(), bytes.length - position);
+			dst.put(bytes, position, n);
+			position += n;
+			return n;
+		}
+
+		public int write(ByteBuffer src) {
+			throw new UnsupportedOperationException();
+		}
+
+		public long position() {
+			return position;
+		}
+
+		public SeekableByteChannel position(long newPosition) {
+			position = (int) newPosition;
+			return this;
+		}
+
+		public long size() {
+			return bytes.length;
+		}
+
+		public SeekableByteChannel truncate(long size) {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+	@Test
+	public void parseTest_Streaming_SameAsInMemory() throws InvalidFormatException, InvalidHeaderRowException {
+		String[] files = { "/parse-test-all-string-cells-input.xlsx", "/parse-test-all-free-type-input.xlsx",
+				"/parse-test-data-half-correct.xlsx", "/parse-test-excel97.xls" };
+		for (String file : files) {
+			List<CellError> cellErrors = new ArrayList<CellError>();
+			List<ITRecord> records = Ssio.parse(ITRecord.getReverseHeaderMap(),
+					toByteArrayInputStreamAndClose(this.getClass().getResourceAsStream(file)), cellErrors, ITRecord.class);
+
+			List<CellError> streamingCellErrors = new ArrayList<CellError>();
+			List<ITRecord> streamingRecords = Ssio.parse(ITRecord.getReverseHeaderMap(),
+					toByteArrayInputStreamAndClose(this.getClass().getResourceAsStream(file)), streamingCellErrors, ITRecord.class,
+					ParseOptions.streaming());
+
+			Assert.assertEquals(file, records.size(), streamingRecords.size());
+			for (int i = 0; i < records.size(); i++) {
+				Assert.assertEquals(file, ToStringBuilder.reflectionToString(records.get(i), ToStringStyle.SHORT_PREFIX_STYLE),
+						ToStringBuilder.reflectionToString(streamingRecords.get(i), ToStringStyle.SHORT_PREFIX_STYLE));
+			}
+			Assert.assertEquals(file, cellErrors.toString(), streamingCellErrors.toString());
+		}
+	}
+
+	@Test
+	public void parseTest_Streaming_SavedBySsio() throws InvalidFormatException, InvalidHeaderRowException {
+		List<ITRecord> records = new ArrayList<ITRecord>();
+		for (int i = 0; i < 20; i++) {
+			ITRecord record = new ITRecord();
+			record.setPrimInt(i);
+			record.setStr(i % 2 == 0 ? " abc " + i : null);
+			record.setBigDecimal(new BigDecimal("123456789.123456789"));
+			records.add(record);
+		}
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		Ssio.save(ITRecord.getHeaderMap(), records, outputStream);
+
+		List<CellError> cellErrors = new ArrayList<CellError>();
+		List<ITRecord> parsed = Ssio.parse(ITRecord.getReverseHeaderMap(), new ByteArrayInputStream(outputStream.toByteArray()),
+				cellErrors, ITRecord.class, ParseOptions.streaming());
+
+		Assert.assertEquals(20, parsed.size());
+		Assert.assertEquals(19, parsed.get(19).getPrimInt());
+		Assert.assertEquals("abc 18", parsed.get(18).getStr());
+		Assert.assertNull(parsed.get(19).getStr());
+		Assert.assertEquals(new BigDecimal("123456789.123456789"), parsed.get(0).getBigDecimal());
+	}
+
+	@Test
+	public void parseTest_Consumers() throws InvalidFormatException, InvalidHeaderRowException {
+		ByteArrayInputStream in = toByteArrayInputStreamAndClose(this.getClass().getResourceAsStream("/parse-test-data-half-correct.xlsx"));
+		final List<Object> pushed = new ArrayList<Object>();
+		Ssio.parse(ITRecord.getReverseHeaderMap(), in, ITRecord.class, pushed::add, pushed::add, ParseOptions.streaming());
+
+		// the error of a row comes before the record of the row
+		Assert.assertEquals(2, pushed.size());
+		CellError error = (CellError) pushed.get(0);
+		Assert.assertEquals(2, error.getRowIndexOneBased());
+		Assert.assertEquals(3, error.getColumnIndexOneBased());
+		Assert.assertEquals(123, ((ITRecord) pushed.get(1)).getPrimInt());
+	}
+
+	@Test
+	public void parseAsStreamTest() throws InvalidFormatException, InvalidHeaderRowException {
+		List<ITRecord> records = new ArrayList<ITRecord>();
+		for (int i = 0; i < 20; i++) {
+			ITRecord record = new ITRecord();
+			record.setPrimInt(i);
+			records.add(record);
+		}
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		Ssio.save(ITRecord.getHeaderMap(), records, outputStream);
+		byte[] spreadsheet = outputStream.toByteArray();
+
+		// stop after a few rows
+		Stream<ITRecord> stream = Ssio.parseAsStream(ITRecord.getReverseHeaderMap(), new ByteArrayInputStream(spreadsheet),
+				ITRecord.class, null, ParseOptions.streaming());
+		try {
+			Assert.assertEquals(3, stream.filter(r -> r.getPrimInt() >= 3).findFirst().get().getPrimInt());
+		} finally {
+			stream.close();
+		}
+
+		// iterate to the end
+		RecordIterator<ITRecord> iterator = Ssio.parseAsIterator(ITRecord.getReverseHeaderMap(), new ByteArrayInputStream(
+				spreadsheet), ITRecord.class, null, null);
+		int count = 0;
+		while (iterator.hasNext()) {
+			Assert.assertEquals(count, iterator.next().getPrimInt());
+			count++;
+		}
+		Assert.assertEquals(20, count);
+		Assert.assertFalse(iterator.hasNext());
+	}
+
+	@Test(expected = InvalidHeaderRowException.class)
+	public void parseTest_Streaming_InvalidHeader() throws InvalidFormatException, InvalidHeaderRowException {
+		ByteArrayInputStream in = toByteArrayInputStreamAndClose(this.getClass().getResourceAsStream("/parse-test-all-headers-wrong.xlsx"));
+		Ssio.parse(ITRecord.getReverseHeaderMap(), in, null, ITRecord.class, ParseOptions.streaming());
+	}
+
 	// read outside input streams as bytes and then close them, so as to avoid
 	// try/finally snippet code in every parsing test
 	// method
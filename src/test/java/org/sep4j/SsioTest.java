@@ -1,11 +1,13 @@
 package org.sep4j;
 
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.zip.Deflater;
 
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellStyle;
@@ -39,6 +41,102 @@ public class SsioTest {
 		Assert.assertFalse(Ssio.shouldSave(Arrays.asList(new DatumError()), false));
 	}
 
+	@Test
+	public void validateSaveOptionsTest_NonPositiveWindow() {
+		expectedEx.expect(IllegalArgumentException.class);
+		expectedEx.expectMessage("rowAccessWindowSize");
+		Ssio.validateSaveOptions(SaveOptions.streaming(0));
+	}
+
+	@Test
+	public void validateSaveOptionsTest_NoRoomForData() {
+		expectedEx.expect(IllegalArgumentException.class);
+		expectedEx.expectMessage("maxRowsPerSheet");
+		SaveOptions saveOptions = new SaveOptions();
+		saveOptions.setMaxRowsPerSheet(1);
+		Ssio.validateSaveOptions(saveOptions);
+	}
+
+	@Test
+	public void validateSaveOptionsTest_InvalidCompressionLevel() {
+		expectedEx.expect(IllegalArgumentException.class);
+		expectedEx.expectMessage("compressionLevel");
+		SaveOptions saveOptions = new SaveOptions();
+		saveOptions.setCompressionLevel(10);
+		Ssio.validateSaveOptions(saveOptions);
+	}
+
+	@Test
+	public void canWriteDirectlyTest() {
+		SaveOptions saveOptions = new SaveOptions();
+		Assert.assertFalse(Ssio.canWriteDirectly(saveOptions, true));
+		saveOptions.setDirectWriting(true);
+		Assert.assertTrue(Ssio.canWriteDirectly(saveOptions, true));
+		Assert.assertFalse(Ssio.canWriteDirectly(saveOptions, false));
+		saveOptions.registerCellStyle("bold", workbook -> workbook.createCellStyle());
+		Assert.assertFalse(Ssio.canWriteDirectly(saveOptions, true));
+	}
+
+	@Test
+	public void canWriteDirectlyTest_RezippingStreamingSave() {
+		SaveOptions saveOptions = new SaveOptions();
+		saveOptions.setCompressionLevel(9);
+		Assert.assertFalse(Ssio.canWriteDirectly(saveOptions, true));
+		saveOptions.setStreaming(true);
+		Assert.assertTrue(Ssio.canWriteDirectly(saveOptions, true));
+		Assert.assertFalse(Ssio.canWriteDirectly(saveOptions, false));
+
+		saveOptions.setCompressionLevel(Deflater.DEFAULT_COMPRESSION);
+		Assert.assertFalse(Ssio.canWriteDirectly(saveOptions, true));
+		saveOptions.addSharedStringsColumn("str");
+		Assert.assertTrue(Ssio.canWriteDirectly(saveOptions, true));
+		saveOptions.registerCellStyle("bold", workbook -> workbook.createCellStyle());
+		Assert.assertFalse(Ssio.canWriteDirectly(saveOptions, true));
+	}
+
+	@Test
+	public void validateParseOptionsTest_QuoteAsCsvSeparator() {
+		expectedEx.expect(IllegalArgumentException.class);
+		expectedEx.expectMessage("csvSeparator");
+		ParseOptions parseOptions = new ParseOptions();
+		parseOptions.setCsvSeparator('"');
+		Ssio.validateParseOptions(parseOptions);
+	}
+
+	@Test
+	public void validateParseOptionsTest_NonPositiveChunkSize() {
+		expectedEx.expect(IllegalArgumentException.class);
+		expectedEx.expectMessage("parallelChunkSize");
+		ParseOptions parseOptions = new ParseOptions();
+		parseOptions.setParallelChunkSize(0);
+		Ssio.validateParseOptions(parseOptions);
+	}
+
+	@Test
+	public void validateSaveOptionsTest_UnregisteredColumnStyle() {
+		expectedEx.expect(IllegalArgumentException.class);
+		expectedEx.expectMessage("not registered");
+		SaveOptions saveOptions = new SaveOptions();
+		saveOptions.setColumnStyle("someProp", "noSuchStyle");
+		Ssio.validateSaveOptions(saveOptions);
+	}
+
+	@Test
+	public void toTypedCellValueTest() {
+		Assert.assertNull(Ssio.toTypedCellValue(null));
+		Assert.assertEquals(1d, Ssio.toTypedCellValue((short) 1));
+		Assert.assertEquals(1.02d, Ssio.toTypedCellValue(1.02f));
+		Assert.assertEquals(Boolean.TRUE, Ssio.toTypedCellValue(true));
+		Assert.assertEquals(9007199254740992d, Ssio.toTypedCellValue(9007199254740992l));
+		Assert.assertEquals("9007199254740993", Ssio.toTypedCellValue(9007199254740993l));
+		Assert.assertEquals(1.5d, Ssio.toTypedCellValue(new BigDecimal("1.50")));
+		Assert.assertEquals("0.1234567890123456789", Ssio.toTypedCellValue(new BigDecimal("0.1234567890123456789")));
+		Assert.assertEquals("NaN", Ssio.toTypedCellValue(Double.NaN));
+		Assert.assertEquals("abc", Ssio.toTypedCellValue(new StringBuilder("abc")));
+		Date now = new Date();
+		Assert.assertSame(now, Ssio.toTypedCellValue(now));
+	}
+
 	@Test
 	public void validateRecordClass_NullClass() {
 		expectedEx.expect(IllegalArgumentException.class);
@@ -0,0 +1,96 @@
+package org.sep4j.support;
+
+import java.math.BigDecimal;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * a micro benchmark of the whole number normalization. It compares
+ * {@link SepBasicTypeConverts#retainWholeIfDecimalPartZero(String)} with the
+ * former implementation, which built a big decimal and compiled a regex for
+ * every call. Not a unit test; run it with the main method.
+ *
+ * @author chenjianjx
+ */
+public class SepBasicTypeConvertsBenchmark {
+
+	private static final String[] INPUTS = { "123.0", "45678.0", "2.01", "0.0", "-3", "1.23457E+17", "abc" };
+
+	private static final int ROUNDS = 5;
+
+	private static final int ITERATIONS = 1000000;
+
+	public static void main(String[] args) {
+		for (int round = 0; round < ROUNDS; round++) {
+			// the first rounds are for warming up
+			long former = timeFormer();
+			long current = timeCurrent();
+			long conversion = timeIntConversion();
+			System.out.println("round " + round + ": former = " + former / ITERATIONS + "ns/op, current = " + current / ITERATIONS
+					+ "ns/op, int conversion = " + conversion / ITERATIONS + "ns/op");
+		}
+	}
+
+	private static long timeFormer() {
+		int sink = 0;
+		long start = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++) {
+			sink += formerRetainWholeIfDecimalPartZero(INPUTS[i % INPUTS.length]).length();
+		}
+		long elapsed = System.nanoTime() - start;
+		consume(sink);
+		return elapsed;
+	}
+
+	private static long timeCurrent() {
+		int sink = 0;
+		long start = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++) {
+			sink += SepBasicTypeConverts.retainWholeIfDecimalPartZero(INPUTS[i % INPUTS.length]).length();
+		}
+		long elapsed = System.nanoTime() - start;
+		consume(sink);
+		return elapsed;
+	}
+
+	private static long timeIntConversion() {
+		int sink = 0;
+		long start = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++) {
+			Object value = SepBasicTypeConverts.tryFromThisString(INPUTS[i % INPUTS.length], Integer.class);
+			sink += value == SepBasicTypeConverts.NOT_CONVERTIBLE ? 0 : 1;
+		}
+		long elapsed = System.nanoTime() - start;
+		consume(sink);
+		return elapsed;
+	}
+
+	private static void consume(int sink) {
+		if (sink == 42) {
+			System.out.print("");
+		}
+	}
+
+	/**
+	 * the former implementation
+	 */
+	private static String formerRetainWholeIfDecimalPartZero(String s) {
+		if (s == null) {
+			return s;
+		}
+
+		try {
+			BigDecimal d = new BigDecimal(s);
+			s = d.toPlainString();
+		} catch (NumberFormatException e) {
+			return s;
+		}
+
+		Pattern pattern = Pattern.compile("^(\\d+)\\.0*$");
+		Matcher matcher = pattern.matcher(s);
+		if (matcher.find()) {
+			return matcher.group(1);
+		}
+		return s;
+	}
+}
@@ -3,6 +3,9 @@ package org.sep4j.support;
 import static junit.framework.Assert.assertEquals;
 import static junit.framework.Assert.assertFalse;
 import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.assertTrue;
+import static org.sep4j.support.SepBasicTypeConverts.NOT_CONVERTIBLE;
 import static org.sep4j.support.SepBasicTypeConverts.retainWholeIfDecimalPartZero;
 
 import java.math.BigDecimal;
@@ -37,6 +40,14 @@ public class SepBasicTypeConvertsTest {
 		assertEquals("2", retainWholeIfDecimalPartZero("2"));
 		assertEquals("2.01", retainWholeIfDecimalPartZero("2.01"));
 		assertEquals("123457000000000000", retainWholeIfDecimalPartZero("1.23457E+17"));
+		assertEquals("-15", retainWholeIfDecimalPartZero("-1.5E+1"));
+		assertEquals("1.5", retainWholeIfDecimalPartZero("1.5E+0"));
+		assertEquals("-3", retainWholeIfDecimalPartZero("-3.00"));
+		assertEquals("-3", retainWholeIfDecimalPartZero("-3"));
+		assertEquals("3", retainWholeIfDecimalPartZero("+3.0"));
+		assertEquals("7", retainWholeIfDecimalPartZero("007.0"));
+		assertEquals("0", retainWholeIfDecimalPartZero("-0.0"));
+		assertEquals("0", retainWholeIfDecimalPartZero(".0"));
 		
 		
 		assertNull(retainWholeIfDecimalPartZero(null));
@@ -46,6 +57,68 @@ public class SepBasicTypeConvertsTest {
 
 	}
 	
+	@Test
+	public void tryFromThisStringTest() {
+		assertEquals(123, SepBasicTypeConverts.tryFromThisString("123", int.class));
+		assertEquals(-123, SepBasicTypeConverts.tryFromThisString("-123", int.class));
+		assertEquals(-123, SepBasicTypeConverts.tryFromThisString("-123.00", int.class));
+		assertEquals(5, SepBasicTypeConverts.tryFromThisString("+5", int.class));
+		assertEquals(100, SepBasicTypeConverts.tryFromThisString("1E+2", int.class));
+		assertEquals(123457000000000000l, SepBasicTypeConverts.tryFromThisString("1.23457E+17", long.class));
+		assertEquals(Long.MIN_VALUE, SepBasicTypeConverts.tryFromThisString(String.valueOf(Long.MIN_VALUE), long.class));
+		assertEquals(Long.MAX_VALUE, SepBasicTypeConverts.tryFromThisString(String.valueOf(Long.MAX_VALUE), long.class));
+		assertEquals(1.5d, SepBasicTypeConverts.tryFromThisString(" 1.5 ", double.class));
+		assertEquals(1.5f, SepBasicTypeConverts.tryFromThisString("1.5f", float.class));
+		assertEquals(8d, SepBasicTypeConverts.tryFromThisString("0x1p3", double.class));
+		assertTrue(Double.isNaN((Double) SepBasicTypeConverts.tryFromThisString("NaN", Double.class)));
+		assertEquals(new BigDecimal("1.5E+3"), SepBasicTypeConverts.tryFromThisString("1.5E+3", BigDecimal.class));
+		assertEquals(new BigInteger("1500"), SepBasicTypeConverts.tryFromThisString("1.5E+3", BigInteger.class));
+		assertNull(SepBasicTypeConverts.tryFromThisString(null, Integer.class));
+
+		assertSame(NOT_CONVERTIBLE, SepBasicTypeConverts.tryFromThisString(null, int.class));
+		assertSame(NOT_CONVERTIBLE, SepBasicTypeConverts.tryFromThisString("", int.class));
+		assertSame(NOT_CONVERTIBLE, SepBasicTypeConverts.tryFromThisString("-", int.class));
+		assertSame(NOT_CONVERTIBLE, SepBasicTypeConverts.tryFromThisString("1.5", int.class));
+		assertSame(NOT_CONVERTIBLE, SepBasicTypeConverts.tryFromThisString("1e", long.class));
+		assertSame(NOT_CONVERTIBLE, SepBasicTypeConverts.tryFromThisString("1.2.3", double.class));
+		assertSame(NOT_CONVERTIBLE, SepBasicTypeConverts.tryFromThisString("0xzz", double.class));
+		assertSame(NOT_CONVERTIBLE, SepBasicTypeConverts.tryFromThisString(" 1", BigDecimal.class));
+		assertSame(NOT_CONVERTIBLE, SepBasicTypeConverts.tryFromThisString("1.5", BigInteger.class));
+		assertSame(NOT_CONVERTIBLE, SepBasicTypeConverts.tryFromThisString("abc", Object.class));
+	}
+
+	@Test
+	public void tryFromThisNumberTest() {
+		assertEquals(123, SepBasicTypeConverts.tryFromThisNumber(123d, int.class));
+		assertEquals((short) -2, SepBasicTypeConverts.tryFromThisNumber(-2d, Short.class));
+		assertEquals(1.5d, SepBasicTypeConverts.tryFromThisNumber(1.5d, double.class));
+		assertEquals(1.5f, SepBasicTypeConverts.tryFromThisNumber(1.5d, Float.class));
+		assertEquals(new BigDecimal("1.5"), SepBasicTypeConverts.tryFromThisNumber(1.5d, BigDecimal.class));
+		assertEquals(new BigInteger("3"), SepBasicTypeConverts.tryFromThisNumber(3d, BigInteger.class));
+
+		// a big double is taken as it's displayed
+		assertEquals(123457000000000000l, SepBasicTypeConverts.tryFromThisNumber(1.23457E+17, long.class));
+		// a big decimal is taken exactly
+		assertEquals(12345678901234567l, SepBasicTypeConverts.tryFromThisNumber(new BigDecimal("12345678901234567"), long.class));
+		assertEquals(new BigDecimal("12345678901234567.1"),
+				SepBasicTypeConverts.tryFromThisNumber(new BigDecimal("12345678901234567.1"), BigDecimal.class));
+
+		assertSame(NOT_CONVERTIBLE, SepBasicTypeConverts.tryFromThisNumber(1.5d, int.class));
+		assertSame(NOT_CONVERTIBLE, SepBasicTypeConverts.tryFromThisNumber(40000d, short.class));
+		assertSame(NOT_CONVERTIBLE, SepBasicTypeConverts.tryFromThisNumber(1e19, long.class));
+		assertSame(NOT_CONVERTIBLE, SepBasicTypeConverts.tryFromThisNumber(Double.NaN, long.class));
+		assertSame(NOT_CONVERTIBLE, SepBasicTypeConverts.tryFromThisNumber(1.5d, BigInteger.class));
+		assertSame(NOT_CONVERTIBLE, SepBasicTypeConverts.tryFromThisNumber(1d, String.class));
+		assertNull(SepBasicTypeConverts.getNumberConverter(boolean.class));
+	}
+
+	@Test
+	public void getStringConverterTest() {
+		assertSame(int.class, SepBasicTypeConverts.getStringConverter(int.class).getType());
+		assertNull(SepBasicTypeConverts.getStringConverter(java.util.Date.class));
+		assertNull(SepBasicTypeConverts.getStringConverter(Object.class));
+	}
+
 	@Test
 	public void unsupportedTypeTest(){
 		assertFalse(SepBasicTypeConverts.canFromThisString("ab123", Object.class));
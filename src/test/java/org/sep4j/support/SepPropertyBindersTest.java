@@ -0,0 +1,80 @@
+package org.sep4j.support;
+
+import java.lang.reflect.InvocationTargetException;
+
+import junit.framework.Assert;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/**
+ * @author chenjianjx
+ * 
+ * 
+ */
+public class SepPropertyBindersTest {
+
+	@Rule
+	public ExpectedException expectedEx = ExpectedException.none();
+
+	@Test
+	public void getterAndSetterTest() throws Exception {
+		Car car = new Car();
+		SepPropertyBinders.bindSetter(Car.class.getMethod("setSeats", int.class)).set(car, 5);
+		SepPropertyBinders.bindSetter(Car.class.getMethod("setName", String.class)).set(car, "Beetle");
+
+		Assert.assertEquals(5, SepPropertyBinders.bindGetter(Car.class.getMethod("getSeats")).get(car));
+		Assert.assertEquals("Beetle", SepPropertyBinders.bindGetter(Car.class.getMethod("getName")).get(car));
+		Assert.assertEquals(int.class, SepPropertyBinders.bindSetter(Car.class.getMethod("setSeats", int.class)).getPropClass());
+	}
+
+	@Test
+	public void setterTest_NullForPrimitive() throws Exception {
+		expectedEx.expect(IllegalArgumentException.class);
+		SepPropertyBinders.bindSetter(Car.class.getMethod("setSeats", int.class)).set(new Car(), null);
+	}
+
+	@Test
+	public void setterTest_TypeMismatch() throws Exception {
+		expectedEx.expect(IllegalArgumentException.class);
+		SepPropertyBinders.bindSetter(Car.class.getMethod("setName", String.class)).set(new Car(), 1);
+	}
+
+	@Test
+	public void setterTest_SetterThrows() throws Exception {
+		try {
+			SepPropertyBinders.bindSetter(Car.class.getMethod("setSeats", int.class)).set(new Car(), -1);
+			Assert.fail();
+		} catch (IllegalStateException e) {
+			Assert.assertTrue(e.getCause() instanceof InvocationTargetException);
+			Assert.assertEquals("negative seats", e.getCause().getCause().getMessage());
+		}
+	}
+
+	private static class Car {
+		private int seats;
+		private String name;
+
+		public int getSeats() {
+			return seats;
+		}
+
+		public void setSeats(int seats) {
+			if (seats < 0) {
+				throw new IllegalArgumentException("negative seats");
+			}
+			this.seats = seats;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		// a fluent setter
+		public Car setName(String name) {
+			this.name = name;
+			return this;
+		}
+	}
+}
@@ -36,10 +36,32 @@ public class SepReflectionHelperTest {
 		Assert.assertEquals(2, setters.size());
 	}
 
+	@Test
+	public void findSettersByPropNameTest_Cached() {
+		List<Method> setters = SepReflectionHelper.findSettersByPropName(Book.class, "pageCount");
+		Assert.assertEquals(setters, SepReflectionHelper.findSettersByPropName(Book.class, "pageCount"));
+		Assert.assertTrue(SepReflectionHelper.findSettersByPropName(Book.class, "noSuchProp").isEmpty());
+	}
+
+	@Test
+	public void findSettersByPropNameTest_Mutable() {
+		List<Method> setters = SepReflectionHelper.findSettersByPropName(Book.class, "pageCount");
+		setters.clear();
+		Assert.assertEquals(2, SepReflectionHelper.findSettersByPropName(Book.class, "pageCount").size());
+	}
+
 	@Test
 	public void findSetterByPropNameAndTypeTest() {
 		Assert.assertNotNull(SepReflectionHelper.findSetterByPropNameAndType(Book.class, "pageCount", int.class));
 		Assert.assertNotNull(SepReflectionHelper.findSetterByPropNameAndType(Book.class, "pageCount", String.class));
+		Assert.assertNull(SepReflectionHelper.findSetterByPropNameAndType(Book.class, "pageCount", long.class));
+	}
+
+	@Test
+	public void findGetLiterallyTest_CovariantReturn() {
+		Method getter = SepReflectionHelper.findGetLiterally(Novel.class, "name");
+		Assert.assertEquals(String.class, getter.getReturnType());
+		Assert.assertEquals("novel", SepReflectionHelper.getProperty(new Novel(), "name"));
 	}
 	
 	
@@ -64,6 +86,19 @@ public class SepReflectionHelperTest {
 	
  
 
+	public static class Named {
+		public Object getName() {
+			return null;
+		}
+	}
+
+	public static class Novel extends Named {
+		@Override
+		public String getName() {
+			return "novel";
+		}
+	}
+
 	@SuppressWarnings("unused")
 	private static final class Book {
 		private Long id;